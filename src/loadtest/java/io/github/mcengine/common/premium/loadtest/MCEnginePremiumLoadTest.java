@@ -0,0 +1,280 @@
+package io.github.mcengine.common.premium.loadtest;
+
+import io.github.mcengine.common.premium.MCEnginePremiumCommon;
+import io.github.mcengine.common.premium.command.MCEnginePremiumCommand;
+import io.github.mcengine.common.premium.tabcompleter.MCEnginePremiumTabCompleter;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless load test for {@code /premium}: simulated players issue commands at a Poisson arrival
+ * rate through {@link MCEnginePremiumCommand}, {@link MCEnginePremiumTabCompleter} and the
+ * {@link MCEnginePremiumCommon} API against a real backend.
+ *
+ * <p>Latency is measured from the scheduled arrival time to the player's reply (or to the return of
+ * the tab completer / API call), so queueing on a saturated main thread is included. Each player has
+ * at most one command in flight; arrivals that find their sampled players busy are counted as skipped.</p>
+ *
+ * <p>Run with {@code ./gradlew loadTest -PloadtestArgs="--backend sqlite --players 500 --rate 1000"}.
+ * Options (defaults in brackets):</p>
+ * <ul>
+ *   <li>{@code --backend} sqlite | mysql | postgresql | sharded [sqlite]</li>
+ *   <li>{@code --config} YAML file with the plugin configuration (database credentials, shards, ...)</li>
+ *   <li>{@code --players} number of online players [500]</li>
+ *   <li>{@code --rate} command arrivals per second [500]</li>
+ *   <li>{@code --duration} measured seconds [30]</li>
+ *   <li>{@code --warmup} unmeasured seconds before the run [5]</li>
+ *   <li>{@code --mix} weighted operations [upgrade=45,get=45,getother=5,tab=5]; also
+ *       {@code api-get} and {@code api-upgrade}, which call the API from an async thread</li>
+ *   <li>{@code --rank-type} rank type to exercise [vip]</li>
+ *   <li>{@code --seed} random seed [42]</li>
+ * </ul>
+ */
+public final class MCEnginePremiumLoadTest {
+
+    /** Supported operations of {@code --mix}. */
+    private static final List<String> OPERATIONS = List.of("upgrade", "get", "getother", "tab", "api-get", "api-upgrade");
+
+    /** How many random players an arrival tries before it is skipped. */
+    private static final int PICK_ATTEMPTS = 8;
+
+    /** A simulated player and its in-flight command. */
+    private static final class SimPlayer {
+        /** Player name. */
+        final String name;
+        /** Arrival time of the in-flight command, or 0 when idle. */
+        final AtomicLong pendingSince = new AtomicLong();
+        /** Statistics of the in-flight command. */
+        volatile MCEnginePremiumLoadTestStats pendingStats;
+        /** Mock player; set right after creation. */
+        Player player;
+
+        SimPlayer(String name) { this.name = name; }
+    }
+
+    private MCEnginePremiumLoadTest() {}
+
+    /**
+     * Entry point.
+     *
+     * @param args command-line options, see the class documentation
+     * @throws Exception if setup fails
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String backend = options.getOrDefault("backend", "sqlite").toLowerCase(Locale.ROOT);
+        int playerCount = Integer.parseInt(options.getOrDefault("players", "500"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "500"));
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("duration", "30")));
+        long warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("warmup", "5")));
+        String rankType = options.getOrDefault("rank-type", "vip");
+        Random random = new Random(Long.parseLong(options.getOrDefault("seed", "42")));
+        Map<String, Integer> mix = parseMix(options.getOrDefault("mix", "upgrade=45,get=45,getother=5,tab=5"));
+
+        File dataFolder = Files.createTempDirectory("mcengine-premium-loadtest").toFile();
+        YamlConfiguration config = options.containsKey("config")
+                ? YamlConfiguration.loadConfiguration(new File(options.get("config")))
+                : new YamlConfiguration();
+        config.set("database.type", backend);
+        if ("sharded".equals(backend) && !config.isConfigurationSection("database.sharded.shards")) {
+            for (int i = 0; i < 2; i++) {
+                config.set("database.sharded.shards.shard-" + i + ".type", "sqlite");
+                config.set("database.sharded.shards.shard-" + i + ".path", "loadtest-" + i + ".db");
+            }
+        }
+
+        MCEnginePremiumLoadTestServer server = new MCEnginePremiumLoadTestServer(config, dataFolder);
+        Bukkit.setServer(server.server());
+
+        long startupBegin = System.nanoTime();
+        MCEnginePremiumCommon api = new MCEnginePremiumCommon(server.plugin());
+        long constructorNanos = System.nanoTime() - startupBegin;
+        api.whenReady().get(2, TimeUnit.MINUTES);
+        long readyNanos = System.nanoTime() - startupBegin;
+        api.createPremiumRank(rankType);
+
+        Map<String, MCEnginePremiumLoadTestStats> stats = new LinkedHashMap<>();
+        for (String op : mix.keySet()) stats.put(op, new MCEnginePremiumLoadTestStats(op));
+        AtomicLong measureFrom = new AtomicLong(Long.MAX_VALUE);
+
+        List<SimPlayer> players = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            SimPlayer sim = new SimPlayer("LoadTest" + i);
+            sim.player = server.addPlayer(sim.name, now -> {
+                long since = sim.pendingSince.getAndSet(0L);
+                if (since != 0L && since >= measureFrom.get()) sim.pendingStats.record(now - since);
+            });
+            players.add(sim);
+        }
+
+        MCEnginePremiumCommand command = new MCEnginePremiumCommand();
+        MCEnginePremiumTabCompleter tabCompleter = new MCEnginePremiumTabCompleter();
+        ExecutorService apiCallers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "LoadTest-ApiCaller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        LongAdder skipped = new LongAdder();
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+
+        System.out.printf(Locale.ROOT, "Backend %s, %d players, %.0f arrivals/s, mix %s%n", backend, playerCount, rate, mix);
+        System.out.printf(Locale.ROOT, "Startup: constructor returned in %.1f ms, ready after %.1f ms%n",
+                constructorNanos / 1e6, readyNanos / 1e6);
+
+        long begin = System.nanoTime();
+        long measureStart = begin + warmupNanos;
+        long end = measureStart + durationNanos;
+        long mainNanosAtStart = -1L;
+        double next = begin;
+        while (true) {
+            next += -Math.log(1D - random.nextDouble()) / rate * 1e9;
+            long arrival = (long) next;
+            if (arrival >= end) break;
+            long wait = arrival - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+            if (mainNanosAtStart < 0 && arrival >= measureStart) {
+                measureFrom.set(measureStart);
+                mainNanosAtStart = server.mainThreadNanos();
+            }
+
+            String op = pick(mix, totalWeight, random);
+            MCEnginePremiumLoadTestStats opStats = stats.get(op);
+            SimPlayer sim = reserve(players, random);
+            if (sim == null) {
+                if (arrival >= measureStart) skipped.increment();
+                continue;
+            }
+            boolean measured = arrival >= measureStart;
+            switch (op) {
+                case "upgrade", "get", "getother" -> {
+                    String[] commandArgs = switch (op) {
+                        case "upgrade" -> new String[]{"upgrade", rankType};
+                        case "get" -> new String[]{"get", rankType};
+                        default -> new String[]{"get", players.get(random.nextInt(players.size())).name, rankType};
+                    };
+                    sim.pendingStats = opStats;
+                    sim.pendingSince.set(arrival);
+                    server.runOnMainThread(() -> {
+                        try {
+                            command.onCommand(sim.player, null, "premium", commandArgs);
+                        } catch (RuntimeException e) {
+                            sim.pendingSince.set(0L);
+                            throw e;
+                        }
+                    });
+                }
+                case "tab" -> server.runOnMainThread(() -> {
+                    try {
+                        tabCompleter.onTabComplete(sim.player, null, "premium", new String[]{"get", ""});
+                        if (measured) opStats.record(System.nanoTime() - arrival);
+                    } finally {
+                        sim.pendingSince.set(0L);
+                    }
+                });
+                default -> apiCallers.execute(() -> {
+                    try {
+                        String uuid = sim.player.getUniqueId().toString();
+                        if ("api-upgrade".equals(op)) api.upgradePremiumRank(uuid, rankType);
+                        else api.getPremiumRank(uuid, rankType);
+                        if (measured) opStats.record(System.nanoTime() - arrival);
+                    } finally {
+                        sim.pendingSince.set(0L);
+                    }
+                });
+            }
+        }
+
+        long mainNanosAtEnd = server.mainThreadNanos();
+
+        // Give in-flight commands a moment to finish; whatever is left counts as a timeout.
+        long drainUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < drainUntil && players.stream().anyMatch(p -> p.pendingSince.get() != 0L)) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        for (SimPlayer sim : players) {
+            if (sim.pendingSince.get() >= measureStart && sim.pendingStats != null) sim.pendingStats.timeout();
+        }
+
+        double seconds = durationNanos / 1e9;
+        long mainNanos = mainNanosAtEnd - Math.max(0L, mainNanosAtStart);
+        long ticks = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(durationNanos) / MCEnginePremiumLoadTestServer.TICK_MILLIS);
+        int completed = stats.values().stream().mapToInt(MCEnginePremiumLoadTestStats::count).sum();
+
+        System.out.println();
+        System.out.println(MCEnginePremiumLoadTestStats.header());
+        for (MCEnginePremiumLoadTestStats opStats : stats.values()) System.out.println(opStats.row(seconds));
+        System.out.printf(Locale.ROOT, "%nThroughput: %.1f ops/s completed over %.1f s%n", completed / seconds, seconds);
+        System.out.printf(Locale.ROOT, "Main thread: %.1f ms busy (%.1f%% of wall time), %.2f ms per %d ms tick, longest task %.2f ms%n",
+                mainNanos / 1e6, mainNanos / (double) durationNanos * 100D, mainNanos / 1e6 / ticks,
+                MCEnginePremiumLoadTestServer.TICK_MILLIS, server.longestMainTaskNanos() / 1e6);
+        System.out.printf(Locale.ROOT, "Skipped arrivals (players busy): %d, task errors: %d%n", skipped.sum(), server.taskErrors());
+
+        api.shutdown();
+        apiCallers.shutdown();
+        server.shutdown();
+    }
+
+    /**
+     * Reserves an idle player, trying a few random ones.
+     *
+     * @return the reserved player, or {@code null} if all sampled players were busy
+     */
+    private static SimPlayer reserve(List<SimPlayer> players, Random random) {
+        for (int attempt = 0; attempt < PICK_ATTEMPTS; attempt++) {
+            SimPlayer sim = players.get(random.nextInt(players.size()));
+            // Reserve with a placeholder; the real arrival time is set just before dispatch.
+            if (sim.pendingSince.compareAndSet(0L, Long.MIN_VALUE)) return sim;
+        }
+        return null;
+    }
+
+    private static String pick(Map<String, Integer> mix, int totalWeight, Random random) {
+        int roll = random.nextInt(totalWeight);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) return entry.getKey();
+        }
+        throw new IllegalStateException("Empty operation mix");
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split("=");
+            String op = pair[0].trim().toLowerCase(Locale.ROOT);
+            if (!OPERATIONS.contains(op)) throw new IllegalArgumentException("Unknown operation in --mix: " + op);
+            int weight = pair.length > 1 ? Integer.parseInt(pair[1].trim()) : 1;
+            if (weight > 0) mix.put(op, weight);
+        }
+        if (mix.isEmpty()) throw new IllegalArgumentException("--mix selects no operation");
+        return mix;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value pairs, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,282 @@
+package io.github.mcengine.common.premium.loadtest;
+
+import org.bukkit.Server;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+import java.util.logging.Logger;
+
+/**
+ * Headless stand-in for a Bukkit server, built from {@link Proxy} mocks.
+ *
+ * <p>A single "Server thread" plays the main thread: synchronous scheduler tasks and command
+ * dispatch run there, and the time spent on it is measured. Asynchronous scheduler tasks run on
+ * a cached pool, like CraftBukkit's async scheduler. Unlike a real server, main-thread tasks run
+ * as soon as the thread is free instead of once per 50 ms tick.</p>
+ */
+final class MCEnginePremiumLoadTestServer {
+
+    /** Duration of one server tick in milliseconds. */
+    static final long TICK_MILLIS = 50L;
+
+    /** Logger shared by the mock server and plugin. */
+    private final Logger logger = Logger.getLogger("MCEnginePremium-LoadTest");
+
+    /** The simulated main thread. */
+    private final ExecutorService mainThread;
+
+    /** Thread backing {@link #mainThread}, for {@code isPrimaryThread}. */
+    private volatile Thread mainThreadRef;
+
+    /** Pool for {@code runTaskAsynchronously}. */
+    private final ExecutorService asyncPool = Executors.newCachedThreadPool(daemon("Async-Worker"));
+
+    /** Pool driving delayed and repeating tasks. */
+    private final ScheduledExecutorService timers = Executors.newScheduledThreadPool(2, daemon("Scheduler"));
+
+    /** Online players by name. */
+    private final Map<String, Player> playersByName = new ConcurrentHashMap<>();
+
+    /** Online players by UUID. */
+    private final Map<UUID, Player> playersById = new ConcurrentHashMap<>();
+
+    /** Nanoseconds spent running tasks on the main thread. */
+    private final LongAdder mainThreadNanos = new LongAdder();
+
+    /** Longest single main-thread task in nanoseconds. */
+    private final AtomicLong longestMainTaskNanos = new AtomicLong();
+
+    /** Tasks that threw. */
+    private final LongAdder taskErrors = new LongAdder();
+
+    /** Task id sequence. */
+    private final AtomicInteger taskIds = new AtomicInteger();
+
+    /** The mock {@link Server}. */
+    private final Server server;
+
+    /** The mock {@link Plugin}. */
+    private final Plugin plugin;
+
+    /**
+     * @param config     configuration returned by {@link Plugin#getConfig()}
+     * @param dataFolder data folder returned by {@link Plugin#getDataFolder()}
+     */
+    MCEnginePremiumLoadTestServer(FileConfiguration config, File dataFolder) {
+        this.mainThread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Server thread");
+            thread.setDaemon(true);
+            mainThreadRef = thread;
+            return thread;
+        });
+
+        BukkitScheduler scheduler = proxy(BukkitScheduler.class, (self, method, args) -> switch (method.getName()) {
+            case "runTask" -> schedule((Runnable) args[1], 0L, 0L, true);
+            case "runTaskAsynchronously" -> schedule((Runnable) args[1], 0L, 0L, false);
+            case "runTaskLater" -> schedule((Runnable) args[1], (long) args[2], 0L, true);
+            case "runTaskLaterAsynchronously" -> schedule((Runnable) args[1], (long) args[2], 0L, false);
+            case "runTaskTimer" -> schedule((Runnable) args[1], (long) args[2], (long) args[3], true);
+            case "runTaskTimerAsynchronously" -> schedule((Runnable) args[1], (long) args[2], (long) args[3], false);
+            default -> defaultValue(method.getReturnType());
+        });
+        PluginManager pluginManager = proxy(PluginManager.class, (self, method, args) -> defaultValue(method.getReturnType()));
+
+        this.server = proxy(Server.class, (self, method, args) -> switch (method.getName()) {
+            case "getScheduler" -> scheduler;
+            case "getPluginManager" -> pluginManager;
+            case "getPlayerExact" -> playersByName.get((String) args[0]);
+            case "getPlayer" -> args[0] instanceof UUID id ? playersById.get(id) : playersByName.get((String) args[0]);
+            case "getOnlinePlayers" -> Collections.unmodifiableCollection(playersByName.values());
+            case "isPrimaryThread" -> Thread.currentThread() == mainThreadRef;
+            case "getLogger" -> logger;
+            case "getName" -> "LoadTest";
+            default -> defaultValue(method.getReturnType());
+        });
+
+        this.plugin = proxy(Plugin.class, (self, method, args) -> switch (method.getName()) {
+            case "getConfig" -> config;
+            case "getDataFolder" -> dataFolder;
+            case "getLogger" -> logger;
+            case "getName" -> "MCEnginePremium";
+            case "isEnabled" -> true;
+            case "getServer" -> server;
+            case "hashCode" -> System.identityHashCode(self);
+            case "equals" -> self == args[0];
+            case "toString" -> "MCEnginePremium-LoadTest";
+            default -> defaultValue(method.getReturnType());
+        });
+    }
+
+    /** Returns the mock server. */
+    Server server() { return server; }
+
+    /** Returns the mock plugin. */
+    Plugin plugin() { return plugin; }
+
+    /**
+     * Creates an online player whose every permission check succeeds.
+     *
+     * @param name      player name
+     * @param onMessage receives {@code System.nanoTime()} whenever the player is sent a message
+     * @return the player
+     */
+    Player addPlayer(String name, LongConsumer onMessage) {
+        UUID id = UUID.randomUUID();
+        Player player = proxy(Player.class, (self, method, args) -> switch (method.getName()) {
+            case "getName", "getDisplayName" -> name;
+            case "getUniqueId" -> id;
+            case "isOnline", "hasPermission", "isOp", "hasPlayedBefore" -> true;
+            case "sendMessage" -> {
+                onMessage.accept(System.nanoTime());
+                yield null;
+            }
+            case "hashCode" -> id.hashCode();
+            case "equals" -> self == args[0];
+            case "toString" -> "Player{" + name + "}";
+            default -> defaultValue(method.getReturnType());
+        });
+        playersByName.put(name, player);
+        playersById.put(id, player);
+        return player;
+    }
+
+    /** Returns all online players. */
+    List<Player> players() { return new ArrayList<>(playersByName.values()); }
+
+    /**
+     * Runs a task on the simulated main thread, accounting its duration.
+     *
+     * @param task task to run
+     */
+    void runOnMainThread(Runnable task) {
+        mainThread.execute(() -> timedOnMain(task));
+    }
+
+    /** Nanoseconds spent on the main thread so far. */
+    long mainThreadNanos() { return mainThreadNanos.sum(); }
+
+    /** Longest single main-thread task in nanoseconds. */
+    long longestMainTaskNanos() { return longestMainTaskNanos.get(); }
+
+    /** Number of scheduled tasks or commands that threw. */
+    long taskErrors() { return taskErrors.sum(); }
+
+    /**
+     * Stops every simulated thread.
+     */
+    void shutdown() {
+        timers.shutdownNow();
+        asyncPool.shutdown();
+        mainThread.shutdown();
+        try {
+            asyncPool.awaitTermination(10, TimeUnit.SECONDS);
+            mainThread.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void timedOnMain(Runnable task) {
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } catch (Throwable t) {
+            taskErrors.increment();
+            logger.warning("Main thread task failed: " + t);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            mainThreadNanos.add(elapsed);
+            longestMainTaskNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    private void runAsync(Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable t) {
+            taskErrors.increment();
+            logger.warning("Async task failed: " + t);
+        }
+    }
+
+    private BukkitTask schedule(Runnable task, long delayTicks, long periodTicks, boolean sync) {
+        Runnable dispatch = sync ? () -> runOnMainThread(task) : () -> asyncPool.execute(() -> runAsync(task));
+        Future<?> future;
+        if (periodTicks > 0) {
+            future = timers.scheduleAtFixedRate(dispatch, delayTicks * TICK_MILLIS, periodTicks * TICK_MILLIS, TimeUnit.MILLISECONDS);
+        } else if (delayTicks > 0) {
+            future = timers.schedule(dispatch, delayTicks * TICK_MILLIS, TimeUnit.MILLISECONDS);
+        } else if (sync) {
+            future = mainThread.submit(() -> timedOnMain(task));
+        } else {
+            future = asyncPool.submit(() -> runAsync(task));
+        }
+        int id = taskIds.incrementAndGet();
+        return proxy(BukkitTask.class, (self, method, args) -> switch (method.getName()) {
+            case "cancel" -> {
+                future.cancel(false);
+                yield null;
+            }
+            case "isCancelled" -> future.isCancelled();
+            case "getTaskId" -> id;
+            case "isSync" -> sync;
+            case "getOwner" -> plugin;
+            default -> defaultValue(method.getReturnType());
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    /**
+     * Returns a neutral value for unmocked methods: zero/false for primitives, an empty
+     * collection for collections and {@code null} otherwise.
+     */
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0D;
+        if (type == float.class) return 0F;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        if (type == char.class) return (char) 0;
+        if (type == List.class || type == Collection.class) return Collections.emptyList();
+        return null;
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
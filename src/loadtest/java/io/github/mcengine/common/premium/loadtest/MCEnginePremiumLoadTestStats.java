@@ -0,0 +1,76 @@
+package io.github.mcengine.common.premium.loadtest;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Collects latency samples of one operation type and summarizes them.
+ */
+final class MCEnginePremiumLoadTestStats {
+
+    /** Operation name shown in the report. */
+    private final String name;
+
+    /** Latency samples in nanoseconds. */
+    private long[] samples = new long[1024];
+
+    /** Number of valid samples. */
+    private int count;
+
+    /** Operations that were issued but never answered. */
+    private long timeouts;
+
+    /**
+     * @param name operation name shown in the report
+     */
+    MCEnginePremiumLoadTestStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records a completed operation.
+     *
+     * @param nanos end-to-end latency in nanoseconds
+     */
+    synchronized void record(long nanos) {
+        if (count == samples.length) samples = Arrays.copyOf(samples, count * 2);
+        samples[count++] = nanos;
+    }
+
+    /** Records an operation that did not complete before the run ended. */
+    synchronized void timeout() {
+        timeouts++;
+    }
+
+    /** Returns the number of completed operations. */
+    synchronized int count() {
+        return count;
+    }
+
+    /**
+     * Formats one report row: count, throughput and latency percentiles in milliseconds.
+     *
+     * @param seconds measured wall time
+     * @return the report row
+     */
+    synchronized String row(double seconds) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return String.format(Locale.ROOT, "%-10s %9d %10.1f %8.2f %8.2f %8.2f %8.2f %9.2f %8d",
+                name, count, count / seconds,
+                millis(sorted, 0.50), millis(sorted, 0.95), millis(sorted, 0.99), millis(sorted, 0.999),
+                count == 0 ? 0D : sorted[count - 1] / 1_000_000D, timeouts);
+    }
+
+    /** Returns the header matching {@link #row(double)}. */
+    static String header() {
+        return String.format(Locale.ROOT, "%-10s %9s %10s %8s %8s %8s %8s %9s %8s",
+                "op", "count", "ops/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms", "timeouts");
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        if (sorted.length == 0) return 0D;
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000D;
+    }
+}
@@ -0,0 +1,215 @@
+package io.github.mcengine.common.premium.loadtest;
+
+import io.github.mcengine.common.premium.database.IMCEnginePremiumDB;
+import io.github.mcengine.common.premium.database.mysql.MCEnginePremiumMySQL;
+import io.github.mcengine.common.premium.database.postgresql.MCEnginePremiumPostgreSQL;
+import io.github.mcengine.common.premium.database.sharding.MCEnginePremiumShardedDB;
+import io.github.mcengine.common.premium.database.sqlite.MCEnginePremiumSQLite;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrency stress suite for {@code upgradePremiumRank}: many threads on several backend
+ * instances increment the same and different players at once, then every final rank is checked
+ * against the number of upgrades issued. A lost or duplicated increment fails the run with exit
+ * code 1, so it can gate CI.
+ *
+ * <p>Each backend instance has its own connection, standing in for one server; all instances
+ * share the same database. Two phases run per invocation:</p>
+ * <ul>
+ *   <li>{@code hot} — every thread upgrades the same {@code --hot-keys} players (maximum contention)</li>
+ *   <li>{@code spread} — every thread upgrades its own players (no row contention)</li>
+ * </ul>
+ * <p>Each phase uses fresh player UUIDs, so the expected rank equals the upgrades issued.
+ * Throughput and per-upgrade latency are reported per phase.</p>
+ *
+ * <p>A smaller SQLite run of both phases, asserting exact counts, is part of {@code ./gradlew test}
+ * ({@code MCEnginePremiumSQLiteUpgradeContentionTest}); use this harness for the server backends
+ * and for throughput numbers.</p>
+ *
+ * <p>Run with {@code ./gradlew stressTest -PstressArgs="--backend mysql --config mysql.yml"}.
+ * Options (defaults in brackets):</p>
+ * <ul>
+ *   <li>{@code --backend} sqlite | mysql | postgresql | sharded [sqlite]</li>
+ *   <li>{@code --config} YAML file with the plugin configuration (database credentials, shards, ...)</li>
+ *   <li>{@code --servers} backend instances sharing the database [2]</li>
+ *   <li>{@code --threads} upgrading threads per instance [8]</li>
+ *   <li>{@code --upgrades} upgrades per thread and phase [500]</li>
+ *   <li>{@code --hot-keys} players shared by all threads in the hot phase [1]</li>
+ *   <li>{@code --rank-type} rank type to exercise [stress]</li>
+ * </ul>
+ */
+public final class MCEnginePremiumStressTest {
+
+    private MCEnginePremiumStressTest() {}
+
+    /**
+     * Outcome of one phase.
+     *
+     * @param name     phase name
+     * @param expected total upgrades issued
+     * @param lost     upgrades missing from the final ranks (negative if duplicated)
+     * @param wrong    players whose final rank differs from the upgrades issued to them
+     * @param stats    per-upgrade latency
+     * @param seconds  wall time of the phase
+     */
+    private record PhaseResult(String name, long expected, long lost, int wrong,
+                               MCEnginePremiumLoadTestStats stats, double seconds) {}
+
+    /**
+     * Entry point.
+     *
+     * @param args command-line options, see the class documentation
+     * @throws Exception if setup fails
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String backend = options.getOrDefault("backend", "sqlite").toLowerCase(Locale.ROOT);
+        int servers = Math.max(1, Integer.parseInt(options.getOrDefault("servers", "2")));
+        int threads = Math.max(1, Integer.parseInt(options.getOrDefault("threads", "8")));
+        int upgrades = Math.max(1, Integer.parseInt(options.getOrDefault("upgrades", "500")));
+        int hotKeys = Math.max(1, Integer.parseInt(options.getOrDefault("hot-keys", "1")));
+        String rankType = options.getOrDefault("rank-type", "stress");
+
+        File dataFolder = Files.createTempDirectory("mcengine-premium-stress").toFile();
+        YamlConfiguration config = options.containsKey("config")
+                ? YamlConfiguration.loadConfiguration(new File(options.get("config")))
+                : new YamlConfiguration();
+        config.set("database.type", backend);
+        if ("sharded".equals(backend) && !config.isConfigurationSection("database.sharded.shards")) {
+            for (int i = 0; i < 2; i++) {
+                config.set("database.sharded.shards.shard-" + i + ".type", "sqlite");
+                config.set("database.sharded.shards.shard-" + i + ".path", "stress-" + i + ".db");
+            }
+        }
+        MCEnginePremiumLoadTestServer server = new MCEnginePremiumLoadTestServer(config, dataFolder);
+        Bukkit.setServer(server.server());
+
+        List<IMCEnginePremiumDB> instances = new ArrayList<>();
+        for (int i = 0; i < servers; i++) instances.add(open(backend, server.plugin()));
+        instances.get(0).createPremiumRank(rankType);
+
+        System.out.printf(Locale.ROOT, "Backend %s, %d instance(s) x %d thread(s), %d upgrades per thread, %d hot key(s)%n",
+                backend, servers, threads, upgrades, hotKeys);
+
+        List<PhaseResult> results = new ArrayList<>();
+        results.add(runPhase("hot", instances, threads, upgrades, rankType, hotKeys, true));
+        results.add(runPhase("spread", instances, threads, upgrades, rankType, hotKeys, false));
+
+        System.out.println();
+        System.out.println(MCEnginePremiumLoadTestStats.header());
+        for (PhaseResult result : results) System.out.println(result.stats().row(result.seconds()));
+        System.out.println();
+        boolean failed = false;
+        for (PhaseResult result : results) {
+            boolean exact = result.lost() == 0 && result.wrong() == 0;
+            failed |= !exact;
+            System.out.printf(Locale.ROOT, "%-6s %s: %d upgrades, %d lost, %d player(s) wrong, %.1f upgrades/s%n",
+                    result.name(), exact ? "PASS" : "FAIL", result.expected(), result.lost(), result.wrong(),
+                    result.expected() / result.seconds());
+        }
+
+        for (IMCEnginePremiumDB instance : instances) instance.disConnection();
+        server.shutdown();
+        System.exit(failed ? 1 : 0);
+    }
+
+    /**
+     * Runs one phase: every thread of every instance issues {@code upgrades} upgrades, then the
+     * final ranks are read back through the first instance and compared with the counts issued.
+     */
+    private static PhaseResult runPhase(String name, List<IMCEnginePremiumDB> instances, int threads, int upgrades,
+                                        String rankType, int hotKeys, boolean hot) throws Exception {
+        int workers = instances.size() * threads;
+        // Hot: all workers share hotKeys players. Spread: each worker owns hotKeys players.
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < (hot ? hotKeys : workers * hotKeys); i++) keys.add(UUID.randomUUID().toString());
+        Map<String, Long> issued = new HashMap<>();
+        for (String key : keys) issued.put(key, 0L);
+        for (int worker = 0; worker < workers; worker++) {
+            for (int i = 0; i < upgrades; i++) issued.merge(keyFor(keys, hot, hotKeys, worker, i), 1L, Long::sum);
+        }
+
+        MCEnginePremiumLoadTestStats stats = new MCEnginePremiumLoadTestStats(name);
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int worker = 0; worker < workers; worker++) {
+            IMCEnginePremiumDB db = instances.get(worker % instances.size());
+            int id = worker;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < upgrades; i++) {
+                    long begin = System.nanoTime();
+                    db.upgradePremiumRank(keyFor(keys, hot, hotKeys, id, i), rankType);
+                    stats.record(System.nanoTime() - begin);
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) future.get();
+        double seconds = Math.max(1e-9, (System.nanoTime() - begin) / 1e9);
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+
+        Map<String, Integer> actual = instances.get(0).getPremiumRanks(rankType, keys);
+        long expected = 0L;
+        long lost = 0L;
+        int wrong = 0;
+        for (Map.Entry<String, Long> entry : issued.entrySet()) {
+            long rank = actual.getOrDefault(entry.getKey(), 0);
+            expected += entry.getValue();
+            lost += entry.getValue() - rank;
+            if (rank != entry.getValue()) wrong++;
+        }
+        return new PhaseResult(name, expected, lost, wrong, stats, seconds);
+    }
+
+    /**
+     * Returns the player upgraded by {@code worker} in its {@code i}-th upgrade.
+     */
+    private static String keyFor(List<String> keys, boolean hot, int hotKeys, int worker, int i) {
+        return hot ? keys.get(i % hotKeys) : keys.get(worker * hotKeys + i % hotKeys);
+    }
+
+    /**
+     * Opens a backend instance with its own connection(s).
+     */
+    private static IMCEnginePremiumDB open(String backend, Plugin plugin) {
+        return switch (backend) {
+            case "sqlite" -> new MCEnginePremiumSQLite(plugin);
+            case "mysql" -> new MCEnginePremiumMySQL(plugin);
+            case "postgresql" -> new MCEnginePremiumPostgreSQL(plugin);
+            case "sharded" -> new MCEnginePremiumShardedDB(plugin);
+            default -> throw new IllegalArgumentException("Unsupported backend: " + backend);
+        };
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value pairs, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+}
@@ -1,33 +1,130 @@
 package io.github.mcengine.common.premium;
 
+import io.github.mcengine.common.premium.backup.MCEnginePremiumBackupManager;
+import io.github.mcengine.common.premium.batch.MCEnginePremiumBatch;
 import io.github.mcengine.common.premium.database.IMCEnginePremiumDB;
+import io.github.mcengine.common.premium.database.MCEnginePremiumBatchOperation;
+import io.github.mcengine.common.premium.database.MCEnginePremiumHolderIterator;
+import io.github.mcengine.common.premium.database.MCEnginePremiumHolderOrder;
+import io.github.mcengine.common.premium.database.MCEnginePremiumPartialBatchException;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankHistoryEntry;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankPredicate;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankRow;
 import io.github.mcengine.common.premium.database.mysql.MCEnginePremiumMySQL;
 import io.github.mcengine.common.premium.database.postgresql.MCEnginePremiumPostgreSQL;
+import io.github.mcengine.common.premium.database.sharding.MCEnginePremiumShardedDB;
 import io.github.mcengine.common.premium.database.sqlite.MCEnginePremiumSQLite;
+import io.github.mcengine.common.premium.expiry.MCEnginePremiumExpiryManager;
+import io.github.mcengine.common.premium.history.MCEnginePremiumHistoryRecorder;
+import io.github.mcengine.common.premium.jfr.MCEnginePremiumDatabaseEvent;
+import io.github.mcengine.common.premium.jfr.MCEnginePremiumJfrDB;
+import io.github.mcengine.common.premium.player.MCEnginePremiumPlayerDirectory;
+import io.github.mcengine.common.premium.ratelimit.MCEnginePremiumRateLimiter;
+import io.github.mcengine.common.premium.statistics.MCEnginePremiumRankStatistics;
+import io.github.mcengine.common.premium.statistics.MCEnginePremiumStatisticsManager;
+import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
 
+import java.io.File;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * Central entrypoint for the Premium module's common API.
  * <p>
- * This class selects and initializes the database backend (SQLite/MySQL/PostgreSQL)
+ * This class selects and initializes the database backend (SQLite/MySQL/PostgreSQL/sharded)
  * based on {@code database.type} in the plugin configuration and exposes
  * the active {@link IMCEnginePremiumDB} implementation to the rest of the plugin.
+ * <p>
+ * Connecting, schema migration and catalog warmup run on background threads so that a slow or
+ * unreachable database never blocks {@code onEnable}. {@link #whenReady()} completes once the
+ * backend is usable. Calls made before that either wait for it or fail fast, depending on
+ * {@code startup.early-call-mode}; on the server thread they always fail fast, so main-thread
+ * callers should defer their work with {@code whenReady().thenRun(...)}.
  */
 public class MCEnginePremiumCommon {
 
+    /** Supported values of {@code database.type}. */
+    private static final Set<String> DATABASE_TYPES = Set.of("sqlite", "mysql", "postgresql", "sharded");
+
     /** Singleton instance of the Premium common API. */
     private static MCEnginePremiumCommon instance;
 
     /** The Bukkit plugin instance that owns this API. */
     private final Plugin plugin;
 
-    /** Database interface used by the Premium module. */
-    private final IMCEnginePremiumDB db;
+    /** Database interface used by the Premium module; {@code null} until initialization completes. */
+    private volatile IMCEnginePremiumDB db;
+
+    /** Completes with the backend once it is connected and its schema is up to date. */
+    private final CompletableFuture<IMCEnginePremiumDB> ready;
+
+    /** Set by {@link #shutdown()}; a startup still running then starts no background tasks. */
+    private volatile boolean shuttingDown;
+
+    /** Rank types known to have a table; tables are never dropped, so entries stay valid. */
+    private final Set<String> knownRankTypes = ConcurrentHashMap.newKeySet();
+
+    /** Whether calls made before the backend is ready fail immediately instead of waiting. */
+    private final boolean failFast;
+
+    /** Maximum time an early call waits for the backend, in milliseconds. */
+    private final long earlyCallTimeoutMillis;
+
+    /** Expiry wheel and sweeper; {@code null} when {@code expiry.enabled} is false. */
+    private final MCEnginePremiumExpiryManager expiryManager;
+
+    /** Buffered rank history writer; {@code null} when {@code history.enabled} is false. */
+    private final MCEnginePremiumHistoryRecorder historyRecorder;
+
+    /** In-memory rank type aggregates; {@code null} when {@code statistics.enabled} is false. */
+    private final MCEnginePremiumStatisticsManager statisticsManager;
+
+    /** Name-to-UUID index of every player who logged in, for offline lookups. */
+    private final MCEnginePremiumPlayerDirectory playerDirectory;
+
+    /** Online SQLite backups for {@code /premium backup} and the scheduled backup task. */
+    private final MCEnginePremiumBackupManager backupManager;
+
+    /** Per-player, per-subcommand limiter for {@code /premium}. */
+    private final MCEnginePremiumRateLimiter rateLimiter;
+
+    /** In-flight rank lookups keyed by {@code rankType:uuid}; concurrent duplicates share one query. */
+    private final Map<String, CompletableFuture<Integer>> inFlightRanks = new ConcurrentHashMap<>();
 
     /**
-     * Constructs the Premium common API and wires the configured database backend.
+     * Constructs the Premium common API and starts initializing the configured database backend
+     * in the background. Returns without touching the database.
      *
-     * <p>Supported values for {@code database.type}: {@code sqlite}, {@code mysql}, {@code postgresql}.</p>
+     * <p>Supported values for {@code database.type}: {@code sqlite}, {@code mysql}, {@code postgresql},
+     * {@code sharded} (see {@link MCEnginePremiumShardedDB}).</p>
+     *
+     * <p>Startup config paths:</p>
+     * <ul>
+     *   <li>{@code startup.early-call-mode} ({@code queue} | {@code fail}, default: queue) — whether
+     *       API calls made off the server thread before the database is ready wait for it or throw
+     *       {@link IllegalStateException}; calls on the server thread never wait</li>
+     *   <li>{@code startup.early-call-timeout-seconds} (default: 30) — how long a queued call waits</li>
+     * </ul>
      *
      * @param plugin the owning Bukkit {@link Plugin} instance
      * @throws IllegalArgumentException if {@code database.type} is unsupported
@@ -35,13 +132,171 @@ public class MCEnginePremiumCommon {
     public MCEnginePremiumCommon(Plugin plugin) {
         instance = this;
         this.plugin = plugin;
+        this.failFast = "fail".equalsIgnoreCase(plugin.getConfig().getString("startup.early-call-mode", "queue"));
+        this.earlyCallTimeoutMillis = Math.max(0L, plugin.getConfig().getLong("startup.early-call-timeout-seconds", 30L)) * 1000L;
 
         String dbType = plugin.getConfig().getString("database.type", "sqlite").toLowerCase();
-        switch (dbType) {
-            case "sqlite" -> this.db = new MCEnginePremiumSQLite(plugin);
-            case "mysql" -> this.db = new MCEnginePremiumMySQL(plugin);
-            case "postgresql" -> this.db = new MCEnginePremiumPostgreSQL(plugin);
+        if (!DATABASE_TYPES.contains(dbType)) {
+            throw new IllegalArgumentException("Unsupported database type: " + dbType);
+        }
+
+        this.historyRecorder = plugin.getConfig().getBoolean("history.enabled", false)
+                ? new MCEnginePremiumHistoryRecorder(this) : null;
+        this.expiryManager = plugin.getConfig().getBoolean("expiry.enabled", true)
+                ? new MCEnginePremiumExpiryManager(this) : null;
+        this.statisticsManager = plugin.getConfig().getBoolean("statistics.enabled", true)
+                ? new MCEnginePremiumStatisticsManager(this) : null;
+        this.playerDirectory = new MCEnginePremiumPlayerDirectory(this);
+        this.backupManager = new MCEnginePremiumBackupManager(this);
+        this.rateLimiter = new MCEnginePremiumRateLimiter(plugin);
+
+        // Dedicated threads rather than the Bukkit async scheduler: its tasks are dispatched by the
+        // main thread, which would deadlock a queued early call made from the main thread.
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService startup = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "MCEnginePremium-Startup-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long started = System.currentTimeMillis();
+        this.ready = CompletableFuture.supplyAsync(() -> connect(dbType), startup)
+                .thenCompose(backend -> warmUp(backend, startup))
+                .thenApply(backend -> {
+                    this.db = backend;
+                    return backend;
+                });
+        ready.whenComplete((backend, error) -> {
+            startup.shutdown();
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                plugin.getLogger().severe("Failed to initialize premium database: " + cause);
+                return;
+            }
+            plugin.getLogger().info("Premium database ready in " + (System.currentTimeMillis() - started) + " ms.");
+            // Disabled before startup finished: shutdown() closes the backend, nothing else to start.
+            if (shuttingDown) return;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (shuttingDown) return;
+                if (historyRecorder != null) historyRecorder.start();
+                if (expiryManager != null) expiryManager.start();
+                if (statisticsManager != null) statisticsManager.start();
+                playerDirectory.start();
+                backupManager.start();
+            });
+        });
+    }
+
+    /**
+     * Creates the backend for {@code dbType}; connects synchronously, so it runs off the main thread.
+     * Unless {@code jfr.enabled} is false, the backend emits {@link MCEnginePremiumDatabaseEvent}s.
+     */
+    private IMCEnginePremiumDB connect(String dbType) {
+        IMCEnginePremiumDB backend = switch (dbType) {
+            case "sqlite" -> new MCEnginePremiumSQLite(plugin);
+            case "mysql" -> new MCEnginePremiumMySQL(plugin);
+            case "postgresql" -> new MCEnginePremiumPostgreSQL(plugin);
+            case "sharded" -> new MCEnginePremiumShardedDB(plugin);
             default -> throw new IllegalArgumentException("Unsupported database type: " + dbType);
+        };
+        if (!plugin.getConfig().getBoolean("jfr.enabled", true)) return backend;
+        exportJfrSettings();
+        return new MCEnginePremiumJfrDB(backend, dbType);
+    }
+
+    /**
+     * Copies the bundled JFR settings profile to {@code <dataFolder>/jfr/mcengine-premium.jfc}
+     * so it can be passed to {@code jcmd <pid> JFR.start settings=...}.
+     */
+    private void exportJfrSettings() {
+        String resource = "jfr/mcengine-premium.jfc";
+        if (new File(plugin.getDataFolder(), resource).exists() || plugin.getResource(resource) == null) return;
+        try {
+            plugin.saveResource(resource, false);
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Could not export " + resource + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Warms the rank type catalog, then migrates every rank table, followed by loading its
+     * statistics, and creates the history and player name tables in parallel.
+     */
+    private CompletableFuture<IMCEnginePremiumDB> warmUp(IMCEnginePremiumDB backend, Executor executor) {
+        List<String> rankTypes = backend.listAvailableRankTypes();
+        for (String rankType : rankTypes) knownRankTypes.add(rankType.toLowerCase(Locale.ROOT));
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        // Re-running the idempotent schema setup migrates tables created by older versions.
+        for (String rankType : rankTypes) {
+            CompletableFuture<Void> migrate = CompletableFuture.runAsync(() -> backend.createPremiumRank(rankType), executor);
+            if (statisticsManager != null) {
+                migrate = migrate.thenRunAsync(() -> statisticsManager.warm(backend, rankType), executor);
+            }
+            tasks.add(migrate);
+        }
+        if (historyRecorder != null) {
+            tasks.add(CompletableFuture.runAsync(backend::createRankHistory, executor));
+        }
+        tasks.add(CompletableFuture.runAsync(backend::createPlayerNames, executor));
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).thenApply(v -> backend);
+    }
+
+    /**
+     * Runs a rank lookup as the leader of {@code key}, completing {@code lookup} for any callers
+     * that joined meanwhile.
+     */
+    private int lookupRank(String key, CompletableFuture<Integer> lookup, String uuid, String rankType) {
+        try {
+            int rank = db().getPremiumRank(uuid, rankType);
+            lookup.complete(rank);
+            return rank;
+        } catch (RuntimeException e) {
+            lookup.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightRanks.remove(key, lookup);
+        }
+    }
+
+    /**
+     * Detaches in-flight lookups after a write so that later readers issue a fresh query
+     * instead of joining one that may predate the write.
+     */
+    private void forgetRankType(String rankType) {
+        String prefix = rankType.toLowerCase(Locale.ROOT) + ":";
+        inFlightRanks.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /** Returns the coalescing key of a rank lookup. */
+    private static String rankKey(String uuid, String rankType) {
+        return rankType.toLowerCase(Locale.ROOT) + ":" + uuid;
+    }
+
+    /**
+     * Returns the backend, waiting for initialization or failing fast according to
+     * {@code startup.early-call-mode}. The server thread never waits: stalling it for the
+     * connect timeout would freeze every player.
+     *
+     * @throws IllegalStateException if the backend is not ready and cannot be waited for
+     */
+    private IMCEnginePremiumDB db() {
+        IMCEnginePremiumDB current = db;
+        if (current != null) return current;
+        if (ready.isCompletedExceptionally()) {
+            throw new IllegalStateException("Premium database failed to initialize");
+        }
+        if (failFast || Bukkit.isPrimaryThread()) {
+            throw new IllegalStateException("Premium database is still starting; defer the call with whenReady()");
+        }
+        try {
+            return ready.get(earlyCallTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out waiting for the premium database", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Premium database failed to initialize", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the premium database", e);
         }
     }
 
@@ -51,8 +306,58 @@ public class MCEnginePremiumCommon {
     /** Returns the Bukkit plugin instance. */
     public Plugin getPlugin() { return plugin; }
 
-    /** Returns the database interface used by this module. */
-    public IMCEnginePremiumDB getDB() { return db; }
+    /**
+     * Returns the database interface used by this module, subject to {@code startup.early-call-mode}
+     * while it is still initializing.
+     */
+    public IMCEnginePremiumDB getDB() { return db(); }
+
+    /** Returns the rank statistics manager, or {@code null} if statistics are disabled. */
+    public MCEnginePremiumStatisticsManager getStatisticsManager() { return statisticsManager; }
+
+    /** Returns the player directory resolving names of online and offline players. */
+    public MCEnginePremiumPlayerDirectory getPlayerDirectory() { return playerDirectory; }
+
+    /** Returns the backup manager. */
+    public MCEnginePremiumBackupManager getBackupManager() { return backupManager; }
+
+    /** Returns the {@code /premium} rate limiter. */
+    public MCEnginePremiumRateLimiter getRateLimiter() { return rateLimiter; }
+
+    /** Returns {@code true} once the database backend is connected and migrated. */
+    public boolean isReady() { return db != null; }
+
+    /**
+     * Returns a future that completes when the database backend is ready, or completes
+     * exceptionally if initialization failed. Use it to defer work instead of blocking.
+     */
+    public CompletableFuture<Void> whenReady() { return ready.thenApply(backend -> null); }
+
+    /** Returns the rank history recorder, or {@code null} if history is disabled. */
+    public MCEnginePremiumHistoryRecorder getHistoryRecorder() { return historyRecorder; }
+
+    /**
+     * Flushes buffered history and closes the database connection.
+     * Call from the owning plugin's {@code onDisable}. If the database is still starting, no
+     * background task is started and the same sequence runs once the backend has connected.
+     */
+    public void shutdown() {
+        shuttingDown = true;
+        IMCEnginePremiumDB current = db;
+        if (current == null) {
+            ready.thenAccept(this::close);
+            return;
+        }
+        close(current);
+    }
+
+    /**
+     * Flushes buffered history, then closes the backend.
+     */
+    private void close(IMCEnginePremiumDB backend) {
+        if (historyRecorder != null) historyRecorder.shutdown();
+        backend.disConnection();
+    }
 
     /**
      * Checks whether a premium rank table exists for the given rank type.
@@ -61,7 +366,11 @@ public class MCEnginePremiumCommon {
      * @return {@code true} if the table exists, {@code false} otherwise
      */
     public boolean rankTableExists(String rankType) {
-        return db.rankTableExists(rankType);
+        String key = String.valueOf(rankType).toLowerCase(Locale.ROOT);
+        if (knownRankTypes.contains(key)) return true;
+        boolean exists = db().rankTableExists(rankType);
+        if (exists) knownRankTypes.add(key);
+        return exists;
     }
 
     /**
@@ -70,7 +379,9 @@ public class MCEnginePremiumCommon {
      * @return list of rank type suffixes (e.g., ["vip","vvip"]), never null
      */
     public java.util.List<String> listAvailableRankTypes() {
-        return db.listAvailableRankTypes();
+        List<String> rankTypes = db().listAvailableRankTypes();
+        for (String rankType : rankTypes) knownRankTypes.add(rankType.toLowerCase(Locale.ROOT));
+        return rankTypes;
     }
 
     /**
@@ -79,7 +390,7 @@ public class MCEnginePremiumCommon {
      * @param rankType type of rank (e.g., vip, vvip)
      */
     public void createPremiumRank(String rankType) {
-        db.createPremiumRank(rankType);
+        db().createPremiumRank(rankType);
     }
 
     /**
@@ -90,7 +401,111 @@ public class MCEnginePremiumCommon {
      * @return the rank value, or -1 if not found
      */
     public int getPremiumRank(String uuid, String rankType) {
-        return db.getPremiumRank(uuid, rankType);
+        String key = rankKey(uuid, rankType);
+        CompletableFuture<Integer> lookup = new CompletableFuture<>();
+        CompletableFuture<Integer> inFlight = inFlightRanks.putIfAbsent(key, lookup);
+        if (inFlight != null) return inFlight.join();
+        return lookupRank(key, lookup, uuid, rankType);
+    }
+
+    /**
+     * Retrieves premium rank data off the calling thread. Concurrent lookups of the same
+     * player and rank type, sync or async, share a single database query.
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @return future of the rank value, or -1 if not found
+     */
+    public CompletableFuture<Integer> getPremiumRankAsync(String uuid, String rankType) {
+        String key = rankKey(uuid, rankType);
+        CompletableFuture<Integer> lookup = new CompletableFuture<>();
+        CompletableFuture<Integer> inFlight = inFlightRanks.putIfAbsent(key, lookup);
+        if (inFlight != null) return inFlight;
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                lookupRank(key, lookup, uuid, rankType);
+            } catch (RuntimeException ignored) {
+                // Already delivered to the future.
+            }
+        });
+        return lookup;
+    }
+
+    /**
+     * Retrieves the ranks of many players at once.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param uuids    Player UUIDs
+     * @return rank per UUID; players without a non-expired rank are absent
+     */
+    public java.util.Map<String, Integer> getPremiumRanks(String rankType, java.util.Collection<String> uuids) {
+        return db().getPremiumRanks(rankType, uuids);
+    }
+
+    /**
+     * Retrieves a player's rank in every rank type with a single query, e.g. for profile screens.
+     *
+     * @param uuid Player UUID
+     * @return rank per rank type, sorted by rank type; rank types the player lacks are absent
+     */
+    public Map<String, Integer> getAllPremiumRanks(String uuid) {
+        return db().getAllPremiumRanks(uuid);
+    }
+
+    /**
+     * Returns the highest ranks of a rank type, ordered by rank descending.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param limit    maximum number of rows
+     * @return leaderboard rows, never null
+     */
+    public java.util.List<MCEnginePremiumRankRow> getTopPremiumRanks(String rankType, int limit) {
+        return db().getTopPremiumRanks(rankType, limit);
+    }
+
+    /**
+     * Returns one keyset page of the non-expired holders of a rank type.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param after    last row of the previous page, or {@code null} for the first page
+     * @param limit    maximum number of rows
+     * @param order    sort order; pass the same order for every page
+     * @return up to {@code limit} rows following {@code after}, never null
+     */
+    public List<MCEnginePremiumRankRow> listHolders(String rankType, MCEnginePremiumRankRow after, int limit,
+                                                    MCEnginePremiumHolderOrder order) {
+        return db().listHolders(rankType, after, limit, order);
+    }
+
+    /**
+     * Streams every holder of a rank type, fetching {@code pageSize} rows per query. The stream is
+     * lazy and queries the database as it is consumed, so consume it off the main thread.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param order    sort order
+     * @param pageSize rows per query
+     * @return sequential stream of holders
+     */
+    public Stream<MCEnginePremiumRankRow> streamHolders(String rankType, MCEnginePremiumHolderOrder order, int pageSize) {
+        MCEnginePremiumHolderIterator holders = new MCEnginePremiumHolderIterator(db(), rankType, order, pageSize);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(holders, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Returns the holder count, total, average and distribution by rank of a rank type. The
+     * aggregates are loaded during startup, kept in memory and updated by every write, so this
+     * never scans the table; a rank type created after startup is reported as pending
+     * ({@code reconciledAt} of 0) until its background load finishes. If
+     * {@code statistics.enabled} is false, every call runs a {@code GROUP BY} instead.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @return the statistics, or {@code null} if the rank type does not exist
+     */
+    public MCEnginePremiumRankStatistics getRankStatistics(String rankType) {
+        if (!rankTableExists(rankType)) return null;
+        if (statisticsManager != null) return statisticsManager.get(rankType);
+        return MCEnginePremiumRankStatistics.of(rankType.toLowerCase(Locale.ROOT),
+                db().getRankDistribution(rankType), System.currentTimeMillis());
     }
 
     /**
@@ -100,6 +515,210 @@ public class MCEnginePremiumCommon {
      * @param rankType Rank type (e.g., vip, vvip)
      */
     public void upgradePremiumRank(String uuid, String rankType) {
-        db.upgradePremiumRank(uuid, rankType);
+        upgradeAndGetPremiumRank(uuid, rankType);
+    }
+
+    /**
+     * Upgrades the rank of a user by 1 like {@link #upgradePremiumRank(String, String)} and
+     * returns the rank the write produced.
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @return the new rank, or -1 if the write failed
+     */
+    public int upgradeAndGetPremiumRank(String uuid, String rankType) {
+        int after = db().upgradeAndGetPremiumRank(uuid, rankType);
+        inFlightRanks.remove(rankKey(uuid, rankType));
+        if (after < 0) return after;
+        if (statisticsManager != null) statisticsManager.applyAdd(rankType, 1, after);
+        recordHistory(uuid, rankType, "upgrade", 1, after);
+        return after;
+    }
+
+    /**
+     * Sets the rank of a user to an exact value, inserting the row if needed.
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param rank     new rank value
+     * @return the new rank, or -1 if the write failed
+     */
+    public int setPremiumRank(String uuid, String rankType, int rank) {
+        int after = db().setPremiumRank(uuid, rankType, rank);
+        inFlightRanks.remove(rankKey(uuid, rankType));
+        if (after < 0) return after;
+        // The write does not reveal the rank it replaced; reconcile the rank type instead.
+        if (statisticsManager != null) statisticsManager.markStale(rankType);
+        recordHistory(uuid, rankType, "set", rank, after);
+        return after;
+    }
+
+    /**
+     * Adds {@code delta} to the rank of a user in a single upsert (clamped at 0).
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param delta    amount to add (may be negative)
+     * @return the new rank, or -1 if the write failed
+     */
+    public int addPremiumRank(String uuid, String rankType, int delta) {
+        int after = db().addPremiumRank(uuid, rankType, delta);
+        inFlightRanks.remove(rankKey(uuid, rankType));
+        if (after < 0) return after;
+        if (statisticsManager != null) statisticsManager.applyAdd(rankType, delta, after);
+        recordHistory(uuid, rankType, "add", delta, after);
+        return after;
+    }
+
+    /**
+     * Removes every holder of a rank type.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @return number of rows removed
+     */
+    public int resetRankType(String rankType) {
+        int removed = db().resetRankType(rankType);
+        forgetRankType(rankType);
+        if (statisticsManager != null) statisticsManager.clear(rankType);
+        recordHistory(null, rankType, "reset", removed, -1);
+        return removed;
+    }
+
+    /**
+     * Adds {@code delta} to every holder of a rank type matching {@code predicate}.
+     *
+     * @param rankType  Rank type (e.g., vip, vvip)
+     * @param delta     amount to add (may be negative)
+     * @param predicate rank-range condition selecting the affected holders
+     * @return number of rows updated
+     */
+    public int adjustAll(String rankType, int delta, MCEnginePremiumRankPredicate predicate) {
+        int updated = db().adjustAll(rankType, delta, predicate);
+        forgetRankType(rankType);
+        if (statisticsManager != null) statisticsManager.shift(rankType, delta, predicate);
+        recordHistory(null, rankType, "adjustall", delta, null);
+        return updated;
+    }
+
+    /**
+     * Sets or clears the expiry of a player's rank. Online players are tracked by the
+     * expiry timing wheel so the row is removed as soon as it expires.
+     *
+     * @param uuid      Player UUID
+     * @param rankType  Rank type (e.g., vip, vvip)
+     * @param expiresAt expiry as epoch millis, or {@code <= 0} to make the rank permanent
+     * @return {@code true} if the player holds the rank and the expiry was updated
+     */
+    public boolean setPremiumRankExpiry(String uuid, String rankType, long expiresAt) {
+        boolean updated = db().setPremiumRankExpiry(uuid, rankType, expiresAt);
+        inFlightRanks.remove(rankKey(uuid, rankType));
+        if (updated) {
+            if (expiryManager != null) expiryManager.track(uuid, rankType, expiresAt);
+            // An expiry in the past removes the holder; the rank it had is unknown here.
+            if (statisticsManager != null && expiresAt > 0 && expiresAt <= System.currentTimeMillis()) {
+                statisticsManager.markStale(rankType);
+            }
+            recordHistory(uuid, rankType, "expiry", Math.max(0L, expiresAt), null);
+        }
+        return updated;
+    }
+
+    /**
+     * Retrieves the expiry of a player's rank.
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @return expiry as epoch millis, 0 if permanent, or -1 if not found
+     */
+    public long getPremiumRankExpiry(String uuid, String rankType) {
+        return db().getPremiumRankExpiry(uuid, rankType);
+    }
+
+    /**
+     * Returns a page of a player's rank history, newest first.
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param beforeId keyset cursor: id of the last entry of the previous page, or {@code <= 0} for the first page
+     * @param limit    page size
+     * @return history entries, never null
+     */
+    public java.util.List<MCEnginePremiumRankHistoryEntry> getRankHistory(String uuid, String rankType, long beforeId, int limit) {
+        return db().getRankHistory(uuid, rankType, beforeId, limit);
+    }
+
+    /**
+     * Starts a unit of work: writes queued on the returned batch are applied together, in one
+     * transaction with JDBC batching, when it is closed. Use it with try-with-resources.
+     *
+     * @return a new, empty batch
+     */
+    public MCEnginePremiumBatch batch() {
+        return new MCEnginePremiumBatch(this::applyBatch);
+    }
+
+    /**
+     * Applies a closed batch, then updates caches, expiry tracking and history as the
+     * single-operation methods do. On a partial commit only the committed writes are followed up
+     * before the failure is reported.
+     */
+    private void applyBatch(List<MCEnginePremiumBatchOperation> operations) {
+        int[] counts;
+        try {
+            counts = db().executeBatch(operations);
+        } catch (MCEnginePremiumPartialBatchException e) {
+            int applied = afterBatch(operations, e.getUpdateCounts());
+            throw new IllegalStateException("Premium batch was partially committed (" + applied + " of "
+                    + operations.size() + " writes applied): " + e.getMessage(), e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Premium batch was rolled back: " + e.getMessage(), e);
+        }
+        afterBatch(operations, counts);
+    }
+
+    /**
+     * Follows up the committed writes of a batch; writes counted as
+     * {@link Statement#EXECUTE_FAILED} were rolled back and are skipped.
+     *
+     * @return number of operations that were committed
+     */
+    private int afterBatch(List<MCEnginePremiumBatchOperation> operations, int[] counts) {
+        int applied = 0;
+        for (int i = 0; i < operations.size(); i++) {
+            if (counts[i] == Statement.EXECUTE_FAILED) continue;
+            applied++;
+            MCEnginePremiumBatchOperation operation = operations.get(i);
+            String uuid = operation.uuid();
+            String rankType = operation.rankType();
+            if (uuid != null) inFlightRanks.remove(rankKey(uuid, rankType));
+            // Batches report row counts, not resulting ranks; reconcile the rank type instead.
+            if (uuid != null && statisticsManager != null) statisticsManager.markStale(rankType);
+            switch (operation.type()) {
+                case CREATE -> knownRankTypes.add(rankType.toLowerCase(Locale.ROOT));
+                // A batch reports row counts only, so the resulting rank is known for SET alone.
+                case UPGRADE -> recordHistory(uuid, rankType, "upgrade", 1, null);
+                case SET -> recordHistory(uuid, rankType, "set", operation.value(), (int) operation.value());
+                case ADD -> recordHistory(uuid, rankType, "add", operation.value(), null);
+                case EXPIRY -> {
+                    if (counts[i] == 0) break; // no such row
+                    if (expiryManager != null) expiryManager.track(uuid, rankType, operation.value());
+                    recordHistory(uuid, rankType, "expiry", Math.max(0L, operation.value()), null);
+                }
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Enqueues a history entry if history is enabled. Call it only after the write succeeded.
+     *
+     * @param uuid     affected player UUID, or {@code null} for operations on the whole rank type
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param action   operation name
+     * @param amount   operation argument
+     * @param rank     rank after the change, -1 if the rank was removed, or {@code null} if unknown or unchanged
+     */
+    public void recordHistory(String uuid, String rankType, String action, long amount, Integer rank) {
+        if (historyRecorder != null) historyRecorder.record(uuid, rankType, action, amount, rank);
     }
 }
@@ -0,0 +1,212 @@
+package io.github.mcengine.common.premium.backup;
+
+import io.github.mcengine.common.premium.MCEnginePremiumCommon;
+import io.github.mcengine.common.premium.database.IMCEnginePremiumDB;
+import io.github.mcengine.common.premium.database.sharding.MCEnginePremiumShardedDB;
+import io.github.mcengine.common.premium.database.sqlite.MCEnginePremiumSQLite;
+import io.github.mcengine.common.premium.jfr.MCEnginePremiumJfrDB;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Takes online backups of SQLite databases (the SQLite backend or the SQLite shards of the
+ * sharded backend) while the server keeps writing.
+ *
+ * <p>Each snapshot is taken with {@code VACUUM INTO} on a separate connection. The database runs
+ * in WAL mode, where that connection only holds a read snapshot: concurrent writes are never
+ * blocked, and the copy is transactionally consistent. The copy is then gzip-compressed to
+ * {@code <name>-yyyyMMdd-HHmmss.db.gz} and the oldest snapshots beyond {@code backup.keep}
+ * are deleted.</p>
+ *
+ * <p>Config paths:</p>
+ * <ul>
+ *   <li>{@code backup.directory} (default: "backups"), relative to the plugin data folder</li>
+ *   <li>{@code backup.keep} (default: 10) — snapshots kept per database</li>
+ *   <li>{@code backup.interval-minutes} (default: 0) — scheduled backups; {@code 0} disables them</li>
+ * </ul>
+ */
+public class MCEnginePremiumBackupManager {
+
+    /**
+     * Outcome of a backup run.
+     *
+     * @param files snapshots written
+     * @param bytes total compressed size in bytes
+     */
+    public record Result(List<File> files, long bytes) {}
+
+    /** Timestamp embedded in snapshot file names; sorts chronologically as text. */
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    /** The Premium common API providing the active database. */
+    private final MCEnginePremiumCommon api;
+
+    /** Owning plugin, used for scheduling and logging. */
+    private final Plugin plugin;
+
+    /** Directory receiving the snapshots. */
+    private final File directory;
+
+    /** Snapshots kept per database. */
+    private final int keep;
+
+    /** Interval between scheduled backups in minutes; {@code 0} disables them. */
+    private final long intervalMinutes;
+
+    /** Set while a backup is running, so runs never overlap. */
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Creates the backup manager from the plugin configuration.
+     *
+     * @param api the Premium common API
+     */
+    public MCEnginePremiumBackupManager(MCEnginePremiumCommon api) {
+        this.api = api;
+        this.plugin = api.getPlugin();
+        this.directory = new File(plugin.getDataFolder(), plugin.getConfig().getString("backup.directory", "backups"));
+        this.keep = Math.max(1, plugin.getConfig().getInt("backup.keep", 10));
+        this.intervalMinutes = Math.max(0L, plugin.getConfig().getLong("backup.interval-minutes", 0L));
+    }
+
+    /**
+     * Starts the scheduled backup task if {@code backup.interval-minutes} is positive and the
+     * backend has SQLite databases.
+     */
+    public void start() {
+        if (intervalMinutes <= 0 || !isSupported()) return;
+        long ticks = intervalMinutes * 60L * 20L;
+        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> {
+            try {
+                Result result = backup();
+                plugin.getLogger().info("Scheduled backup wrote " + result.files().size() + " snapshot(s), "
+                        + result.bytes() / 1024L + " KiB.");
+            } catch (IllegalStateException e) {
+                plugin.getLogger().info("Skipping scheduled backup: " + e.getMessage());
+            } catch (IOException | SQLException e) {
+                plugin.getLogger().warning("Scheduled backup failed: " + e.getMessage());
+            }
+        }, ticks, ticks);
+    }
+
+    /**
+     * Returns {@code true} if the active backend has at least one SQLite database to back up.
+     */
+    public boolean isSupported() {
+        return !databases().isEmpty();
+    }
+
+    /**
+     * Writes a compressed snapshot of every SQLite database and rotates old snapshots.
+     * Blocks for the duration of the copy, so call it off the main thread.
+     *
+     * @return the snapshots written
+     * @throws IllegalStateException if another backup is running or the backend is not SQLite
+     * @throws IOException           if a snapshot cannot be written
+     * @throws SQLException          if SQLite fails to copy a database
+     */
+    public Result backup() throws IOException, SQLException {
+        List<MCEnginePremiumSQLite> databases = databases();
+        if (databases.isEmpty()) throw new IllegalStateException("Backups are only supported for SQLite databases.");
+        if (!running.compareAndSet(false, true)) throw new IllegalStateException("A backup is already running.");
+        try {
+            Files.createDirectories(directory.toPath());
+            String stamp = LocalDateTime.now().format(STAMP);
+            List<File> files = new ArrayList<>();
+            long bytes = 0L;
+            for (MCEnginePremiumSQLite database : databases) {
+                File snapshot = snapshot(database.getDatabaseFile(), stamp);
+                files.add(snapshot);
+                bytes += snapshot.length();
+            }
+            return new Result(files, bytes);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Copies one database into a compressed snapshot and deletes the oldest snapshots beyond {@link #keep}.
+     */
+    private File snapshot(File source, String stamp) throws IOException, SQLException {
+        String name = baseName(source);
+        File copy = new File(directory, name + "-" + stamp + ".db.tmp");
+        File target = new File(directory, name + "-" + stamp + ".db.gz");
+        File partial = new File(directory, target.getName() + ".part");
+        Files.deleteIfExists(copy.toPath());
+        try {
+            try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + source.getAbsolutePath());
+                 Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("VACUUM INTO '" + copy.getAbsolutePath().replace("'", "''") + "'");
+            }
+            // Compress from the private copy, so no database connection is held while gzip runs.
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial.toPath()), 64 * 1024)) {
+                Files.copy(copy.toPath(), out);
+            }
+            Files.move(partial.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(copy.toPath());
+            Files.deleteIfExists(partial.toPath());
+        }
+        rotate(name);
+        return target;
+    }
+
+    /**
+     * Deletes the oldest snapshots of {@code name} beyond {@link #keep}.
+     */
+    private void rotate(String name) {
+        Pattern pattern = Pattern.compile(Pattern.quote(name) + "-\\d{8}-\\d{6}\\.db\\.gz");
+        File[] snapshots = directory.listFiles((dir, file) -> pattern.matcher(file).matches());
+        if (snapshots == null || snapshots.length <= keep) return;
+        Arrays.sort(snapshots, Comparator.comparing(File::getName).reversed());
+        for (int i = keep; i < snapshots.length; i++) {
+            if (!snapshots[i].delete()) {
+                plugin.getLogger().warning("Could not delete old backup " + snapshots[i].getName());
+            }
+        }
+    }
+
+    /**
+     * Returns the SQLite databases of the active backend: the backend itself, or its SQLite shards.
+     */
+    private List<MCEnginePremiumSQLite> databases() {
+        IMCEnginePremiumDB db = MCEnginePremiumJfrDB.unwrap(api.getDB());
+        List<MCEnginePremiumSQLite> out = new ArrayList<>();
+        if (db instanceof MCEnginePremiumSQLite sqlite) {
+            out.add(sqlite);
+        } else if (db instanceof MCEnginePremiumShardedDB sharded) {
+            for (IMCEnginePremiumDB shard : sharded.getShards()) {
+                if (shard instanceof MCEnginePremiumSQLite sqlite) out.add(sqlite);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Returns the file name without its {@code .db} extension.
+     */
+    private static String baseName(File file) {
+        String name = file.getName();
+        return name.endsWith(".db") ? name.substring(0, name.length() - 3) : name;
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.mcengine.common.premium.batch;
+
+import io.github.mcengine.common.premium.database.MCEnginePremiumBatchOperation;
+import io.github.mcengine.common.premium.database.MCEnginePremiumBatchOperation.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Unit of work returned by {@code MCEnginePremiumCommon.batch()}: collects premium writes and
+ * applies them together on {@link #close()}, in one transaction with JDBC batching.
+ *
+ * <pre>
+ * try (MCEnginePremiumBatch batch = api.batch()) {
+ *     batch.createPremiumRank("vip").upgradePremiumRank(uuid, "vip").setPremiumRankExpiry(uuid, "vip", expiresAt);
+ * }
+ * </pre>
+ *
+ * <p>If any write fails, none of them is applied and {@link #close()} throws an
+ * {@link IllegalStateException}; rank tables requested with {@link #createPremiumRank(String)}
+ * are created beforehand and kept. With {@code database.type: sharded} the batch is atomic per
+ * shard only: if one shard fails after another committed, the exception says so and its cause is
+ * an {@code MCEnginePremiumPartialBatchException}. Call {@link #discard()} to drop the queued writes instead,
+ * e.g. when the surrounding checkout fails. Applying the batch blocks on the database, so close
+ * it off the main thread. Instances are not thread-safe.</p>
+ */
+public final class MCEnginePremiumBatch implements AutoCloseable {
+
+    /** Queued writes, in order. */
+    private final List<MCEnginePremiumBatchOperation> operations = new ArrayList<>();
+
+    /** Applies the queued writes. */
+    private final Consumer<List<MCEnginePremiumBatchOperation>> committer;
+
+    /** Set once closed or discarded; later calls are rejected. */
+    private boolean closed;
+
+    /**
+     * @param committer applies the queued writes; throws {@link IllegalStateException} on failure
+     */
+    public MCEnginePremiumBatch(Consumer<List<MCEnginePremiumBatchOperation>> committer) {
+        this.committer = committer;
+    }
+
+    /**
+     * Queues the creation of a rank table.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @return this batch
+     */
+    public MCEnginePremiumBatch createPremiumRank(String rankType) {
+        return queue(Type.CREATE, null, rankType, 0L);
+    }
+
+    /**
+     * Queues an upgrade by 1.
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @return this batch
+     */
+    public MCEnginePremiumBatch upgradePremiumRank(String uuid, String rankType) {
+        return queue(Type.UPGRADE, uuid, rankType, 0L);
+    }
+
+    /**
+     * Queues setting a rank to an exact value.
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param rank     new rank value
+     * @return this batch
+     */
+    public MCEnginePremiumBatch setPremiumRank(String uuid, String rankType, int rank) {
+        return queue(Type.SET, uuid, rankType, rank);
+    }
+
+    /**
+     * Queues adding {@code delta} to a rank, clamped at 0.
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param delta    amount to add (may be negative)
+     * @return this batch
+     */
+    public MCEnginePremiumBatch addPremiumRank(String uuid, String rankType, int delta) {
+        return queue(Type.ADD, uuid, rankType, delta);
+    }
+
+    /**
+     * Queues setting or clearing a rank's expiry. Ranks that have already expired are not revived.
+     *
+     * @param uuid      Player UUID
+     * @param rankType  Rank type (e.g., vip, vvip)
+     * @param expiresAt expiry as epoch millis, or {@code <= 0} to make the rank permanent
+     * @return this batch
+     */
+    public MCEnginePremiumBatch setPremiumRankExpiry(String uuid, String rankType, long expiresAt) {
+        return queue(Type.EXPIRY, uuid, rankType, expiresAt);
+    }
+
+    /** Returns the number of queued writes. */
+    public int size() {
+        return operations.size();
+    }
+
+    /**
+     * Drops every queued write; {@link #close()} then does nothing.
+     */
+    public void discard() {
+        operations.clear();
+        closed = true;
+    }
+
+    /**
+     * Applies the queued writes in one transaction. Does nothing if the batch is empty,
+     * discarded or already closed.
+     *
+     * @throws IllegalStateException if the transaction failed and was rolled back, or a sharded
+     *                               batch was committed on some shards only
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        if (operations.isEmpty()) return;
+        committer.accept(List.copyOf(operations));
+    }
+
+    private MCEnginePremiumBatch queue(Type type, String uuid, String rankType, long value) {
+        if (closed) throw new IllegalStateException("Premium batch is already closed");
+        if (rankType == null) throw new IllegalArgumentException("rankType must not be null");
+        if (uuid == null && type != Type.CREATE) throw new IllegalArgumentException("uuid must not be null");
+        operations.add(new MCEnginePremiumBatchOperation(type, uuid, rankType, value));
+        return this;
+    }
+}
@@ -1,5 +1,7 @@
 package io.github.mcengine.common.premium.command;
 
+import io.github.mcengine.common.premium.MCEnginePremiumCommon;
+import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -11,10 +13,22 @@ import org.bukkit.command.CommandSender;
  * <ul>
  *   <li>{@code /premium create &lt;rankType&gt;} — requires {@code mcengine.premium.rank.create}</li>
  *   <li>{@code /premium upgrade &lt;rankType&gt;} — requires {@code mcengine.premium.rank.upgrade}</li>
- *   <li>{@code /premium get &lt;rankType&gt;} — requires {@code mcengine.premium.rank.get}</li>
- *   <li>{@code /premium get &lt;playerOnline&gt; &lt;rankType&gt;} — requires {@code mcengine.premium.rank.get.players}</li>
+ *   <li>{@code /premium get [rankType]} — requires {@code mcengine.premium.rank.get}; all rank types if omitted</li>
+ *   <li>{@code /premium get &lt;player&gt; &lt;rankType&gt;} — requires {@code mcengine.premium.rank.get.players}; offline players too</li>
+ *   <li>{@code /premium set &lt;playerOnline&gt; &lt;rankType&gt; &lt;rank&gt;} — requires {@code mcengine.premium.rank.set}</li>
+ *   <li>{@code /premium add &lt;playerOnline&gt; &lt;rankType&gt; &lt;delta&gt;} — requires {@code mcengine.premium.rank.add}</li>
+ *   <li>{@code /premium reset &lt;rankType&gt;} — requires {@code mcengine.premium.rank.reset}</li>
+ *   <li>{@code /premium adjustall &lt;rankType&gt; &lt;delta&gt; [minRank] [maxRank]} — requires {@code mcengine.premium.rank.adjustall}</li>
+ *   <li>{@code /premium expire &lt;playerOnline&gt; &lt;rankType&gt; &lt;duration|clear&gt;} — requires {@code mcengine.premium.rank.expire}</li>
+ *   <li>{@code /premium history &lt;player&gt; &lt;rankType&gt; [beforeId]} — requires {@code mcengine.premium.rank.history}</li>
+ *   <li>{@code /premium list &lt;rankType&gt; [page]} — requires {@code mcengine.premium.rank.list}</li>
+ *   <li>{@code /premium reshard} — console only; copies all data to {@code database.sharded.reshard-target}</li>
+ *   <li>{@code /premium backup} — requires {@code mcengine.premium.backup}; SQLite only</li>
  * </ul>
  * </p>
+ *
+ * <p>Players are rate limited per subcommand (see {@code MCEnginePremiumRateLimiter});
+ * {@code mcengine.premium.ratelimit.bypass} exempts them.</p>
  */
 public class MCEnginePremiumCommand implements CommandExecutor {
 
@@ -24,12 +38,33 @@ public class MCEnginePremiumCommand implements CommandExecutor {
             MCEnginePremiumCommandUtil.sendUsage(sender, label);
             return true;
         }
+        // Never block the main thread on a database that is still connecting.
+        if (!MCEnginePremiumCommon.getApi().isReady()) {
+            sender.sendMessage(ChatColor.RED + "The premium database is still starting, please try again shortly.");
+            return true;
+        }
 
         String sub = args[0].toLowerCase();
+        long retryMillis = MCEnginePremiumCommon.getApi().getRateLimiter().tryAcquire(sender, sub);
+        if (retryMillis > 0) {
+            sender.sendMessage(ChatColor.RED + "You're doing that too fast. Try again in "
+                    + String.format("%.1f", Math.min(retryMillis, 3_600_000L) / 1000.0) + "s.");
+            return true;
+        }
+
         switch (sub) {
             case "create" -> MCEnginePremiumCommandUtil.handleCreate(sender, args, label);
             case "upgrade" -> MCEnginePremiumCommandUtil.handleUpgrade(sender, args, label);
             case "get" -> MCEnginePremiumCommandUtil.handleGet(sender, args, label);
+            case "set" -> MCEnginePremiumCommandUtil.handleSet(sender, args, label);
+            case "add" -> MCEnginePremiumCommandUtil.handleAdd(sender, args, label);
+            case "reset" -> MCEnginePremiumCommandUtil.handleReset(sender, args, label);
+            case "adjustall" -> MCEnginePremiumCommandUtil.handleAdjustAll(sender, args, label);
+            case "expire" -> MCEnginePremiumCommandUtil.handleExpire(sender, args, label);
+            case "history" -> MCEnginePremiumCommandUtil.handleHistory(sender, args, label);
+            case "list" -> MCEnginePremiumCommandUtil.handleList(sender, args, label);
+            case "reshard" -> MCEnginePremiumCommandUtil.handleReshard(sender, args, label);
+            case "backup" -> MCEnginePremiumCommandUtil.handleBackup(sender, args, label);
             default -> {
                 MCEnginePremiumCommandUtil.unknownSubcommand(sender, sub);
                 MCEnginePremiumCommandUtil.sendUsage(sender, label);
@@ -1,12 +1,30 @@
 package io.github.mcengine.common.premium.command;
 
 import io.github.mcengine.common.premium.MCEnginePremiumCommon;
+import io.github.mcengine.common.premium.backup.MCEnginePremiumBackupManager;
+import io.github.mcengine.common.premium.database.MCEnginePremiumHolderOrder;
+import io.github.mcengine.common.premium.database.MCEnginePremiumPlayerName;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankHistoryEntry;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankPredicate;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankRow;
+import io.github.mcengine.common.premium.database.sharding.MCEnginePremiumReshardTool;
+import io.github.mcengine.common.premium.database.sharding.MCEnginePremiumShardedDB;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.command.ConsoleCommandSender;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
 
-import java.util.UUID;
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * Utility methods for the {@code /premium} command.
@@ -23,6 +41,49 @@ public final class MCEnginePremiumCommandUtil {
     private static final String PERM_GET_SELF = "mcengine.premium.rank.get";
     /** Permission node: allows checking other players' premium ranks. */
     private static final String PERM_GET_OTHERS = "mcengine.premium.rank.get.players";
+    /** Permission node: allows setting a player's premium rank to an exact value. */
+    private static final String PERM_SET = "mcengine.premium.rank.set";
+    /** Permission node: allows adding a delta to a player's premium rank. */
+    private static final String PERM_ADD = "mcengine.premium.rank.add";
+    /** Permission node: allows removing every holder of a rank type. */
+    private static final String PERM_RESET = "mcengine.premium.rank.reset";
+    /** Permission node: allows adjusting every holder of a rank type at once. */
+    private static final String PERM_ADJUST_ALL = "mcengine.premium.rank.adjustall";
+    /** Permission node: allows setting or clearing the expiry of a player's premium rank. */
+    private static final String PERM_EXPIRE = "mcengine.premium.rank.expire";
+    /** Permission node: allows viewing the rank change history of players. */
+    private static final String PERM_HISTORY = "mcengine.premium.rank.history";
+    /** Permission node: allows listing every holder of a rank type. */
+    private static final String PERM_LIST = "mcengine.premium.rank.list";
+    /** Permission node: allows taking an online backup of the SQLite database. */
+    private static final String PERM_BACKUP = "mcengine.premium.backup";
+
+    /** Number of history entries shown per page. */
+    private static final int HISTORY_PAGE_SIZE = 10;
+
+    /** Number of holders shown per {@code /premium list} page. */
+    private static final int LIST_PAGE_SIZE = 10;
+
+    /** Pages {@code /premium list} walks forward at most to reach a page it has no cursor for. */
+    private static final int LIST_MAX_SKIP = 100;
+
+    /**
+     * Keyset cursors of each sender's last {@code /premium list}: the last row of every page they
+     * reached, so page {@code n} resumes after page {@code n - 1} instead of counting an OFFSET.
+     *
+     * @param rankType rank type being listed
+     * @param pageEnds last row of pages 1, 2, ... in listing order
+     */
+    private record ListSession(String rankType, List<MCEnginePremiumRankRow> pageEnds) {}
+
+    /** List cursors by sender name; replaced whenever a sender lists another rank type. */
+    private static final Map<String, ListSession> LIST_SESSIONS = new ConcurrentHashMap<>();
+
+    /** Config section holding the shard layout that {@code /premium reshard} copies into. */
+    private static final String RESHARD_TARGET = "database.sharded.reshard-target";
+
+    /** Set while a reshard copy is running, so it cannot be started twice. */
+    private static final AtomicBoolean RESHARDING = new AtomicBoolean();
 
     private MCEnginePremiumCommandUtil() {}
 
@@ -41,10 +102,37 @@ public final class MCEnginePremiumCommandUtil {
             sender.sendMessage(ChatColor.GRAY + "  /" + label + " upgrade <rankType>");
         }
         if (sender.hasPermission(PERM_GET_SELF)) {
-            sender.sendMessage(ChatColor.GRAY + "  /" + label + " get <rankType>");
+            sender.sendMessage(ChatColor.GRAY + "  /" + label + " get [rankType]");
         }
         if (sender.hasPermission(PERM_GET_OTHERS)) {
-            sender.sendMessage(ChatColor.GRAY + "  /" + label + " get <playerOnline> <rankType>");
+            sender.sendMessage(ChatColor.GRAY + "  /" + label + " get <player> <rankType>");
+        }
+        if (sender.hasPermission(PERM_SET)) {
+            sender.sendMessage(ChatColor.GRAY + "  /" + label + " set <playerOnline> <rankType> <rank>");
+        }
+        if (sender.hasPermission(PERM_ADD)) {
+            sender.sendMessage(ChatColor.GRAY + "  /" + label + " add <playerOnline> <rankType> <delta>");
+        }
+        if (sender.hasPermission(PERM_RESET)) {
+            sender.sendMessage(ChatColor.GRAY + "  /" + label + " reset <rankType>");
+        }
+        if (sender.hasPermission(PERM_ADJUST_ALL)) {
+            sender.sendMessage(ChatColor.GRAY + "  /" + label + " adjustall <rankType> <delta> [minRank] [maxRank]");
+        }
+        if (sender.hasPermission(PERM_EXPIRE)) {
+            sender.sendMessage(ChatColor.GRAY + "  /" + label + " expire <playerOnline> <rankType> <duration|clear>");
+        }
+        if (sender.hasPermission(PERM_HISTORY)) {
+            sender.sendMessage(ChatColor.GRAY + "  /" + label + " history <player> <rankType> [beforeId]");
+        }
+        if (sender.hasPermission(PERM_LIST)) {
+            sender.sendMessage(ChatColor.GRAY + "  /" + label + " list <rankType> [page]");
+        }
+        if (sender instanceof ConsoleCommandSender) {
+            sender.sendMessage(ChatColor.GRAY + "  /" + label + " reshard");
+        }
+        if (sender.hasPermission(PERM_BACKUP)) {
+            sender.sendMessage(ChatColor.GRAY + "  /" + label + " backup");
         }
     }
 
@@ -75,7 +163,12 @@ public final class MCEnginePremiumCommandUtil {
             return;
         }
         String rankType = args[1];
-        MCEnginePremiumCommon.getApi().createPremiumRank(rankType);
+        try {
+            MCEnginePremiumCommon.getApi().createPremiumRank(rankType);
+        } catch (IllegalArgumentException e) {
+            sender.sendMessage(ChatColor.RED + e.getMessage());
+            return;
+        }
         sender.sendMessage(ChatColor.GREEN + "Premium rank table ensured for type: " + ChatColor.AQUA + rankType);
     }
 
@@ -102,25 +195,31 @@ public final class MCEnginePremiumCommandUtil {
         }
 
         String rankType = args[1];
+        String uuid = player.getUniqueId().toString();
+        MCEnginePremiumCommon api = MCEnginePremiumCommon.getApi();
 
-        // Call through the Premium common API to check existence.
-        if (!MCEnginePremiumCommon.getApi().rankTableExists(rankType)) {
-            sender.sendMessage(ChatColor.RED + "This rank type doesn't exist.");
-            return;
-        }
-
-        UUID uuid = player.getUniqueId();
-        MCEnginePremiumCommon.getApi().upgradePremiumRank(uuid.toString(), rankType);
-        int newRank = MCEnginePremiumCommon.getApi().getPremiumRank(uuid.toString(), rankType);
-        sender.sendMessage(ChatColor.GREEN + "Your " + ChatColor.AQUA + rankType + ChatColor.GREEN
-                + " rank is now: " + ChatColor.GOLD + newRank);
+        // Database work happens off the main thread; the reply is sent back on it.
+        Bukkit.getScheduler().runTaskAsynchronously(api.getPlugin(), () -> {
+            if (!api.rankTableExists(rankType)) {
+                reply(sender, ChatColor.RED + "This rank type doesn't exist.");
+                return;
+            }
+            int newRank = api.upgradeAndGetPremiumRank(uuid, rankType);
+            if (newRank < 0) {
+                reply(sender, ChatColor.RED + "Failed to upgrade your rank; see the server log.");
+                return;
+            }
+            reply(sender, ChatColor.GREEN + "Your " + ChatColor.AQUA + rankType + ChatColor.GREEN
+                    + " rank is now: " + ChatColor.GOLD + newRank);
+        });
     }
 
     /**
      * Handles:
      * <ul>
+     *   <li>{@code /premium get} (self, every rank type)</li>
      *   <li>{@code /premium get <rankType>} (self)</li>
-     *   <li>{@code /premium get <playerOnline> <rankType>} (others)</li>
+     *   <li>{@code /premium get <player> <rankType>} (others, online or offline)</li>
      * </ul>
      *
      * <p>If the rank table does not exist <strong>or</strong> the player has no entry,
@@ -131,6 +230,33 @@ public final class MCEnginePremiumCommandUtil {
      * @param label  base label
      */
     public static void handleGet(CommandSender sender, String[] args, String label) {
+        // /premium get
+        if (args.length == 1) {
+            if (!sender.hasPermission(PERM_GET_SELF)) {
+                noPerm(sender, PERM_GET_SELF);
+                return;
+            }
+            if (!(sender instanceof Player player)) {
+                sender.sendMessage(ChatColor.RED + "Only players can run: /" + label + " get");
+                return;
+            }
+            String uuid = player.getUniqueId().toString();
+            MCEnginePremiumCommon api = MCEnginePremiumCommon.getApi();
+            Bukkit.getScheduler().runTaskAsynchronously(api.getPlugin(), () -> {
+                Map<String, Integer> ranks = api.getAllPremiumRanks(uuid);
+                if (ranks.isEmpty()) {
+                    reply(sender, ChatColor.RED + "You don't have any premium rank.");
+                    return;
+                }
+                List<String> lines = new ArrayList<>();
+                lines.add(ChatColor.GREEN + "Your ranks:");
+                ranks.forEach((rankType, rank) -> lines.add(ChatColor.GRAY + "  " + ChatColor.AQUA + rankType
+                        + ChatColor.GREEN + ": " + ChatColor.GOLD + rank));
+                reply(sender, lines.toArray(new String[0]));
+            });
+            return;
+        }
+
         // /premium get <rankType>
         if (args.length == 2) {
             if (!sender.hasPermission(PERM_GET_SELF)) {
@@ -142,60 +268,555 @@ public final class MCEnginePremiumCommandUtil {
                 return;
             }
             String rankType = args[1];
+            lookupRank(sender, player.getUniqueId().toString(), rankType,
+                    ChatColor.GREEN + "Your " + ChatColor.AQUA + rankType + ChatColor.GREEN + " rank: ");
+            return;
+        }
 
-            if (!MCEnginePremiumCommon.getApi().rankTableExists(rankType)) {
-                sender.sendMessage(ChatColor.RED + "You don't have this rank.");
+        // /premium get <player> <rankType>
+        if (args.length == 3) {
+            if (!sender.hasPermission(PERM_GET_OTHERS)) {
+                noPerm(sender, PERM_GET_OTHERS);
                 return;
             }
+            String rankType = args[2];
+            withPlayer(sender, args[1], target -> lookupRank(sender, target.uuid(), rankType,
+                    ChatColor.GREEN + target.name() + "'s " + ChatColor.AQUA + rankType + ChatColor.GREEN + " rank: "));
+            return;
+        }
 
-            int rank = MCEnginePremiumCommon.getApi().getPremiumRank(player.getUniqueId().toString(), rankType);
-            if (rank < 0) {
-                sender.sendMessage(ChatColor.RED + "You don't have this rank.");
+        // Wrong arity
+        sender.sendMessage(ChatColor.YELLOW + "Usage:");
+        sender.sendMessage(ChatColor.YELLOW + "  /" + label + " get [rankType]");
+        sender.sendMessage(ChatColor.YELLOW + "  /" + label + " get <player> <rankType>");
+    }
+
+    /**
+     * Handles {@code /premium set <playerOnline> <rankType> <rank>}.
+     *
+     * @param sender command sender
+     * @param args   arguments
+     * @param label  base label
+     */
+    public static void handleSet(CommandSender sender, String[] args, String label) {
+        if (!sender.hasPermission(PERM_SET)) {
+            noPerm(sender, PERM_SET);
+            return;
+        }
+        if (args.length != 4) {
+            usage(sender, "/" + label + " set <playerOnline> <rankType> <rank>");
+            return;
+        }
+        Player target = Bukkit.getPlayerExact(args[1]);
+        if (target == null || !target.isOnline()) {
+            sender.sendMessage(ChatColor.RED + "Player not found or not online: " + args[1]);
+            return;
+        }
+        String rankType = args[2];
+        Integer rank = parseInt(sender, args[3]);
+        if (rank == null) return;
+        if (rank < 0) {
+            sender.sendMessage(ChatColor.RED + "Rank must not be negative.");
+            return;
+        }
+        String uuid = target.getUniqueId().toString();
+        String name = target.getName();
+        MCEnginePremiumCommon api = MCEnginePremiumCommon.getApi();
+
+        Bukkit.getScheduler().runTaskAsynchronously(api.getPlugin(), () -> {
+            if (!api.rankTableExists(rankType)) {
+                reply(sender, ChatColor.RED + "This rank type doesn't exist.");
+                return;
+            }
+            if (api.setPremiumRank(uuid, rankType, rank) < 0) {
+                reply(sender, ChatColor.RED + "Failed to set the rank; see the server log.");
+                return;
+            }
+            reply(sender, ChatColor.GREEN + name + "'s " + ChatColor.AQUA + rankType + ChatColor.GREEN
+                    + " rank set to: " + ChatColor.GOLD + rank);
+        });
+    }
+
+    /**
+     * Handles {@code /premium add <playerOnline> <rankType> <delta>}.
+     *
+     * @param sender command sender
+     * @param args   arguments
+     * @param label  base label
+     */
+    public static void handleAdd(CommandSender sender, String[] args, String label) {
+        if (!sender.hasPermission(PERM_ADD)) {
+            noPerm(sender, PERM_ADD);
+            return;
+        }
+        if (args.length != 4) {
+            usage(sender, "/" + label + " add <playerOnline> <rankType> <delta>");
+            return;
+        }
+        Player target = Bukkit.getPlayerExact(args[1]);
+        if (target == null || !target.isOnline()) {
+            sender.sendMessage(ChatColor.RED + "Player not found or not online: " + args[1]);
+            return;
+        }
+        String rankType = args[2];
+        Integer delta = parseInt(sender, args[3]);
+        if (delta == null) return;
+        String uuid = target.getUniqueId().toString();
+        String name = target.getName();
+        MCEnginePremiumCommon api = MCEnginePremiumCommon.getApi();
+
+        Bukkit.getScheduler().runTaskAsynchronously(api.getPlugin(), () -> {
+            if (!api.rankTableExists(rankType)) {
+                reply(sender, ChatColor.RED + "This rank type doesn't exist.");
+                return;
+            }
+            int newRank = api.addPremiumRank(uuid, rankType, delta);
+            if (newRank < 0) {
+                reply(sender, ChatColor.RED + "Failed to update the rank; see the server log.");
+                return;
+            }
+            reply(sender, ChatColor.GREEN + name + "'s " + ChatColor.AQUA + rankType + ChatColor.GREEN
+                    + " rank is now: " + ChatColor.GOLD + newRank);
+        });
+    }
+
+    /**
+     * Handles {@code /premium reset <rankType>}.
+     *
+     * @param sender command sender
+     * @param args   arguments
+     * @param label  base label
+     */
+    public static void handleReset(CommandSender sender, String[] args, String label) {
+        if (!sender.hasPermission(PERM_RESET)) {
+            noPerm(sender, PERM_RESET);
+            return;
+        }
+        if (args.length != 2) {
+            usage(sender, "/" + label + " reset <rankType>");
+            return;
+        }
+        String rankType = args[1];
+        MCEnginePremiumCommon api = MCEnginePremiumCommon.getApi();
+
+        // The set-based DELETE touches every holder; keep it off the main thread.
+        Bukkit.getScheduler().runTaskAsynchronously(api.getPlugin(), () -> {
+            if (!api.rankTableExists(rankType)) {
+                reply(sender, ChatColor.RED + "This rank type doesn't exist.");
                 return;
             }
-            sender.sendMessage(ChatColor.GREEN + "Your " + ChatColor.AQUA + rankType + ChatColor.GREEN
-                    + " rank: " + ChatColor.GOLD + rank);
+            int removed = api.resetRankType(rankType);
+            reply(sender, ChatColor.GREEN + "Reset " + ChatColor.AQUA + rankType + ChatColor.GREEN
+                    + ": removed " + ChatColor.GOLD + removed + ChatColor.GREEN + " holder(s).");
+        });
+    }
+
+    /**
+     * Handles {@code /premium adjustall <rankType> <delta> [minRank] [maxRank]}.
+     *
+     * @param sender command sender
+     * @param args   arguments
+     * @param label  base label
+     */
+    public static void handleAdjustAll(CommandSender sender, String[] args, String label) {
+        if (!sender.hasPermission(PERM_ADJUST_ALL)) {
+            noPerm(sender, PERM_ADJUST_ALL);
             return;
         }
+        if (args.length < 3 || args.length > 5) {
+            usage(sender, "/" + label + " adjustall <rankType> <delta> [minRank] [maxRank]");
+            return;
+        }
+        String rankType = args[1];
+        Integer delta = parseInt(sender, args[2]);
+        if (delta == null) return;
 
-        // /premium get <playerOnline> <rankType>
+        MCEnginePremiumRankPredicate predicate = MCEnginePremiumRankPredicate.all();
+        if (args.length >= 4) {
+            Integer min = parseInt(sender, args[3]);
+            if (min == null) return;
+            predicate = MCEnginePremiumRankPredicate.atLeast(min);
+            if (args.length == 5) {
+                Integer max = parseInt(sender, args[4]);
+                if (max == null) return;
+                predicate = MCEnginePremiumRankPredicate.between(min, max);
+            }
+        }
+        MCEnginePremiumRankPredicate filter = predicate;
+        MCEnginePremiumCommon api = MCEnginePremiumCommon.getApi();
+
+        // The set-based UPDATE touches every matching holder; keep it off the main thread.
+        Bukkit.getScheduler().runTaskAsynchronously(api.getPlugin(), () -> {
+            if (!api.rankTableExists(rankType)) {
+                reply(sender, ChatColor.RED + "This rank type doesn't exist.");
+                return;
+            }
+            int updated = api.adjustAll(rankType, delta, filter);
+            reply(sender, ChatColor.GREEN + "Adjusted " + ChatColor.GOLD + updated + ChatColor.GREEN
+                    + " holder(s) of " + ChatColor.AQUA + rankType + ChatColor.GREEN + " by " + ChatColor.GOLD + delta);
+        });
+    }
+
+    /**
+     * Handles {@code /premium expire <playerOnline> <rankType> <duration|clear>}.
+     * <p>Durations accept a number with an optional unit: {@code s}, {@code m}, {@code h}, {@code d}
+     * (e.g., {@code 30d}); plain numbers are seconds.</p>
+     *
+     * @param sender command sender
+     * @param args   arguments
+     * @param label  base label
+     */
+    public static void handleExpire(CommandSender sender, String[] args, String label) {
+        if (!sender.hasPermission(PERM_EXPIRE)) {
+            noPerm(sender, PERM_EXPIRE);
+            return;
+        }
+        if (args.length != 4) {
+            usage(sender, "/" + label + " expire <playerOnline> <rankType> <duration|clear>");
+            return;
+        }
+        Player target = Bukkit.getPlayerExact(args[1]);
+        if (target == null || !target.isOnline()) {
+            sender.sendMessage(ChatColor.RED + "Player not found or not online: " + args[1]);
+            return;
+        }
+        String rankType = args[2];
+        long expiresAt = 0L;
+        if (!"clear".equalsIgnoreCase(args[3])) {
+            long millis = parseDurationMillis(args[3]);
+            if (millis <= 0) {
+                sender.sendMessage(ChatColor.RED + "Not a valid duration: " + args[3]);
+                return;
+            }
+            expiresAt = System.currentTimeMillis() + millis;
+        }
+        String uuid = target.getUniqueId().toString();
+        String name = target.getName();
+        String duration = args[3];
+        long expiry = expiresAt;
+        MCEnginePremiumCommon api = MCEnginePremiumCommon.getApi();
+
+        Bukkit.getScheduler().runTaskAsynchronously(api.getPlugin(), () -> {
+            if (!api.rankTableExists(rankType)) {
+                reply(sender, ChatColor.RED + "This rank type doesn't exist.");
+                return;
+            }
+            if (!api.setPremiumRankExpiry(uuid, rankType, expiry)) {
+                reply(sender, ChatColor.RED + name + " doesn't have this rank.");
+                return;
+            }
+            if (expiry > 0) {
+                reply(sender, ChatColor.GREEN + name + "'s " + ChatColor.AQUA + rankType + ChatColor.GREEN
+                        + " rank expires in " + ChatColor.GOLD + duration);
+            } else {
+                reply(sender, ChatColor.GREEN + name + "'s " + ChatColor.AQUA + rankType + ChatColor.GREEN
+                        + " rank is now permanent.");
+            }
+        });
+    }
+
+    /**
+     * Handles {@code /premium history <player> <rankType> [beforeId]}.
+     * <p>The query runs asynchronously and pages by entry id (keyset pagination); the footer
+     * shows the command for the next page.</p>
+     *
+     * @param sender command sender
+     * @param args   arguments
+     * @param label  base label
+     */
+    public static void handleHistory(CommandSender sender, String[] args, String label) {
+        if (!sender.hasPermission(PERM_HISTORY)) {
+            noPerm(sender, PERM_HISTORY);
+            return;
+        }
+        if (args.length < 3 || args.length > 4) {
+            usage(sender, "/" + label + " history <player> <rankType> [beforeId]");
+            return;
+        }
+        MCEnginePremiumCommon api = MCEnginePremiumCommon.getApi();
+        if (api.getHistoryRecorder() == null) {
+            sender.sendMessage(ChatColor.RED + "Rank history is disabled.");
+            return;
+        }
+        long beforeId = 0L;
+        if (args.length == 4) {
+            try {
+                beforeId = Long.parseLong(args[3]);
+            } catch (NumberFormatException e) {
+                sender.sendMessage(ChatColor.RED + "Not a valid number: " + args[3]);
+                return;
+            }
+        }
+
+        String rankType = args[2];
+        long cursor = beforeId;
+        withPlayer(sender, args[1], target -> {
+            String name = target.name();
+            List<MCEnginePremiumRankHistoryEntry> page = api.getRankHistory(target.uuid(), rankType, cursor, HISTORY_PAGE_SIZE);
+            Bukkit.getScheduler().runTask(api.getPlugin(), () -> {
+                if (page.isEmpty()) {
+                    sender.sendMessage(ChatColor.YELLOW + "No more history for " + name + " (" + rankType + ").");
+                    return;
+                }
+                SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+                sender.sendMessage(ChatColor.YELLOW + "History of " + name + "'s " + ChatColor.AQUA + rankType
+                        + ChatColor.YELLOW + " rank:");
+                for (MCEnginePremiumRankHistoryEntry entry : page) {
+                    String result = entry.rank() == null ? "" : entry.rank() < 0 ? ChatColor.RED + " -> removed" : " -> " + entry.rank();
+                    String scope = entry.uuid() == null ? ChatColor.GRAY + " (all holders)" : "";
+                    sender.sendMessage(ChatColor.GRAY + "  #" + entry.id() + " " + format.format(new Date(entry.changedAt()))
+                            + " " + ChatColor.AQUA + entry.action() + " " + ChatColor.GOLD + entry.amount() + result + scope);
+                }
+                if (page.size() == HISTORY_PAGE_SIZE) {
+                    long next = page.get(page.size() - 1).id();
+                    sender.sendMessage(ChatColor.GRAY + "Next page: /" + label + " history " + name + " " + rankType + " " + next);
+                }
+            });
+        });
+    }
+
+    /**
+     * Handles {@code /premium list <rankType> [page]}: lists the holders of a rank type, highest
+     * rank first, {@value #LIST_PAGE_SIZE} per page.
+     *
+     * <p>Pages are read with keyset pagination: the sender's session remembers the last row of each
+     * page, and the next page starts strictly after it. Asking for a page beyond the ones seen
+     * walks forward from the last known cursor, at most {@value #LIST_MAX_SKIP} pages.</p>
+     *
+     * @param sender command sender
+     * @param args   arguments
+     * @param label  base label
+     */
+    public static void handleList(CommandSender sender, String[] args, String label) {
+        if (!sender.hasPermission(PERM_LIST)) {
+            noPerm(sender, PERM_LIST);
+            return;
+        }
+        if (args.length < 2 || args.length > 3) {
+            usage(sender, "/" + label + " list <rankType> [page]");
+            return;
+        }
+        int page = 1;
         if (args.length == 3) {
-            if (!sender.hasPermission(PERM_GET_OTHERS)) {
-                noPerm(sender, PERM_GET_OTHERS);
+            Integer parsed = parseInt(sender, args[2]);
+            if (parsed == null) return;
+            if (parsed < 1) {
+                sender.sendMessage(ChatColor.RED + "Page must be at least 1.");
                 return;
             }
-            String playerName = args[1];
-            String rankType = args[2];
+            page = parsed;
+        }
 
-            Player target = Bukkit.getPlayerExact(playerName);
-            if (target == null || !target.isOnline()) {
-                sender.sendMessage(ChatColor.RED + "Player not found or not online: " + playerName);
+        MCEnginePremiumCommon api = MCEnginePremiumCommon.getApi();
+        String rankType = args[1];
+        String key = sender.getName();
+        int target = page;
+        Bukkit.getScheduler().runTaskAsynchronously(api.getPlugin(), () -> {
+            if (!api.rankTableExists(rankType)) {
+                reply(sender, ChatColor.RED + "Unknown rank type: " + rankType);
+                return;
+            }
+            ListSession session = LIST_SESSIONS.get(key);
+            List<MCEnginePremiumRankRow> ends = session != null && session.rankType().equals(rankType)
+                    ? new ArrayList<>(session.pageEnds())
+                    : new ArrayList<>();
+            if (target - 1 - ends.size() > LIST_MAX_SKIP) {
+                reply(sender, ChatColor.RED + "Page " + target + " is too far ahead; try page " + (ends.size() + 1 + LIST_MAX_SKIP) + " first.");
                 return;
             }
 
-            if (!MCEnginePremiumCommon.getApi().rankTableExists(rankType)) {
-                sender.sendMessage(ChatColor.RED + "You don't have this rank.");
+            // Walk forward from the last known cursor until the page before the target.
+            List<MCEnginePremiumRankRow> rows = List.of();
+            while (ends.size() < target - 1) {
+                MCEnginePremiumRankRow after = ends.isEmpty() ? null : ends.get(ends.size() - 1);
+                rows = api.listHolders(rankType, after, LIST_PAGE_SIZE, MCEnginePremiumHolderOrder.RANK_DESC);
+                if (rows.size() < LIST_PAGE_SIZE) break;
+                ends.add(rows.get(rows.size() - 1));
+            }
+            if (ends.size() < target - 1) {
+                LIST_SESSIONS.put(key, new ListSession(rankType, List.copyOf(ends)));
+                reply(sender, ChatColor.YELLOW + "Page " + target + " is past the last page of " + rankType + ".");
                 return;
             }
 
-            int rank = MCEnginePremiumCommon.getApi().getPremiumRank(target.getUniqueId().toString(), rankType);
-            if (rank < 0) {
-                sender.sendMessage(ChatColor.RED + "You don't have this rank.");
+            MCEnginePremiumRankRow after = target == 1 ? null : ends.get(target - 2);
+            // One extra row tells whether a next page exists without another query.
+            rows = api.listHolders(rankType, after, LIST_PAGE_SIZE + 1, MCEnginePremiumHolderOrder.RANK_DESC);
+            boolean more = rows.size() > LIST_PAGE_SIZE;
+            if (more) rows = rows.subList(0, LIST_PAGE_SIZE);
+            if (!rows.isEmpty()) {
+                if (ends.size() >= target) ends.set(target - 1, rows.get(rows.size() - 1));
+                else ends.add(rows.get(rows.size() - 1));
+            }
+            LIST_SESSIONS.put(key, new ListSession(rankType, List.copyOf(ends.subList(0, Math.min(ends.size(), target)))));
+
+            if (rows.isEmpty()) {
+                reply(sender, ChatColor.YELLOW + "No holders of " + rankType + " on page " + target + ".");
                 return;
             }
-            sender.sendMessage(ChatColor.GREEN + target.getName() + "'s " + ChatColor.AQUA + rankType + ChatColor.GREEN
-                    + " rank: " + ChatColor.GOLD + rank);
+            List<String> uuids = new ArrayList<>(rows.size());
+            for (MCEnginePremiumRankRow row : rows) uuids.add(row.uuid());
+            Map<String, String> names = api.getPlayerDirectory().names(uuids);
+            List<String> lines = new ArrayList<>();
+            lines.add(ChatColor.YELLOW + "Holders of " + ChatColor.AQUA + rankType + ChatColor.YELLOW + " (page " + target + "):");
+            int position = (target - 1) * LIST_PAGE_SIZE;
+            for (MCEnginePremiumRankRow row : rows) {
+                lines.add(ChatColor.GRAY + "  " + (++position) + ". " + ChatColor.WHITE + names.getOrDefault(row.uuid(), row.uuid())
+                        + ChatColor.GRAY + " - " + ChatColor.GOLD + row.rank());
+            }
+            if (more) {
+                lines.add(ChatColor.GRAY + "Next page: /" + label + " list " + rankType + " " + (target + 1));
+            }
+            reply(sender, lines.toArray(new String[0]));
+        });
+    }
+
+    /**
+     * Handles {@code /premium reshard} (console only).
+     * <p>Copies every rank row, and the history if enabled, from the active backend into the
+     * shard layout configured under {@code database.sharded.reshard-target}. The copy runs
+     * asynchronously and leaves the active backend untouched.</p>
+     *
+     * @param sender command sender
+     * @param args   arguments
+     * @param label  base label
+     */
+    public static void handleReshard(CommandSender sender, String[] args, String label) {
+        if (!(sender instanceof ConsoleCommandSender)) {
+            sender.sendMessage(ChatColor.RED + "This command can only be run from the console.");
+            return;
+        }
+        MCEnginePremiumCommon api = MCEnginePremiumCommon.getApi();
+        Plugin plugin = api.getPlugin();
+        if (!plugin.getConfig().isConfigurationSection(RESHARD_TARGET)) {
+            sender.sendMessage(ChatColor.RED + "Configure the target shards under " + RESHARD_TARGET + " first.");
+            return;
+        }
+        if (!RESHARDING.compareAndSet(false, true)) {
+            sender.sendMessage(ChatColor.RED + "Resharding is already running.");
             return;
         }
+        int batchSize = plugin.getConfig().getInt("database.sharded.reshard-batch-size", 1000);
+        sender.sendMessage(ChatColor.YELLOW + "Resharding started; progress is logged to the console.");
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            MCEnginePremiumShardedDB target = null;
+            String message;
+            try {
+                boolean copyHistory = api.getHistoryRecorder() != null;
+                if (copyHistory) api.getHistoryRecorder().flush();
+                target = new MCEnginePremiumShardedDB(plugin, RESHARD_TARGET);
+                MCEnginePremiumReshardTool.Result result =
+                        new MCEnginePremiumReshardTool(plugin, api.getDB(), target, batchSize).run(copyHistory);
+                message = ChatColor.GREEN + "Resharding copied " + result.rows() + " rows of " + result.rankTypes()
+                        + " rank types and " + result.historyEntries() + " history entries. Point database.sharded.shards"
+                        + " at the new layout and restart.";
+            } catch (RuntimeException e) {
+                message = ChatColor.RED + "Resharding failed: " + e.getMessage();
+            } finally {
+                if (target != null) target.disConnection();
+                RESHARDING.set(false);
+            }
+            String reply = message;
+            Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(reply));
+        });
+    }
 
-        // Wrong arity
-        sender.sendMessage(ChatColor.YELLOW + "Usage:");
-        sender.sendMessage(ChatColor.YELLOW + "  /" + label + " get <rankType>");
-        sender.sendMessage(ChatColor.YELLOW + "  /" + label + " get <playerOnline> <rankType>");
+    /**
+     * Handles {@code /premium backup}: writes a compressed online snapshot of the SQLite
+     * database(s) without pausing writes. The copy runs asynchronously.
+     *
+     * @param sender command sender
+     * @param args   arguments
+     * @param label  base label
+     */
+    public static void handleBackup(CommandSender sender, String[] args, String label) {
+        if (!sender.hasPermission(PERM_BACKUP)) {
+            noPerm(sender, PERM_BACKUP);
+            return;
+        }
+        MCEnginePremiumCommon api = MCEnginePremiumCommon.getApi();
+        if (!api.getBackupManager().isSupported()) {
+            sender.sendMessage(ChatColor.RED + "Backups are only supported for SQLite databases.");
+            return;
+        }
+        sender.sendMessage(ChatColor.YELLOW + "Backing up the premium database...");
+        Bukkit.getScheduler().runTaskAsynchronously(api.getPlugin(), () -> {
+            try {
+                MCEnginePremiumBackupManager.Result result = api.getBackupManager().backup();
+                List<String> lines = new ArrayList<>();
+                lines.add(ChatColor.GREEN + "Backup complete: " + ChatColor.GOLD + result.files().size()
+                        + ChatColor.GREEN + " snapshot(s), " + ChatColor.GOLD + (result.bytes() / 1024L) + " KiB");
+                for (File file : result.files()) lines.add(ChatColor.GRAY + "  " + file.getName());
+                reply(sender, lines.toArray(new String[0]));
+            } catch (IllegalStateException e) {
+                reply(sender, ChatColor.RED + e.getMessage());
+            } catch (Exception e) {
+                api.getPlugin().getLogger().warning("Backup failed: " + e);
+                reply(sender, ChatColor.RED + "Backup failed: " + e.getMessage());
+            }
+        });
     }
 
     /* ----------------------------- helpers ----------------------------- */
 
+    /**
+     * Looks up a rank off the main thread and replies with {@code prefix} followed by the rank.
+     * Concurrent lookups of the same player and rank type share one query.
+     *
+     * @param sender   recipient
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param prefix   message shown before the rank value
+     */
+    private static void lookupRank(CommandSender sender, String uuid, String rankType, String prefix) {
+        MCEnginePremiumCommon api = MCEnginePremiumCommon.getApi();
+        Bukkit.getScheduler().runTaskAsynchronously(api.getPlugin(), () -> {
+            if (!api.rankTableExists(rankType)) {
+                reply(sender, ChatColor.RED + "You don't have this rank.");
+                return;
+            }
+            api.getPremiumRankAsync(uuid, rankType).whenComplete((rank, error) -> {
+                if (error != null || rank < 0) {
+                    reply(sender, ChatColor.RED + "You don't have this rank.");
+                } else {
+                    reply(sender, prefix + ChatColor.GOLD + rank);
+                }
+            });
+        });
+    }
+
+    /**
+     * Resolves a player name, online or offline, through the player directory and runs
+     * {@code action} off the main thread; replies with an error if the name is unknown.
+     *
+     * @param sender recipient of errors
+     * @param name   player name
+     * @param action work to run with the resolved player
+     */
+    private static void withPlayer(CommandSender sender, String name, Consumer<MCEnginePremiumPlayerName> action) {
+        MCEnginePremiumCommon api = MCEnginePremiumCommon.getApi();
+        api.getPlayerDirectory().resolve(name).whenComplete((player, error) -> {
+            if (error != null) {
+                api.getPlugin().getLogger().warning("Player lookup failed: " + error);
+                reply(sender, ChatColor.RED + "Could not look up player: " + name);
+            } else if (player == null) {
+                reply(sender, ChatColor.RED + "Player not found: " + name);
+            } else {
+                Bukkit.getScheduler().runTaskAsynchronously(api.getPlugin(), () -> action.accept(player));
+            }
+        });
+    }
+
+    /**
+     * Sends messages on the main thread; safe to call from asynchronous tasks.
+     *
+     * @param sender   recipient
+     * @param messages messages to send, in order
+     */
+    private static void reply(CommandSender sender, String... messages) {
+        Bukkit.getScheduler().runTask(MCEnginePremiumCommon.getApi().getPlugin(), () -> sender.sendMessage(messages));
+    }
+
     /**
      * Sends a single usage line.
      *
@@ -206,6 +827,46 @@ public final class MCEnginePremiumCommandUtil {
         sender.sendMessage(ChatColor.YELLOW + "Usage: " + usage);
     }
 
+    /**
+     * Parses an integer argument, informing the sender when it is invalid.
+     *
+     * @param sender recipient of the error message
+     * @param value  raw argument
+     * @return parsed value, or {@code null} if invalid
+     */
+    private static Integer parseInt(CommandSender sender, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            sender.sendMessage(ChatColor.RED + "Not a valid number: " + value);
+            return null;
+        }
+    }
+
+    /**
+     * Parses a duration such as {@code 90}, {@code 45m}, {@code 12h} or {@code 30d}.
+     *
+     * @param value raw argument
+     * @return duration in milliseconds, or -1 if invalid
+     */
+    private static long parseDurationMillis(String value) {
+        if (value == null || value.isEmpty()) return -1L;
+        char unit = Character.toLowerCase(value.charAt(value.length() - 1));
+        long factor = switch (unit) {
+            case 's' -> 1000L;
+            case 'm' -> 60_000L;
+            case 'h' -> 3_600_000L;
+            case 'd' -> 86_400_000L;
+            default -> 0L;
+        };
+        String digits = factor == 0L ? value : value.substring(0, value.length() - 1);
+        try {
+            return Long.parseLong(digits) * (factor == 0L ? 1000L : factor);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
     /**
      * Sends a no-permission message including the missing node.
     *
@@ -1,7 +1,10 @@
 package io.github.mcengine.common.premium.database;
 
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interface for managing database operations related to MCEngine Premium system.
@@ -17,14 +20,90 @@ public interface IMCEnginePremiumDB {
 
     /**
      * Creates the necessary tables or schema for storing premium rank data.
+     * Existing tables are migrated in place (e.g., the {@code expires_at} column and its index).
      */
     void createPremiumRank(String rankType);
 
     /**
-     * Retrieves premium rank data from the database.
+     * Retrieves premium rank data from the database. Expired rows are treated as absent.
      */
     int getPremiumRank(String uuid, String rankType);
 
+    /**
+     * Retrieves the ranks of many players in as few round trips as possible.
+     * Players without a rank, or whose rank has expired, are absent from the result.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param uuids    Player UUIDs
+     * @return rank per UUID, never null
+     */
+    Map<String, Integer> getPremiumRanks(String rankType, Collection<String> uuids);
+
+    /**
+     * Applies a unit of work: creates the requested rank tables, then runs every row write in a
+     * single transaction with JDBC batching on a connection dedicated to this call. If any write
+     * fails, none of them is applied; created tables are kept. Backends that split the work over
+     * several transactions (e.g., sharding) cannot promise this and report writes that were
+     * committed before another part failed with {@link MCEnginePremiumPartialBatchException}.
+     *
+     * @param operations writes in the order they were queued
+     * @return update count per operation, aligned with {@code operations}
+     * @throws MCEnginePremiumPartialBatchException if only some of the writes were committed
+     * @throws SQLException if the transaction failed and was rolled back
+     */
+    int[] executeBatch(List<MCEnginePremiumBatchOperation> operations) throws SQLException;
+
+    /**
+     * Retrieves a player's rank in every rank type with a single query.
+     * Rank types the player does not hold, or whose rank has expired, are absent from the result.
+     *
+     * @param uuid Player UUID
+     * @return rank per rank type, sorted by rank type, never null
+     */
+    Map<String, Integer> getAllPremiumRanks(String uuid);
+
+    /**
+     * Retrieves the expiry of a player's rank in every rank type with the same single query as
+     * {@link #getAllPremiumRanks(String)}. Rank types the player does not hold, or whose rank has
+     * expired, are absent from the result.
+     *
+     * @param uuid Player UUID
+     * @return expiry as epoch millis (0 if permanent) per rank type, sorted by rank type, never null
+     */
+    Map<String, Long> getAllPremiumRankExpiries(String uuid);
+
+    /**
+     * Returns the highest non-expired ranks of a rank type, ordered by rank descending
+     * and then by UUID.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param limit    maximum number of rows
+     * @return leaderboard rows, never null
+     */
+    List<MCEnginePremiumRankRow> getTopPremiumRanks(String rankType, int limit);
+
+    /**
+     * Returns one page of the non-expired holders of a rank type using keyset pagination on the
+     * {@code (rank, uuid)} index: each page costs the same regardless of its position.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param after    last row of the previous page, or {@code null} for the first page
+     * @param limit    maximum number of rows
+     * @param order    sort order; pass the same order for every page
+     * @return up to {@code limit} rows following {@code after}, never null
+     */
+    List<MCEnginePremiumRankRow> listHolders(String rankType, MCEnginePremiumRankRow after, int limit,
+                                             MCEnginePremiumHolderOrder order);
+
+    /**
+     * Counts the non-expired holders of a rank type per rank value with one {@code GROUP BY}.
+     * Scans the whole table, so it is meant for reconciling aggregates, not for every read.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @return holder count per rank value, sorted by rank; empty if the table has no holders
+     */
+    Map<Integer, Long> getRankDistribution(String rankType);
+
     /**
      * Upgrades the rank of a user by 1. If user not exists, it inserts with rank = 1.
      *
@@ -33,6 +112,202 @@ public interface IMCEnginePremiumDB {
      */
     void upgradePremiumRank(String uuid, String rankType);
 
+    /**
+     * Upgrades the rank of a user by 1 like {@link #upgradePremiumRank(String, String)} and
+     * reports the rank the write produced, so callers need no second read.
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @return the rank after the upgrade, or -1 if the write failed
+     */
+    int upgradeAndGetPremiumRank(String uuid, String rankType);
+
+    /**
+     * Sets the rank of a user to an exact value, inserting the row if it does not exist.
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param rank     new rank value
+     * @return the rank after the write, or -1 if the write failed
+     */
+    int setPremiumRank(String uuid, String rankType, int rank);
+
+    /**
+     * Adds {@code delta} to the rank of a user in a single upsert. Missing users are inserted
+     * with {@code delta}; the resulting rank never drops below 0.
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param delta    amount to add (may be negative)
+     * @return the rank after the write, or -1 if the write failed
+     */
+    int addPremiumRank(String uuid, String rankType, int delta);
+
+    /**
+     * Removes every holder of a rank type (e.g., at the end of a season).
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @return number of rows removed
+     */
+    int resetRankType(String rankType);
+
+    /**
+     * Adds {@code delta} to every holder of a rank type matching {@code predicate}
+     * in a single set-based statement. Resulting ranks never drop below 0.
+     *
+     * @param rankType  Rank type (e.g., vip, vvip)
+     * @param delta     amount to add (may be negative)
+     * @param predicate rank-range condition selecting the affected holders
+     * @return number of rows updated
+     */
+    int adjustAll(String rankType, int delta, MCEnginePremiumRankPredicate predicate);
+
+    /**
+     * Sets or clears the expiry of a rank the player currently holds. A row whose expiry has
+     * already passed is left to the sweeper rather than revived with its old rank.
+     *
+     * @param uuid      Player UUID
+     * @param rankType  Rank type (e.g., vip, vvip)
+     * @param expiresAt expiry as epoch millis, or {@code <= 0} to make the rank permanent
+     * @return {@code true} if a row was updated
+     */
+    boolean setPremiumRankExpiry(String uuid, String rankType, long expiresAt);
+
+    /**
+     * Retrieves the expiry of a rank row.
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @return expiry as epoch millis, 0 if permanent, or -1 if not found
+     */
+    long getPremiumRankExpiry(String uuid, String rankType);
+
+    /**
+     * Deletes a single rank row if its expiry has passed.
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param now      current epoch millis
+     * @return {@code true} if the row was removed
+     */
+    boolean deleteExpiredPremiumRank(String uuid, String rankType, long now);
+
+    /**
+     * Deletes up to {@code limit} expired rows using the {@code expires_at} index.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param now      current epoch millis
+     * @param limit    maximum rows to delete in this batch
+     * @return UUIDs of the removed rows, never null
+     */
+    List<String> deleteExpiredPremiumRanks(String rankType, long now, int limit);
+
+    /**
+     * Returns up to {@code limit} rows of a rank type ordered by UUID, including expired rows,
+     * using keyset pagination. Used to copy data between backends (e.g., resharding).
+     *
+     * @param rankType  Rank type (e.g., vip, vvip)
+     * @param afterUuid only rows with a greater UUID are returned; {@code null} for the first page
+     * @param limit     maximum number of rows
+     * @return rows in UUID order, never null
+     */
+    List<MCEnginePremiumRankRow> exportPremiumRanks(String rankType, String afterUuid, int limit);
+
+    /**
+     * Writes rows in a single JDBC batch, overwriting the rank and expiry of existing holders.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param rows     rows to write
+     */
+    void importPremiumRanks(String rankType, List<MCEnginePremiumRankRow> rows);
+
+    /**
+     * Creates the {@code premium_rank_history} audit table and its indexes if missing.
+     */
+    void createRankHistory();
+
+    /**
+     * Appends history entries using a single JDBC batch.
+     *
+     * @param entries entries to insert (their {@code id} is ignored)
+     * @return {@code true} if every entry was written, {@code false} if the batch failed
+     */
+    boolean insertRankHistory(List<MCEnginePremiumRankHistoryEntry> entries);
+
+    /**
+     * Returns a player's history for a rank type, newest first, using keyset pagination.
+     * Entries of operations on the whole rank type (e.g., reset, adjustall) are included.
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param beforeId only entries with an id lower than this are returned; {@code <= 0} for the newest page
+     * @param limit    maximum number of entries
+     * @return history entries, never null
+     */
+    List<MCEnginePremiumRankHistoryEntry> getRankHistory(String uuid, String rankType, long beforeId, int limit);
+
+    /**
+     * Returns up to {@code limit} history entries of all players in id order, using keyset pagination.
+     * Used to copy the audit log between backends (e.g., resharding).
+     *
+     * @param afterId only entries with a greater id are returned; {@code 0} for the first page
+     * @param limit   maximum number of entries
+     * @return history entries in id order, never null
+     */
+    List<MCEnginePremiumRankHistoryEntry> exportRankHistory(long afterId, int limit);
+
+    /**
+     * Deletes up to {@code limit} history entries older than {@code olderThan} using the time index.
+     *
+     * @param olderThan cutoff as epoch millis
+     * @param limit     maximum rows to delete in this batch
+     * @return number of rows removed
+     */
+    int pruneRankHistory(long olderThan, int limit);
+
+    /**
+     * Creates the {@code premium_player_name} table, mapping each player UUID to the last name
+     * it logged in with, and its index on the lower-case name, if missing.
+     */
+    void createPlayerNames();
+
+    /**
+     * Records the name a player logged in with, replacing the previous one.
+     *
+     * @param uuid     Player UUID
+     * @param name     current name
+     * @param lastSeen login time as epoch millis
+     */
+    void upsertPlayerName(String uuid, String name, long lastSeen);
+
+    /**
+     * Finds the player who most recently logged in as {@code name}, ignoring case, through the
+     * name index. Names can move between players, so the latest login wins.
+     *
+     * @param name player name
+     * @return the player, or {@code null} if the name was never seen
+     */
+    MCEnginePremiumPlayerName findPlayerName(String name);
+
+    /**
+     * Lists known players whose name starts with {@code prefix}, ignoring case, in name order.
+     * Runs as a range scan on the name index.
+     *
+     * @param prefix name prefix; empty for all names
+     * @param limit  maximum number of players
+     * @return matching players, never null
+     */
+    List<MCEnginePremiumPlayerName> findPlayerNames(String prefix, int limit);
+
+    /**
+     * Looks up the last known names of many players by UUID on the primary key of the name index.
+     * Safe to call off the main thread, unlike {@code Bukkit.getOfflinePlayer}.
+     *
+     * @param uuids Player UUIDs
+     * @return name per UUID; players who never logged in since the index existed are absent
+     */
+    Map<String, String> getPlayerNames(Collection<String> uuids);
+
     /**
      * Checks whether a rank table exists for the provided {@code rankType}.
      *
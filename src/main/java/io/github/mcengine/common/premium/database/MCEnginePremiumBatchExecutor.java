@@ -0,0 +1,117 @@
+package io.github.mcengine.common.premium.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Runs the row writes of a unit of work in one transaction with JDBC batching; shared by the
+ * SQLite, MySQL and PostgreSQL backends so that all of them behave the same way.
+ *
+ * <p>Operations keep their order: consecutive operations that map to the same statement text
+ * (same kind, same rank table) share one {@link PreparedStatement} batch, and a new batch starts
+ * whenever the statement changes. {@link MCEnginePremiumBatchOperation.Type#CREATE} operations
+ * are skipped here; backends create the tables beforehand, because MySQL commits DDL implicitly
+ * and it could never be part of the transaction.</p>
+ */
+public final class MCEnginePremiumBatchExecutor {
+
+    /** Binds the parameters of one operation to its statement. */
+    @FunctionalInterface
+    public interface Binder {
+        /**
+         * @param statement statement returned for the operation's SQL
+         * @param operation operation to bind
+         * @param now       current epoch millis, identical for the whole unit of work
+         * @throws SQLException if binding fails
+         */
+        void bind(PreparedStatement statement, MCEnginePremiumBatchOperation operation, long now) throws SQLException;
+    }
+
+    private MCEnginePremiumBatchExecutor() {}
+
+    /**
+     * Returns the distinct rank types created by {@code operations}, in order of appearance.
+     *
+     * @param operations queued operations
+     * @return rank types of the {@code CREATE} operations
+     */
+    public static Set<String> createdRankTypes(List<MCEnginePremiumBatchOperation> operations) {
+        Set<String> out = new LinkedHashSet<>();
+        for (MCEnginePremiumBatchOperation operation : operations) {
+            if (operation.type() == MCEnginePremiumBatchOperation.Type.CREATE) out.add(operation.rankType());
+        }
+        return out;
+    }
+
+    /**
+     * Applies the row writes in a single transaction on {@code connection}, rolling everything
+     * back if any statement fails. The connection's auto-commit mode is restored afterwards.
+     *
+     * @param connection connection dedicated to this unit of work
+     * @param operations queued operations
+     * @param sql        statement text for an operation
+     * @param binder     binds an operation's parameters
+     * @return update count per operation, aligned with {@code operations}; {@code 0} for
+     *         {@code CREATE}, and possibly {@link java.sql.Statement#SUCCESS_NO_INFO} for rewritten batches
+     * @throws SQLException if any statement fails; the transaction has been rolled back
+     */
+    public static int[] execute(Connection connection, List<MCEnginePremiumBatchOperation> operations,
+                                Function<MCEnginePremiumBatchOperation, String> sql, Binder binder) throws SQLException {
+        int[] counts = new int[operations.size()];
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            long now = System.currentTimeMillis();
+            PreparedStatement statement = null;
+            String statementSql = null;
+            List<Integer> pending = new ArrayList<>();
+            try {
+                for (int i = 0; i < operations.size(); i++) {
+                    MCEnginePremiumBatchOperation operation = operations.get(i);
+                    if (operation.type() == MCEnginePremiumBatchOperation.Type.CREATE) continue;
+                    String text = sql.apply(operation);
+                    if (!text.equals(statementSql)) {
+                        if (statement != null) {
+                            flush(statement, pending, counts);
+                            statement.close();
+                        }
+                        statement = connection.prepareStatement(text);
+                        statementSql = text;
+                    }
+                    binder.bind(statement, operation, now);
+                    statement.addBatch();
+                    pending.add(i);
+                }
+                if (statement != null) flush(statement, pending, counts);
+            } finally {
+                if (statement != null) statement.close();
+            }
+            connection.commit();
+            return counts;
+        } catch (SQLException | RuntimeException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
+            }
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Executes the pending batch and records its update counts.
+     */
+    private static void flush(PreparedStatement statement, List<Integer> pending, int[] counts) throws SQLException {
+        int[] result = statement.executeBatch();
+        for (int i = 0; i < pending.size() && i < result.length; i++) counts[pending.get(i)] = result[i];
+        pending.clear();
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.mcengine.common.premium.database;
+
+/**
+ * One write queued in a unit of work and applied by {@link IMCEnginePremiumDB#executeBatch(java.util.List)}.
+ *
+ * @param type     kind of write
+ * @param uuid     Player UUID, or {@code null} for {@link Type#CREATE}
+ * @param rankType Rank type (e.g., vip, vvip)
+ * @param value    new rank for {@link Type#SET}, delta for {@link Type#ADD}, expiry as epoch millis
+ *                 ({@code <= 0} clears it) for {@link Type#EXPIRY}; unused otherwise
+ */
+public record MCEnginePremiumBatchOperation(Type type, String uuid, String rankType, long value) {
+
+    /** Kind of write, mirroring the single-operation methods of {@link IMCEnginePremiumDB}. */
+    public enum Type {
+        /** {@link IMCEnginePremiumDB#createPremiumRank(String)} */
+        CREATE,
+        /** {@link IMCEnginePremiumDB#upgradePremiumRank(String, String)} */
+        UPGRADE,
+        /** {@link IMCEnginePremiumDB#setPremiumRank(String, String, int)} */
+        SET,
+        /** {@link IMCEnginePremiumDB#addPremiumRank(String, String, int)} */
+        ADD,
+        /** {@link IMCEnginePremiumDB#setPremiumRankExpiry(String, String, long)} */
+        EXPIRY
+    }
+}
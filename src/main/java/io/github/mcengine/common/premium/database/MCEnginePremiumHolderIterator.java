@@ -0,0 +1,65 @@
+package io.github.mcengine.common.premium.database;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over every holder of a rank type, fetching one keyset page at a time through
+ * {@link IMCEnginePremiumDB#listHolders}. Memory use is bounded by the page size, so it is
+ * suitable for exporting tables of any size. Each {@link #hasNext()} that needs a new page
+ * queries the database, so iterate off the main thread.
+ */
+public class MCEnginePremiumHolderIterator implements Iterator<MCEnginePremiumRankRow> {
+
+    /** Backend to page through. */
+    private final IMCEnginePremiumDB db;
+
+    /** Rank type being listed. */
+    private final String rankType;
+
+    /** Sort order. */
+    private final MCEnginePremiumHolderOrder order;
+
+    /** Rows per query. */
+    private final int pageSize;
+
+    /** Current page. */
+    private List<MCEnginePremiumRankRow> page = List.of();
+
+    /** Position in {@link #page}. */
+    private int index;
+
+    /** Set once a short page shows there is nothing left. */
+    private boolean exhausted;
+
+    /**
+     * @param db       backend to page through
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param order    sort order
+     * @param pageSize rows per query
+     */
+    public MCEnginePremiumHolderIterator(IMCEnginePremiumDB db, String rankType, MCEnginePremiumHolderOrder order, int pageSize) {
+        this.db = db;
+        this.rankType = rankType;
+        this.order = order;
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (index < page.size()) return true;
+        if (exhausted) return false;
+        MCEnginePremiumRankRow after = page.isEmpty() ? null : page.get(page.size() - 1);
+        page = db.listHolders(rankType, after, pageSize, order);
+        index = 0;
+        exhausted = page.size() < pageSize;
+        return !page.isEmpty();
+    }
+
+    @Override
+    public MCEnginePremiumRankRow next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return page.get(index++);
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.mcengine.common.premium.database;
+
+/**
+ * Sort order of {@link IMCEnginePremiumDB#listHolders}. Both orders sort by rank and then by
+ * UUID in the same direction, so a page is a single range scan of the {@code (rank, uuid)} index.
+ */
+public enum MCEnginePremiumHolderOrder {
+
+    /** Highest rank first. */
+    RANK_DESC,
+
+    /** Lowest rank first. */
+    RANK_ASC;
+
+    /**
+     * Returns {@code true} if {@code a} sorts before {@code b} in this order.
+     *
+     * @param a a holder
+     * @param b another holder
+     * @return whether {@code a} comes first
+     */
+    public boolean precedes(MCEnginePremiumRankRow a, MCEnginePremiumRankRow b) {
+        int byRank = Integer.compare(a.rank(), b.rank());
+        int cmp = byRank != 0 ? byRank : a.uuid().compareTo(b.uuid());
+        return this == RANK_DESC ? cmp > 0 : cmp < 0;
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.mcengine.common.premium.database;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Thrown by {@link IMCEnginePremiumDB#executeBatch(java.util.List)} when a unit of work spanning
+ * several independent transactions (e.g., several shards) failed in some of them after others had
+ * already committed. The committed writes stay applied; {@link #getUpdateCounts()} tells them apart.
+ */
+public class MCEnginePremiumPartialBatchException extends SQLException {
+
+    /** Update count per operation; {@link Statement#EXECUTE_FAILED} for writes that were rolled back. */
+    private final int[] updateCounts;
+
+    /**
+     * Creates the exception.
+     *
+     * @param reason       description of what was committed and what failed
+     * @param updateCounts update count per operation, aligned with the batch;
+     *                     {@link Statement#EXECUTE_FAILED} for writes that were rolled back
+     * @param cause        the failure of the first transaction that was rolled back
+     */
+    public MCEnginePremiumPartialBatchException(String reason, int[] updateCounts, Throwable cause) {
+        super(reason, cause);
+        this.updateCounts = updateCounts.clone();
+    }
+
+    /**
+     * Returns the update count per operation, aligned with the batch.
+     *
+     * @return counts; {@link Statement#EXECUTE_FAILED} marks writes that were rolled back
+     */
+    public int[] getUpdateCounts() {
+        return updateCounts.clone();
+    }
+
+    /**
+     * Returns whether the write at {@code index} was committed.
+     *
+     * @param index position of the operation in the batch
+     * @return {@code true} unless the write was rolled back
+     */
+    public boolean isCommitted(int index) {
+        return updateCounts[index] != Statement.EXECUTE_FAILED;
+    }
+}
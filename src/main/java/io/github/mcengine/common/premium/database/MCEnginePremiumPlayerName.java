@@ -0,0 +1,32 @@
+package io.github.mcengine.common.premium.database;
+
+import java.util.Locale;
+
+/**
+ * A player's last known name, as stored in the {@code premium_player_name} index.
+ *
+ * @param uuid     player UUID
+ * @param name     name as last seen, with its original case
+ * @param lastSeen epoch millis of the login that recorded the name
+ */
+public record MCEnginePremiumPlayerName(String uuid, String name, long lastSeen) {
+
+    /**
+     * Returns the key stored in the indexed {@code name_lower} column.
+     *
+     * @param name player name or name prefix
+     */
+    public static String lowerName(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the exclusive upper bound of the {@code name_lower} range holding every name that
+     * starts with {@code lowerPrefix}; the column uses binary collation on every backend.
+     *
+     * @param lowerPrefix prefix from {@link #lowerName(String)}
+     */
+    public static String prefixEnd(String lowerPrefix) {
+        return lowerPrefix + Character.MAX_VALUE;
+    }
+}
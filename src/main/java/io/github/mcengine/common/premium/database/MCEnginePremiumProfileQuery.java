@@ -0,0 +1,102 @@
+package io.github.mcengine.common.premium.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cached {@code UNION ALL} statement that reads a player's row from every rank table in one
+ * round trip, as used by {@link IMCEnginePremiumDB#getAllPremiumRanks(String)} and
+ * {@link IMCEnginePremiumDB#getAllPremiumRankExpiries(String)}.
+ *
+ * <p>The statement is built from the catalog on first use and kept until {@link #invalidate()}
+ * is called (a rank table was created here, or the statement failed) or it is older than
+ * {@link #REFRESH_MILLIS}, which picks up rank tables created by other servers sharing the
+ * database. Each branch selects {@code (rank_type, rank, expires_at)} and binds the player UUID and the
+ * current epoch millis, in that order.</p>
+ */
+public final class MCEnginePremiumProfileQuery {
+
+    /** Maximum age of a built statement before the catalog is read again. */
+    public static final long REFRESH_MILLIS = 5L * 60L * 1000L;
+
+    /**
+     * A built statement.
+     *
+     * @param sql       the {@code UNION ALL} statement, or {@code null} if there are no rank tables
+     * @param rankTypes rank types covered, in branch order
+     * @param builtAt   build time in epoch millis
+     */
+    public record Plan(String sql, List<String> rankTypes, long builtAt) {}
+
+    /**
+     * Reads the value of interest from one row of the statement.
+     *
+     * @param <V> value type
+     */
+    @FunctionalInterface
+    public interface Column<V> {
+        V read(ResultSet rs) throws SQLException;
+    }
+
+    /** Reads the {@code rank} column. */
+    public static final Column<Integer> RANK = rs -> rs.getInt("rank");
+
+    /** Reads the {@code expires_at} column; {@code 0} if the rank is permanent. */
+    public static final Column<Long> EXPIRES_AT = rs -> {
+        long expiresAt = rs.getLong("expires_at");
+        return rs.wasNull() ? 0L : expiresAt;
+    };
+
+    /** Reads the rank types currently in the catalog. */
+    private final Supplier<List<String>> catalog;
+
+    /** Builds the branch selecting one rank table. */
+    private final Function<String, String> branch;
+
+    /** Current statement; {@code null} until built or after invalidation. */
+    private volatile Plan plan;
+
+    /**
+     * @param catalog reads the rank types currently in the catalog
+     * @param branch  builds the {@code SELECT} for one rank type; the rank type is already
+     *                restricted to {@code [a-z0-9_]} and may be inlined as a literal
+     */
+    public MCEnginePremiumProfileQuery(Supplier<List<String>> catalog, Function<String, String> branch) {
+        this.catalog = catalog;
+        this.branch = branch;
+    }
+
+    /**
+     * Returns the current statement, rebuilding it if it was invalidated or has expired.
+     *
+     * @return the statement
+     */
+    public Plan get() {
+        Plan current = plan;
+        if (current != null && System.currentTimeMillis() - current.builtAt() < REFRESH_MILLIS) return current;
+
+        List<String> rankTypes = new ArrayList<>();
+        for (String rankType : catalog.get()) {
+            // Names outside [a-z0-9_] were not created by this plugin and cannot be inlined safely.
+            if (rankType.matches("[a-z0-9_]+")) rankTypes.add(rankType);
+        }
+        rankTypes.sort(null);
+        List<String> branches = new ArrayList<>(rankTypes.size());
+        for (String rankType : rankTypes) branches.add(branch.apply(rankType));
+        String sql = branches.isEmpty() ? null : String.join(" UNION ALL ", branches);
+        current = new Plan(sql, List.copyOf(rankTypes), System.currentTimeMillis());
+        plan = current;
+        return current;
+    }
+
+    /**
+     * Drops the current statement so that the next call rebuilds it from the catalog.
+     */
+    public void invalidate() {
+        plan = null;
+    }
+}
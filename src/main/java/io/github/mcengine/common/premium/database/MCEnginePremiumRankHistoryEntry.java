@@ -0,0 +1,20 @@
+package io.github.mcengine.common.premium.database;
+
+/**
+ * A single row of the append-only {@code premium_rank_history} audit log.
+ *
+ * @param id        row id assigned by the database (0 for entries not yet written)
+ * @param uuid      affected player UUID, or {@code null} for bulk operations on a whole rank type
+ * @param rankType  lowercased rank type (e.g., vip, vvip)
+ * @param action    operation name (e.g., upgrade, set, add, reset, adjustall, expiry, expired)
+ * @param amount    operation argument: delta, exact rank, affected rows or expiry epoch millis
+ * @param rank      rank after the change, -1 if the player no longer holds the rank, or {@code null}
+ *                  if the entry did not change it or the result differs per holder (e.g., expiry, adjustall)
+ * @param changedAt time of the change as epoch millis
+ */
+public record MCEnginePremiumRankHistoryEntry(long id, String uuid, String rankType, String action,
+                                              long amount, Integer rank, long changedAt) {
+
+    /** Name of the history table; excluded from rank-type discovery. */
+    public static final String TABLE = "premium_rank_history";
+}
@@ -0,0 +1,73 @@
+package io.github.mcengine.common.premium.database;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Rank-range condition used by bulk operations such as
+ * {@link IMCEnginePremiumDB#adjustAll(String, int, MCEnginePremiumRankPredicate)}.
+ *
+ * <p>The predicate is translated into a SQL {@code WHERE} fragment so that bulk
+ * updates run as a single set-based statement instead of a per-player loop.
+ * Both bounds are inclusive; a {@code null} bound is ignored.</p>
+ */
+public final class MCEnginePremiumRankPredicate {
+
+    /** Predicate instance that matches every row. */
+    private static final MCEnginePremiumRankPredicate ALL = new MCEnginePremiumRankPredicate(null, null);
+
+    /** Inclusive lower rank bound, or {@code null} for none. */
+    private final Integer minRank;
+
+    /** Inclusive upper rank bound, or {@code null} for none. */
+    private final Integer maxRank;
+
+    private MCEnginePremiumRankPredicate(Integer minRank, Integer maxRank) {
+        this.minRank = minRank;
+        this.maxRank = maxRank;
+    }
+
+    /** Returns a predicate that matches every holder. */
+    public static MCEnginePremiumRankPredicate all() { return ALL; }
+
+    /** Returns a predicate that matches holders with {@code rank >= minRank}. */
+    public static MCEnginePremiumRankPredicate atLeast(int minRank) { return new MCEnginePremiumRankPredicate(minRank, null); }
+
+    /** Returns a predicate that matches holders with {@code rank <= maxRank}. */
+    public static MCEnginePremiumRankPredicate atMost(int maxRank) { return new MCEnginePremiumRankPredicate(null, maxRank); }
+
+    /** Returns a predicate that matches holders with {@code minRank <= rank <= maxRank}. */
+    public static MCEnginePremiumRankPredicate between(int minRank, int maxRank) { return new MCEnginePremiumRankPredicate(minRank, maxRank); }
+
+    /** Returns the inclusive lower bound, or {@code null} if unbounded. */
+    public Integer getMinRank() { return minRank; }
+
+    /** Returns the inclusive upper bound, or {@code null} if unbounded. */
+    public Integer getMaxRank() { return maxRank; }
+
+    /**
+     * Builds the SQL condition for this predicate using positional parameters.
+     *
+     * @return condition such as {@code "rank >= ? AND rank <= ?"}, or an empty string when unbounded
+     */
+    public String toSql() {
+        if (minRank != null && maxRank != null) return "rank >= ? AND rank <= ?";
+        if (minRank != null) return "rank >= ?";
+        if (maxRank != null) return "rank <= ?";
+        return "";
+    }
+
+    /**
+     * Binds the parameters produced by {@link #toSql()}.
+     *
+     * @param ps    prepared statement
+     * @param index first parameter index to bind
+     * @return the next free parameter index
+     * @throws SQLException if binding fails
+     */
+    public int bind(PreparedStatement ps, int index) throws SQLException {
+        if (minRank != null) ps.setInt(index++, minRank);
+        if (maxRank != null) ps.setInt(index++, maxRank);
+        return index;
+    }
+}
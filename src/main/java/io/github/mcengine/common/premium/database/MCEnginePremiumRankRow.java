@@ -0,0 +1,11 @@
+package io.github.mcengine.common.premium.database;
+
+/**
+ * A single holder of a rank type, as returned by bulk reads, leaderboards and exports.
+ *
+ * @param uuid      player UUID
+ * @param rank      rank value
+ * @param expiresAt expiry as epoch millis, or {@code 0} if the rank is permanent
+ */
+public record MCEnginePremiumRankRow(String uuid, int rank, long expiresAt) {
+}
@@ -1,52 +1,146 @@
 package io.github.mcengine.common.premium.database.postgresql;
 
 import io.github.mcengine.common.premium.database.IMCEnginePremiumDB;
+import io.github.mcengine.common.premium.database.MCEnginePremiumBatchExecutor;
+import io.github.mcengine.common.premium.database.MCEnginePremiumBatchOperation;
+import io.github.mcengine.common.premium.database.MCEnginePremiumHolderOrder;
+import io.github.mcengine.common.premium.database.MCEnginePremiumPlayerName;
+import io.github.mcengine.common.premium.database.MCEnginePremiumProfileQuery;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankHistoryEntry;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankPredicate;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankRow;
+import io.github.mcengine.common.premium.database.replica.MCEnginePremiumReplicaRouter;
 import org.bukkit.plugin.Plugin;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
 import java.util.Locale;
 import java.util.UUID;
+import java.util.logging.Level;
 
 /**
  * PostgreSQL implementation of the Premium Common database using plugin configuration.
  */
 public class MCEnginePremiumPostgreSQL implements IMCEnginePremiumDB {
 
+    /**
+     * Suffix making a single-row upsert report the resulting rank.
+     */
+    private static final String RETURNING_RANK = " RETURNING rank";
+
+    /**
+     * Columns of {@code premium_rank_history} read into {@link MCEnginePremiumRankHistoryEntry}.
+     */
+    private static final String HISTORY_COLUMNS = "id, uuid, rank_type, action, amount, new_rank, changed_at";
+
+    /**
+     * Owning plugin, whose logger reports failed statements.
+     */
+    private final Plugin plugin;
+
     /**
      * Active SQL database connection instance.
      */
     private Connection connection;
 
     /**
-     * Initializes PostgreSQL connection using plugin configuration.
-     *
-     * Required config paths in plugin.yml (config.yml):
-     * - database.postgresql.host
-     * - database.postgresql.port
-     * - database.postgresql.database
-     * - database.postgresql.user
-     * - database.postgresql.password
-     * - database.postgresql.sslmode   (optional, one of: disable, prefer, require) default: disable
+     * Routes read-only queries to healthy read replicas (primary-only when none are configured).
+     */
+    private final MCEnginePremiumReplicaRouter replicas;
+
+    /**
+     * JDBC URL of {@link #batchConnection}.
+     */
+    private final String batchUrl;
+
+    /**
+     * Long-lived connection dedicated to {@link #executeBatch}, opened on first use and reopened
+     * after it breaks. Guarded by {@link #batchLock}.
+     */
+    private Connection batchConnection;
+
+    /**
+     * Serializes units of work on {@link #batchConnection}.
+     */
+    private final Object batchLock = new Object();
+
+    /**
+     * Database user for {@link #batchUrl}.
+     */
+    private final String user;
+
+    /**
+     * Database password for {@link #batchUrl}.
+     */
+    private final String password;
+
+    /**
+     * Cached single-statement lookup of a player's rank and expiry in every rank type.
+     */
+    private final MCEnginePremiumProfileQuery profileQuery = new MCEnginePremiumProfileQuery(
+            this::listAvailableRankTypes,
+            rankType -> "SELECT '" + rankType + "' AS rank_type, rank, expires_at FROM " + tableName(rankType)
+                    + " WHERE uuid = ? AND (expires_at IS NULL OR expires_at > ?)");
+
+    /**
+     * Initializes PostgreSQL connection using the {@code database.postgresql} section of the plugin configuration.
      *
      * @param plugin Bukkit plugin instance
      */
     public MCEnginePremiumPostgreSQL(Plugin plugin) {
-        String host = plugin.getConfig().getString("database.postgresql.host", "localhost");
-        String port = plugin.getConfig().getString("database.postgresql.port", "5432");
-        String database = plugin.getConfig().getString("database.postgresql.database", "mcengine");
-        String user = plugin.getConfig().getString("database.postgresql.user", "postgres");
-        String password = plugin.getConfig().getString("database.postgresql.password", "");
-        String sslmode = plugin.getConfig().getString("database.postgresql.sslmode", "disable"); // disable|prefer|require
+        this(plugin, "database.postgresql");
+    }
+
+    /**
+     * Initializes PostgreSQL connection from the configuration section at {@code path}
+     * (e.g., {@code database.postgresql} or a shard under {@code database.sharded.shards}).
+     *
+     * Required config paths below {@code path}:
+     * - host
+     * - port
+     * - database
+     * - user
+     * - password
+     * - sslmode   (optional, one of: disable, prefer, require) default: disable
+     *
+     * Optional read replica paths:
+     * - replicas                        (list of "host[:port]" or full JDBC URLs)
+     * - replica-strategy                (round-robin | least-latency) default: round-robin
+     * - replica-read-after-write-millis (default: 2000)
+     * - replica-health-check-seconds    (default: 10)
+     *
+     * @param plugin Bukkit plugin instance
+     * @param path   configuration section holding the connection settings
+     */
+    public MCEnginePremiumPostgreSQL(Plugin plugin, String path) {
+        this.plugin = plugin;
+        String host = plugin.getConfig().getString(path + ".host", "localhost");
+        String port = plugin.getConfig().getString(path + ".port", "5432");
+        String database = plugin.getConfig().getString(path + ".database", "mcengine");
+        String user = plugin.getConfig().getString(path + ".user", "postgres");
+        String password = plugin.getConfig().getString(path + ".password", "");
+        String sslmode = plugin.getConfig().getString(path + ".sslmode", "disable"); // disable|prefer|require
+        String url = "jdbc:postgresql://" + host + ":" + port + "/" + database + "?sslmode=" + sslmode;
+        this.batchUrl = url;
+        this.user = user;
+        this.password = password;
 
         try {
-            String url = "jdbc:postgresql://" + host + ":" + port + "/" + database + "?sslmode=" + sslmode;
             connection = DriverManager.getConnection(url, user, password);
         } catch (SQLException e) {
             plugin.getLogger().severe("Failed to connect to PostgreSQL: " + e.getMessage());
         }
+
+        replicas = new MCEnginePremiumReplicaRouter(plugin, "PostgreSQL",
+                plugin.getConfig().getStringList(path + ".replicas"),
+                "jdbc:postgresql://%s/" + database + "?sslmode=" + sslmode, port, user, password,
+                plugin.getConfig().getString(path + ".replica-strategy", "round-robin"),
+                plugin.getConfig().getLong(path + ".replica-read-after-write-millis", 2000L),
+                plugin.getConfig().getLong(path + ".replica-health-check-seconds", 10L));
     }
 
     /**
@@ -64,12 +158,17 @@ public class MCEnginePremiumPostgreSQL implements IMCEnginePremiumDB {
         if (connection == null) return false;
         String safe = (rankType == null ? "default" : rankType).toLowerCase().replaceAll("[^a-z0-9_]", "_");
         String table = "premium_rank_" + safe;
+        if (MCEnginePremiumRankHistoryEntry.TABLE.equals(table)) return false;
         String sql = "SELECT 1 FROM information_schema.tables WHERE table_schema = current_schema() AND table_name = ?";
-        try (var ps = connection.prepareStatement(sql)) {
-            ps.setString(1, table);
-            try (var rs = ps.executeQuery()) {
-                return rs.next();
-            }
+        try {
+            return replicas.read(connection, c -> {
+                try (var ps = c.prepareStatement(sql)) {
+                    ps.setString(1, table);
+                    try (var rs = ps.executeQuery()) {
+                        return rs.next();
+                    }
+                }
+            }, MCEnginePremiumReplicaRouter.CATALOG_KEY);
         } catch (Exception e) {
             return false;
         }
@@ -83,14 +182,21 @@ public class MCEnginePremiumPostgreSQL implements IMCEnginePremiumDB {
         final String sql =
             "SELECT table_name FROM information_schema.tables " +
             "WHERE table_schema = current_schema() AND table_name LIKE 'premium_rank_%'";
-        try (var ps = connection.prepareStatement(sql);
-            var rs = ps.executeQuery()) {
-            while (rs.next()) {
-                String name = rs.getString(1);
-                if (name != null && name.toLowerCase().startsWith(prefix)) {
-                    out.add(name.substring(prefix.length()));
+        try {
+            replicas.read(connection, c -> {
+                out.clear();
+                try (var ps = c.prepareStatement(sql);
+                    var rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        String name = rs.getString(1);
+                        if (name != null && name.toLowerCase().startsWith(prefix)
+                                && !MCEnginePremiumRankHistoryEntry.TABLE.equalsIgnoreCase(name)) {
+                            out.add(name.substring(prefix.length()));
+                        }
+                    }
                 }
-            }
+                return out;
+            }, MCEnginePremiumReplicaRouter.CATALOG_KEY);
         } catch (Exception ignored) {}
         return out;
     }
@@ -103,16 +209,29 @@ public class MCEnginePremiumPostgreSQL implements IMCEnginePremiumDB {
      */
     @Override
     public void createPremiumRank(String rankType) {
+        replicas.markWrite(MCEnginePremiumReplicaRouter.CATALOG_KEY);
         String table = tableName(rankType);
+        if (MCEnginePremiumRankHistoryEntry.TABLE.equals(table)) {
+            throw new IllegalArgumentException("Reserved rank type: " + rankType);
+        }
         String sql = "CREATE TABLE IF NOT EXISTS " + table + " (" +
                      "  uuid UUID PRIMARY KEY," +
-                     "  rank INTEGER NOT NULL" +
+                     "  rank INTEGER NOT NULL," +
+                     "  expires_at BIGINT NULL" +
                      ");";
         try (Statement stmt = connection.createStatement()) {
             stmt.executeUpdate(sql);
+            // Tables created before expiry support lack the column; add it in place.
+            stmt.executeUpdate("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS expires_at BIGINT NULL");
+            // Partial index: only time-limited rows are indexed, keeping the sweeper cheap.
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_" + table + "_expires_at ON " + table +
+                               " (expires_at) WHERE expires_at IS NOT NULL");
+            // Serves keyset-paginated holder listings in both directions.
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_" + table + "_rank_uuid ON " + table + " (rank, uuid)");
         } catch (SQLException e) {
-            e.printStackTrace();
+            plugin.getLogger().log(Level.WARNING, "Failed to create the premium rank table for " + rankType, e);
         }
+        profileQuery.invalidate();
     }
 
     /**
@@ -120,23 +239,227 @@ public class MCEnginePremiumPostgreSQL implements IMCEnginePremiumDB {
      *
      * @param uuid     Player UUID (string form with dashes)
      * @param rankType Rank type (e.g., vip, vvip)
-     * @return Integer rank value, or -1 if not found
+     * @return Integer rank value, or -1 if not found or expired
      */
     @Override
     public int getPremiumRank(String uuid, String rankType) {
         String table = tableName(rankType);
-        String query = "SELECT rank FROM " + table + " WHERE uuid = ?";
+        String query = "SELECT rank FROM " + table + " WHERE uuid = ? AND (expires_at IS NULL OR expires_at > ?)";
+        try {
+            UUID id = UUID.fromString(uuid);
+            return replicas.read(connection, c -> {
+                try (var pstmt = c.prepareStatement(query)) {
+                    // Use UUID type binding for native uuid column
+                    pstmt.setObject(1, id);
+                    pstmt.setLong(2, System.currentTimeMillis());
+                    var rs = pstmt.executeQuery();
+                    return rs.next() ? rs.getInt("rank") : -1; // -1: not found
+                }
+            }, MCEnginePremiumReplicaRouter.rowKey(uuid, rankType), MCEnginePremiumReplicaRouter.tableKey(rankType));
+        } catch (SQLException | IllegalArgumentException e) { // IllegalArgumentException if UUID.fromString fails
+            plugin.getLogger().log(Level.WARNING, "Failed to read the premium rank of " + uuid + " (" + rankType + ")", e);
+        }
+        return -1;
+    }
+
+    /**
+     * Retrieves the ranks of many players with a single {@code uuid = ANY(?)} lookup on the primary key.
+     * Strings that are not valid UUIDs are ignored.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param uuids    Player UUIDs (string form with dashes)
+     * @return rank per UUID for players holding a non-expired rank
+     */
+    @Override
+    public java.util.Map<String, Integer> getPremiumRanks(String rankType, java.util.Collection<String> uuids) {
+        java.util.Map<String, Integer> out = new java.util.HashMap<>();
+        java.util.List<UUID> ids = new java.util.ArrayList<>(uuids.size());
+        for (String uuid : uuids) {
+            try {
+                ids.add(UUID.fromString(uuid));
+            } catch (IllegalArgumentException ignored) {}
+        }
+        if (ids.isEmpty()) return out;
+        String query = "SELECT uuid, rank FROM " + tableName(rankType)
+                + " WHERE uuid = ANY(?) AND (expires_at IS NULL OR expires_at > ?)";
+        try {
+            replicas.read(connection, c -> {
+                out.clear();
+                try (var pstmt = c.prepareStatement(query)) {
+                    pstmt.setArray(1, c.createArrayOf("uuid", ids.toArray()));
+                    pstmt.setLong(2, System.currentTimeMillis());
+                    try (var rs = pstmt.executeQuery()) {
+                        while (rs.next()) out.put(rs.getString("uuid"), rs.getInt("rank"));
+                    }
+                }
+                return out;
+            }, MCEnginePremiumReplicaRouter.rowKeys(rankType, uuids));
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to read premium ranks in bulk (" + rankType + ")", e);
+        }
+        return out;
+    }
+
+    /**
+     * Retrieves a player's rank in every rank type with one cached {@code UNION ALL} statement.
+     *
+     * @param uuid Player UUID (string form with dashes)
+     * @return rank per rank type, sorted by rank type
+     */
+    @Override
+    public java.util.Map<String, Integer> getAllPremiumRanks(String uuid) {
+        return readProfile(uuid, MCEnginePremiumProfileQuery.RANK);
+    }
+
+    /**
+     * Retrieves the expiry of a player's rank in every rank type with the same cached statement
+     * as {@link #getAllPremiumRanks(String)}.
+     *
+     * @param uuid Player UUID (string form with dashes)
+     * @return expiry (0 if permanent) per rank type, sorted by rank type
+     */
+    @Override
+    public java.util.Map<String, Long> getAllPremiumRankExpiries(String uuid) {
+        return readProfile(uuid, MCEnginePremiumProfileQuery.EXPIRES_AT);
+    }
+
+    /**
+     * Runs the cached profile statement for a player and reads one column per held rank type.
+     */
+    private <V> java.util.Map<String, V> readProfile(String uuid, MCEnginePremiumProfileQuery.Column<V> column) {
+        java.util.Map<String, V> out = new java.util.TreeMap<>();
+        if (connection == null) return out;
+        MCEnginePremiumProfileQuery.Plan plan = profileQuery.get();
+        if (plan.sql() == null) return out;
+        String[] keys = new String[plan.rankTypes().size() * 2];
+        for (int i = 0; i < plan.rankTypes().size(); i++) {
+            keys[2 * i] = MCEnginePremiumReplicaRouter.rowKey(uuid, plan.rankTypes().get(i));
+            keys[2 * i + 1] = MCEnginePremiumReplicaRouter.tableKey(plan.rankTypes().get(i));
+        }
+        try {
+            UUID id = UUID.fromString(uuid);
+            replicas.read(connection, c -> {
+                out.clear();
+                try (var pstmt = c.prepareStatement(plan.sql())) {
+                    long now = System.currentTimeMillis();
+                    for (int i = 0; i < plan.rankTypes().size(); i++) {
+                        pstmt.setObject(2 * i + 1, id);
+                        pstmt.setLong(2 * i + 2, now);
+                    }
+                    try (var rs = pstmt.executeQuery()) {
+                        while (rs.next()) out.put(rs.getString("rank_type"), column.read(rs));
+                    }
+                }
+                return out;
+            }, keys);
+        } catch (SQLException | IllegalArgumentException e) {
+            // Most likely a rank table was dropped behind our back; rebuild on the next call.
+            profileQuery.invalidate();
+            plugin.getLogger().log(Level.WARNING, "Failed to read the premium ranks of " + uuid + " across rank types", e);
+        }
+        return out;
+    }
+
+    /**
+     * Returns the highest non-expired ranks of a rank type.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param limit    maximum number of rows
+     * @return rows ordered by rank descending, then UUID
+     */
+    @Override
+    public java.util.List<MCEnginePremiumRankRow> getTopPremiumRanks(String rankType, int limit) {
+        String query = "SELECT uuid, rank, expires_at FROM " + tableName(rankType)
+                + " WHERE expires_at IS NULL OR expires_at > ? ORDER BY rank DESC, uuid LIMIT ?";
+        try {
+            return replicas.read(connection, c -> {
+                java.util.List<MCEnginePremiumRankRow> out = new java.util.ArrayList<>();
+                try (var pstmt = c.prepareStatement(query)) {
+                    pstmt.setLong(1, System.currentTimeMillis());
+                    pstmt.setInt(2, limit);
+                    try (var rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            out.add(new MCEnginePremiumRankRow(rs.getString("uuid"), rs.getInt("rank"), rs.getLong("expires_at")));
+                        }
+                    }
+                }
+                return out;
+            }, MCEnginePremiumReplicaRouter.tableKey(rankType));
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to read the top premium ranks (" + rankType + ")", e);
+        }
+        return new java.util.ArrayList<>();
+    }
+
+    /**
+     * Returns one page of holders with a keyset condition on {@code (rank, uuid)}, served by
+     * the {@code (rank, uuid)} index in either direction.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param after    last row of the previous page, or {@code null} for the first page
+     * @param limit    maximum number of rows
+     * @param order    sort order
+     * @return up to {@code limit} rows following {@code after}
+     */
+    @Override
+    public java.util.List<MCEnginePremiumRankRow> listHolders(String rankType, MCEnginePremiumRankRow after, int limit,
+                                                             MCEnginePremiumHolderOrder order) {
+        boolean desc = order == MCEnginePremiumHolderOrder.RANK_DESC;
+        String cmp = desc ? "<" : ">";
+        String dir = desc ? "DESC" : "ASC";
+        String query = "SELECT uuid, rank, expires_at FROM " + tableName(rankType)
+                + " WHERE (expires_at IS NULL OR expires_at > ?)"
+                + (after == null ? "" : " AND (rank " + cmp + " ? OR (rank = ? AND uuid " + cmp + " ?))")
+                + " ORDER BY rank " + dir + ", uuid " + dir + " LIMIT ?";
+        try {
+            return replicas.read(connection, c -> {
+                java.util.List<MCEnginePremiumRankRow> out = new java.util.ArrayList<>();
+                try (var pstmt = c.prepareStatement(query)) {
+                    int i = 1;
+                    pstmt.setLong(i++, System.currentTimeMillis());
+                    if (after != null) {
+                        pstmt.setInt(i++, after.rank());
+                        pstmt.setInt(i++, after.rank());
+                        pstmt.setObject(i++, UUID.fromString(after.uuid()));
+                    }
+                    pstmt.setInt(i, limit);
+                    try (var rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            out.add(new MCEnginePremiumRankRow(rs.getString("uuid"), rs.getInt("rank"), rs.getLong("expires_at")));
+                        }
+                    }
+                }
+                return out;
+            }, MCEnginePremiumReplicaRouter.tableKey(rankType));
+        } catch (SQLException | IllegalArgumentException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to read the top premium ranks (" + rankType + ")", e);
+        }
+        return new java.util.ArrayList<>();
+    }
+
+    /**
+     * Counts the non-expired holders per rank value. Always reads the primary: the result
+     * replaces in-memory aggregates, so it must include the latest writes.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @return holder count per rank value, sorted by rank
+     */
+    @Override
+    public java.util.Map<Integer, Long> getRankDistribution(String rankType) {
+        java.util.Map<Integer, Long> out = new java.util.TreeMap<>();
+        String query = "SELECT rank, COUNT(*) AS holders FROM " + tableName(rankType)
+                + " WHERE expires_at IS NULL OR expires_at > ? GROUP BY rank";
         try (var pstmt = connection.prepareStatement(query)) {
-            // Use UUID type binding for native uuid column
-            pstmt.setObject(1, UUID.fromString(uuid));
-            var rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("rank");
+            pstmt.setLong(1, System.currentTimeMillis());
+            try (var rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    out.put(rs.getInt("rank"), rs.getLong("holders"));
+                }
             }
-        } catch (SQLException | IllegalArgumentException e) { // IllegalArgumentException if UUID.fromString fails
-            e.printStackTrace();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to count premium rank holders (" + rankType + ")", e);
         }
-        return -1; // not found
+        return out;
     }
 
     /**
@@ -147,30 +470,746 @@ public class MCEnginePremiumPostgreSQL implements IMCEnginePremiumDB {
      */
     @Override
     public void upgradePremiumRank(String uuid, String rankType) {
-        String table = tableName(rankType);
+        upgradeAndGetPremiumRank(uuid, rankType);
+    }
 
+    /**
+     * Upgrades the rank of a user by 1. If user not exists, it inserts with rank = 1.
+     * An expired row is treated as absent and restarts at rank 1 without expiry.
+     *
+     * @param uuid     Player UUID (string form with dashes)
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @return the rank after the upgrade, or -1 if the write failed
+     */
+    @Override
+    public int upgradeAndGetPremiumRank(String uuid, String rankType) {
+        replicas.markWrite(MCEnginePremiumReplicaRouter.rowKey(uuid, rankType));
         // Use PostgreSQL upsert for concise logic
-        String upsert = "INSERT INTO " + table + " (uuid, rank) VALUES (?, 1) " +
-                        "ON CONFLICT (uuid) DO UPDATE SET rank = " + table + ".rank + 1";
+        String upsert = upgradeUpsert(tableName(rankType)) + RETURNING_RANK;
 
         try (var upsertStmt = connection.prepareStatement(upsert)) {
+            long now = System.currentTimeMillis();
             upsertStmt.setObject(1, UUID.fromString(uuid));
-            upsertStmt.executeUpdate();
+            upsertStmt.setLong(2, now);
+            upsertStmt.setLong(3, now);
+            return returnedRank(upsertStmt);
+        } catch (SQLException | IllegalArgumentException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to upgrade the premium rank of " + uuid + " (" + rankType + ")", e);
+        }
+        return -1;
+    }
+
+    /**
+     * Sets the rank of a user to an exact value using a single upsert.
+     *
+     * @param uuid     Player UUID (string form with dashes)
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param rank     new rank value
+     * @return the rank after the write, or -1 if the write failed
+     */
+    @Override
+    public int setPremiumRank(String uuid, String rankType, int rank) {
+        replicas.markWrite(MCEnginePremiumReplicaRouter.rowKey(uuid, rankType));
+        String upsert = setUpsert(tableName(rankType)) + RETURNING_RANK;
+        try (var pstmt = connection.prepareStatement(upsert)) {
+            pstmt.setObject(1, UUID.fromString(uuid));
+            pstmt.setInt(2, rank);
+            pstmt.setLong(3, System.currentTimeMillis());
+            return returnedRank(pstmt);
+        } catch (SQLException | IllegalArgumentException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to set the premium rank of " + uuid + " (" + rankType + ")", e);
+        }
+        return -1;
+    }
+
+    /**
+     * Adds {@code delta} to the rank of a user using a single upsert, clamped at 0.
+     *
+     * @param uuid     Player UUID (string form with dashes)
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param delta    amount to add (may be negative)
+     * @return the rank after the write, or -1 if the write failed
+     */
+    @Override
+    public int addPremiumRank(String uuid, String rankType, int delta) {
+        replicas.markWrite(MCEnginePremiumReplicaRouter.rowKey(uuid, rankType));
+        String upsert = addUpsert(tableName(rankType)) + RETURNING_RANK;
+        try (var pstmt = connection.prepareStatement(upsert)) {
+            long now = System.currentTimeMillis();
+            pstmt.setObject(1, UUID.fromString(uuid));
+            pstmt.setInt(2, delta);
+            pstmt.setLong(3, now);
+            pstmt.setInt(4, delta);
+            pstmt.setLong(5, now);
+            return returnedRank(pstmt);
+        } catch (SQLException | IllegalArgumentException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to add to the premium rank of " + uuid + " (" + rankType + ")", e);
+        }
+        return -1;
+    }
+
+    /**
+     * Applies a unit of work on a dedicated, long-lived connection, so the transaction never
+     * captures writes made concurrently through the shared connection. Units of work take turns
+     * on it.
+     *
+     * @param operations writes in the order they were queued
+     * @return update count per operation
+     * @throws SQLException if the transaction failed and was rolled back
+     */
+    @Override
+    public int[] executeBatch(java.util.List<MCEnginePremiumBatchOperation> operations) throws SQLException {
+        for (String rankType : MCEnginePremiumBatchExecutor.createdRankTypes(operations)) createPremiumRank(rankType);
+        for (MCEnginePremiumBatchOperation operation : operations) {
+            if (operation.uuid() != null) {
+                replicas.markWrite(MCEnginePremiumReplicaRouter.rowKey(operation.uuid(), operation.rankType()));
+            }
+        }
+        synchronized (batchLock) {
+            Connection batch = batchConnection();
+            try {
+                return MCEnginePremiumBatchExecutor.execute(batch, operations, this::batchSql, MCEnginePremiumPostgreSQL::bindBatch);
+            } catch (SQLException e) {
+                // Drop a broken connection so the next unit of work opens a fresh one.
+                if (!batch.isValid(2)) closeBatchConnection();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Returns {@link #batchConnection}, opening it if needed. Call with {@link #batchLock} held.
+     */
+    private Connection batchConnection() throws SQLException {
+        if (batchConnection == null || batchConnection.isClosed()) {
+            batchConnection = DriverManager.getConnection(batchUrl, user, password);
+        }
+        return batchConnection;
+    }
+
+    /**
+     * Closes {@link #batchConnection} if open. Call with {@link #batchLock} held.
+     */
+    private void closeBatchConnection() {
+        try {
+            if (batchConnection != null) batchConnection.close();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to close the premium batch connection", e);
+        }
+        batchConnection = null;
+    }
+
+    /**
+     * Removes every holder of a rank type.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @return number of rows removed
+     */
+    @Override
+    public int resetRankType(String rankType) {
+        replicas.markWrite(MCEnginePremiumReplicaRouter.tableKey(rankType));
+        try (Statement stmt = connection.createStatement()) {
+            return stmt.executeUpdate("DELETE FROM " + tableName(rankType));
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to reset premium rank type " + rankType, e);
+        }
+        return 0;
+    }
+
+    /**
+     * Adds {@code delta} to every matching, non-expired holder in one {@code UPDATE}, clamped at 0.
+     *
+     * @param rankType  Rank type (e.g., vip, vvip)
+     * @param delta     amount to add (may be negative)
+     * @param predicate rank-range condition selecting the affected holders
+     * @return number of rows updated
+     */
+    @Override
+    public int adjustAll(String rankType, int delta, MCEnginePremiumRankPredicate predicate) {
+        replicas.markWrite(MCEnginePremiumReplicaRouter.tableKey(rankType));
+        String where = predicate.toSql();
+        String update = "UPDATE " + tableName(rankType) + " SET rank = GREATEST(rank + ?, 0)"
+                + " WHERE (expires_at IS NULL OR expires_at > ?)"
+                + (where.isEmpty() ? "" : " AND " + where);
+        try (var pstmt = connection.prepareStatement(update)) {
+            pstmt.setInt(1, delta);
+            pstmt.setLong(2, System.currentTimeMillis());
+            predicate.bind(pstmt, 3);
+            return pstmt.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to adjust the holders of premium rank type " + rankType, e);
+        }
+        return 0;
+    }
+
+    /**
+     * Sets or clears the expiry of a rank the player currently holds. A row whose expiry has
+     * already passed is left to the sweeper rather than revived with its old rank.
+     *
+     * @param uuid      Player UUID (string form with dashes)
+     * @param rankType  Rank type (e.g., vip, vvip)
+     * @param expiresAt expiry as epoch millis, or {@code <= 0} to make the rank permanent
+     * @return {@code true} if a row was updated
+     */
+    @Override
+    public boolean setPremiumRankExpiry(String uuid, String rankType, long expiresAt) {
+        replicas.markWrite(MCEnginePremiumReplicaRouter.rowKey(uuid, rankType));
+        String update = "UPDATE " + tableName(rankType) + " SET expires_at = ? WHERE uuid = ?"
+                + " AND (expires_at IS NULL OR expires_at > ?)";
+        try (var pstmt = connection.prepareStatement(update)) {
+            if (expiresAt > 0) pstmt.setLong(1, expiresAt);
+            else pstmt.setNull(1, Types.BIGINT);
+            pstmt.setObject(2, UUID.fromString(uuid));
+            pstmt.setLong(3, System.currentTimeMillis());
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException | IllegalArgumentException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to set the premium rank expiry of " + uuid + " (" + rankType + ")", e);
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves the expiry of a rank row.
+     *
+     * @param uuid     Player UUID (string form with dashes)
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @return expiry as epoch millis, 0 if permanent, or -1 if not found
+     */
+    @Override
+    public long getPremiumRankExpiry(String uuid, String rankType) {
+        String query = "SELECT expires_at FROM " + tableName(rankType) + " WHERE uuid = ?";
+        try {
+            return replicas.read(connection, c -> {
+                try (var pstmt = c.prepareStatement(query)) {
+                    pstmt.setObject(1, UUID.fromString(uuid));
+                    try (var rs = pstmt.executeQuery()) {
+                        if (!rs.next()) return -1L;
+                        long expiresAt = rs.getLong(1);
+                        return rs.wasNull() ? 0L : expiresAt;
+                    }
+                }
+            }, MCEnginePremiumReplicaRouter.rowKey(uuid, rankType), MCEnginePremiumReplicaRouter.tableKey(rankType));
+        } catch (SQLException | IllegalArgumentException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to read the premium rank expiry of " + uuid + " (" + rankType + ")", e);
+        }
+        return -1L;
+    }
+
+    /**
+     * Deletes a single rank row if its expiry has passed.
+     *
+     * @param uuid     Player UUID (string form with dashes)
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param now      current epoch millis
+     * @return {@code true} if the row was removed
+     */
+    @Override
+    public boolean deleteExpiredPremiumRank(String uuid, String rankType, long now) {
+        replicas.markWrite(MCEnginePremiumReplicaRouter.rowKey(uuid, rankType));
+        String table = tableName(rankType);
+        String delete = "DELETE FROM " + table + " WHERE uuid = ? AND " + expired(table);
+        try (var pstmt = connection.prepareStatement(delete)) {
+            pstmt.setObject(1, UUID.fromString(uuid));
+            pstmt.setLong(2, now);
+            return pstmt.executeUpdate() > 0;
         } catch (SQLException | IllegalArgumentException e) {
-            e.printStackTrace();
+            plugin.getLogger().log(Level.WARNING, "Failed to delete the expired premium rank of " + uuid + " (" + rankType + ")", e);
+        }
+        return false;
+    }
+
+    /**
+     * Deletes up to {@code limit} expired rows, selected through the partial {@code expires_at} index.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param now      current epoch millis
+     * @param limit    maximum rows to delete
+     * @return UUIDs of the removed rows
+     */
+    @Override
+    public java.util.List<String> deleteExpiredPremiumRanks(String rankType, long now, int limit) {
+        replicas.markWrite(MCEnginePremiumReplicaRouter.tableKey(rankType));
+        java.util.List<String> removed = new java.util.ArrayList<>();
+        String table = tableName(rankType);
+        String delete = "DELETE FROM " + table + " WHERE uuid IN (" +
+                        "SELECT uuid FROM " + table + " WHERE " + expired(table) + " LIMIT ?) RETURNING uuid";
+        try (var pstmt = connection.prepareStatement(delete)) {
+            pstmt.setLong(1, now);
+            pstmt.setInt(2, limit);
+            try (var rs = pstmt.executeQuery()) {
+                while (rs.next()) removed.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to delete expired premium ranks (" + rankType + ")", e);
+        }
+        return removed;
+    }
+
+    /**
+     * Returns a page of raw rows ordered by UUID, seeking on the primary key instead of using {@code OFFSET}.
+     * Always reads the primary: backups and reshards must not copy a lagging replica.
+     *
+     * @param rankType  Rank type (e.g., vip, vvip)
+     * @param afterUuid only rows with a greater UUID are returned; {@code null} for the first page
+     * @param limit     maximum number of rows
+     * @return rows in UUID order, including expired ones
+     */
+    @Override
+    public java.util.List<MCEnginePremiumRankRow> exportPremiumRanks(String rankType, String afterUuid, int limit) {
+        String query = "SELECT uuid, rank, expires_at FROM " + tableName(rankType)
+                + (afterUuid == null ? "" : " WHERE uuid > ?") + " ORDER BY uuid LIMIT ?";
+        java.util.List<MCEnginePremiumRankRow> out = new java.util.ArrayList<>();
+        try (var pstmt = connection.prepareStatement(query)) {
+            int i = 1;
+            if (afterUuid != null) pstmt.setObject(i++, UUID.fromString(afterUuid));
+            pstmt.setInt(i, limit);
+            try (var rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    out.add(new MCEnginePremiumRankRow(rs.getString("uuid"), rs.getInt("rank"), rs.getLong("expires_at")));
+                }
+            }
+            return out;
+        } catch (SQLException | IllegalArgumentException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to export premium ranks (" + rankType + ")", e);
+        }
+        return new java.util.ArrayList<>();
+    }
+
+    /**
+     * Upserts rows in one JDBC batch, overwriting rank and expiry.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param rows     rows to write
+     */
+    @Override
+    public void importPremiumRanks(String rankType, java.util.List<MCEnginePremiumRankRow> rows) {
+        replicas.markWrite(MCEnginePremiumReplicaRouter.tableKey(rankType));
+        if (rows.isEmpty()) return;
+        String upsert = "INSERT INTO " + tableName(rankType) + " (uuid, rank, expires_at) VALUES (?, ?, ?) " +
+                        "ON CONFLICT (uuid) DO UPDATE SET rank = EXCLUDED.rank, expires_at = EXCLUDED.expires_at";
+        try (var pstmt = connection.prepareStatement(upsert)) {
+            for (MCEnginePremiumRankRow row : rows) {
+                pstmt.setObject(1, UUID.fromString(row.uuid()));
+                pstmt.setInt(2, row.rank());
+                if (row.expiresAt() > 0) pstmt.setLong(3, row.expiresAt());
+                else pstmt.setNull(3, Types.BIGINT);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        } catch (SQLException | IllegalArgumentException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to import premium ranks (" + rankType + ")", e);
+        }
+    }
+
+    /**
+     * Creates the {@code premium_rank_history} audit table with a time index for pruning
+     * and a {@code (uuid, rank_type, id)} index for keyset-paginated player queries.
+     */
+    @Override
+    public void createRankHistory() {
+        replicas.markWrite(MCEnginePremiumReplicaRouter.CATALOG_KEY);
+        String sql = "CREATE TABLE IF NOT EXISTS premium_rank_history (" +
+                     "  id BIGSERIAL PRIMARY KEY," +
+                     "  uuid UUID NULL," +
+                     "  rank_type VARCHAR(64) NOT NULL," +
+                     "  action VARCHAR(16) NOT NULL," +
+                     "  amount BIGINT NOT NULL," +
+                     "  new_rank INTEGER NULL," +
+                     "  changed_at BIGINT NOT NULL" +
+                     ");";
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+            // Tables created before the resulting rank was recorded lack the column; add it in place.
+            stmt.executeUpdate("ALTER TABLE premium_rank_history ADD COLUMN IF NOT EXISTS new_rank INTEGER NULL");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_premium_rank_history_changed_at " +
+                               "ON premium_rank_history (changed_at)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_premium_rank_history_player " +
+                               "ON premium_rank_history (uuid, rank_type, id)");
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to create the premium rank history table", e);
+        }
+    }
+
+    /**
+     * Appends history entries in one JDBC batch.
+     *
+     * @param entries entries to insert
+     */
+    @Override
+    public boolean insertRankHistory(java.util.List<MCEnginePremiumRankHistoryEntry> entries) {
+        replicas.markWrite(MCEnginePremiumReplicaRouter.HISTORY_KEY);
+        if (entries.isEmpty()) return true;
+        String insert = "INSERT INTO premium_rank_history (uuid, rank_type, action, amount, new_rank, changed_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
+        try (var ps = connection.prepareStatement(insert)) {
+            for (MCEnginePremiumRankHistoryEntry entry : entries) {
+                if (entry.uuid() != null) ps.setObject(1, UUID.fromString(entry.uuid()));
+                else ps.setNull(1, Types.OTHER);
+                ps.setString(2, entry.rankType());
+                ps.setString(3, entry.action());
+                ps.setLong(4, entry.amount());
+                if (entry.rank() != null) ps.setInt(5, entry.rank());
+                else ps.setNull(5, Types.INTEGER);
+                ps.setLong(6, entry.changedAt());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            return true;
+        } catch (SQLException | IllegalArgumentException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to write " + entries.size() + " premium rank history entries", e);
+        }
+        return false;
+    }
+
+    /**
+     * Returns a page of a player's history, newest first, seeking by id instead of using {@code OFFSET}.
+     * The player's entries and the rank-type-wide entries ({@code uuid IS NULL}) are each read
+     * through the {@code (uuid, rank_type, id)} index and merged.
+     *
+     * @param uuid     Player UUID (string form with dashes)
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param beforeId only entries with a lower id are returned; {@code <= 0} for the newest page
+     * @param limit    maximum number of entries
+     * @return history entries, never null
+     */
+    @Override
+    public java.util.List<MCEnginePremiumRankHistoryEntry> getRankHistory(String uuid, String rankType, long beforeId, int limit) {
+        java.util.List<MCEnginePremiumRankHistoryEntry> out = new java.util.ArrayList<>();
+        String query = "SELECT * FROM (SELECT " + HISTORY_COLUMNS + " FROM premium_rank_history " +
+                       "WHERE uuid = ? AND rank_type = ? AND id < ? ORDER BY id DESC LIMIT ?) p " +
+                       "UNION ALL SELECT * FROM (SELECT " + HISTORY_COLUMNS + " FROM premium_rank_history " +
+                       "WHERE uuid IS NULL AND rank_type = ? AND id < ? ORDER BY id DESC LIMIT ?) t " +
+                       "ORDER BY id DESC LIMIT ?";
+        long before = beforeId > 0 ? beforeId : Long.MAX_VALUE;
+        try {
+            replicas.read(connection, c -> {
+                out.clear();
+                try (var ps = c.prepareStatement(query)) {
+                    ps.setObject(1, UUID.fromString(uuid));
+                    ps.setString(2, rankType.toLowerCase(Locale.ROOT));
+                    ps.setLong(3, before);
+                    ps.setInt(4, limit);
+                    ps.setString(5, rankType.toLowerCase(Locale.ROOT));
+                    ps.setLong(6, before);
+                    ps.setInt(7, limit);
+                    ps.setInt(8, limit);
+                    try (var rs = ps.executeQuery()) {
+                        while (rs.next()) out.add(historyEntry(rs));
+                    }
+                }
+                return out;
+            }, MCEnginePremiumReplicaRouter.HISTORY_KEY);
+        } catch (SQLException | IllegalArgumentException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to read the premium rank history of " + uuid + " (" + rankType + ")", e);
+        }
+        return out;
+    }
+
+    /**
+     * Returns a page of the whole audit log in id order, read from the primary.
+     *
+     * @param afterId only entries with a greater id are returned; {@code 0} for the first page
+     * @param limit   maximum number of entries
+     * @return history entries in id order
+     */
+    @Override
+    public java.util.List<MCEnginePremiumRankHistoryEntry> exportRankHistory(long afterId, int limit) {
+        String query = "SELECT " + HISTORY_COLUMNS + " FROM premium_rank_history WHERE id > ? ORDER BY id LIMIT ?";
+        java.util.List<MCEnginePremiumRankHistoryEntry> out = new java.util.ArrayList<>();
+        try (var ps = connection.prepareStatement(query)) {
+            ps.setLong(1, afterId);
+            ps.setInt(2, limit);
+            try (var rs = ps.executeQuery()) {
+                while (rs.next()) out.add(historyEntry(rs));
+            }
+            return out;
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to export premium rank history", e);
+        }
+        return new java.util.ArrayList<>();
+    }
+
+    /**
+     * Deletes up to {@code limit} history entries older than {@code olderThan} through the time index.
+     *
+     * @param olderThan cutoff as epoch millis
+     * @param limit     maximum rows to delete
+     * @return number of rows removed
+     */
+    @Override
+    public int pruneRankHistory(long olderThan, int limit) {
+        replicas.markWrite(MCEnginePremiumReplicaRouter.HISTORY_KEY);
+        String delete = "DELETE FROM premium_rank_history WHERE id IN (" +
+                        "SELECT id FROM premium_rank_history WHERE changed_at < ? LIMIT ?)";
+        try (var ps = connection.prepareStatement(delete)) {
+            ps.setLong(1, olderThan);
+            ps.setInt(2, limit);
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to prune premium rank history", e);
+        }
+        return 0;
+    }
+
+    /**
+     * Creates the player name table and its {@code (name_lower, last_seen)} index if missing.
+     * {@code name_lower} uses the {@code "C"} collation so prefix ranges compare bytes.
+     */
+    @Override
+    public void createPlayerNames() {
+        replicas.markWrite(MCEnginePremiumReplicaRouter.CATALOG_KEY);
+        String sql = "CREATE TABLE IF NOT EXISTS premium_player_name (" +
+                     "  uuid UUID PRIMARY KEY," +
+                     "  name VARCHAR(64) NOT NULL," +
+                     "  name_lower VARCHAR(64) COLLATE \"C\" NOT NULL," +
+                     "  last_seen BIGINT NOT NULL" +
+                     ");";
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_premium_player_name_lower " +
+                               "ON premium_player_name (name_lower, last_seen)");
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to create the premium player name table", e);
+        }
+    }
+
+    /**
+     * Records a player's current name with a single upsert.
+     *
+     * @param uuid     Player UUID
+     * @param name     current name
+     * @param lastSeen login time as epoch millis
+     */
+    @Override
+    public void upsertPlayerName(String uuid, String name, long lastSeen) {
+        replicas.markWrite(MCEnginePremiumReplicaRouter.PLAYER_NAME_KEY);
+        String upsert = "INSERT INTO premium_player_name (uuid, name, name_lower, last_seen) VALUES (?, ?, ?, ?) "
+                + "ON CONFLICT (uuid) DO UPDATE SET name = EXCLUDED.name, name_lower = EXCLUDED.name_lower, "
+                + "last_seen = EXCLUDED.last_seen";
+        try (var ps = connection.prepareStatement(upsert)) {
+            ps.setObject(1, UUID.fromString(uuid));
+            ps.setString(2, name);
+            ps.setString(3, MCEnginePremiumPlayerName.lowerName(name));
+            ps.setLong(4, lastSeen);
+            ps.executeUpdate();
+        } catch (SQLException | IllegalArgumentException e) { // IllegalArgumentException if UUID.fromString fails
+            plugin.getLogger().log(Level.WARNING, "Failed to record the name of " + uuid, e);
         }
     }
 
     /**
-     * Closes the PostgreSQL database connection if open.
+     * Finds the player who most recently logged in as {@code name}, ignoring case.
+     *
+     * @param name player name
+     * @return the player, or {@code null} if the name was never seen
+     */
+    @Override
+    public MCEnginePremiumPlayerName findPlayerName(String name) {
+        String query = "SELECT uuid, name, last_seen FROM premium_player_name WHERE name_lower = ? "
+                + "ORDER BY last_seen DESC LIMIT 1";
+        try {
+            return replicas.read(connection, c -> {
+                try (var ps = c.prepareStatement(query)) {
+                    ps.setString(1, MCEnginePremiumPlayerName.lowerName(name));
+                    try (var rs = ps.executeQuery()) {
+                        if (!rs.next()) return null;
+                        return new MCEnginePremiumPlayerName(rs.getString("uuid"), rs.getString("name"), rs.getLong("last_seen"));
+                    }
+                }
+            }, MCEnginePremiumReplicaRouter.PLAYER_NAME_KEY);
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to look up player " + name, e);
+        }
+        return null;
+    }
+
+    /**
+     * Lists known players whose name starts with {@code prefix} with a range scan on the name index.
+     *
+     * @param prefix name prefix, matched ignoring case
+     * @param limit  maximum number of players
+     * @return matching players in name order
+     */
+    @Override
+    public java.util.List<MCEnginePremiumPlayerName> findPlayerNames(String prefix, int limit) {
+        String query = "SELECT uuid, name, last_seen FROM premium_player_name WHERE name_lower >= ? AND name_lower < ? "
+                + "ORDER BY name_lower, last_seen DESC LIMIT ?";
+        String lower = MCEnginePremiumPlayerName.lowerName(prefix);
+        try {
+            return replicas.read(connection, c -> {
+                java.util.List<MCEnginePremiumPlayerName> out = new java.util.ArrayList<>();
+                try (var ps = c.prepareStatement(query)) {
+                    ps.setString(1, lower);
+                    ps.setString(2, MCEnginePremiumPlayerName.prefixEnd(lower));
+                    ps.setInt(3, limit);
+                    try (var rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            out.add(new MCEnginePremiumPlayerName(rs.getString("uuid"), rs.getString("name"), rs.getLong("last_seen")));
+                        }
+                    }
+                }
+                return out;
+            }, MCEnginePremiumReplicaRouter.PLAYER_NAME_KEY);
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to look up players named " + prefix + "*", e);
+        }
+        return new java.util.ArrayList<>();
+    }
+
+    /**
+     * Looks up the names of many players with a single {@code uuid = ANY(?)} lookup on the primary key.
+     * Strings that are not valid UUIDs are ignored.
+     *
+     * @param uuids Player UUIDs (string form with dashes)
+     * @return name per UUID of players in the index
+     */
+    @Override
+    public java.util.Map<String, String> getPlayerNames(java.util.Collection<String> uuids) {
+        java.util.Map<String, String> out = new java.util.HashMap<>();
+        java.util.List<UUID> ids = new java.util.ArrayList<>(uuids.size());
+        for (String uuid : uuids) {
+            try {
+                ids.add(UUID.fromString(uuid));
+            } catch (IllegalArgumentException ignored) {}
+        }
+        if (ids.isEmpty()) return out;
+        String query = "SELECT uuid, name FROM premium_player_name WHERE uuid = ANY(?)";
+        try {
+            replicas.read(connection, c -> {
+                out.clear();
+                try (var ps = c.prepareStatement(query)) {
+                    ps.setArray(1, c.createArrayOf("uuid", ids.toArray()));
+                    try (var rs = ps.executeQuery()) {
+                        while (rs.next()) out.put(rs.getString("uuid"), rs.getString("name"));
+                    }
+                }
+                return out;
+            }, MCEnginePremiumReplicaRouter.PLAYER_NAME_KEY);
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to read player names", e);
+        }
+        return out;
+    }
+
+    /**
+     * Closes the PostgreSQL database connections if open.
      */
     @Override
     public void disConnection() {
+        replicas.close();
+        synchronized (batchLock) {
+            closeBatchConnection();
+        }
         try {
             if (connection != null && !connection.isClosed())
                 connection.close();
         } catch (SQLException e) {
-            e.printStackTrace();
+            plugin.getLogger().log(Level.WARNING, "Failed to close the premium database connection", e);
+        }
+    }
+
+    /**
+     * Runs a single-row upsert ending in {@link #RETURNING_RANK} and returns the resulting rank.
+     */
+    private static int returnedRank(PreparedStatement pstmt) throws SQLException {
+        try (var rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : -1;
+        }
+    }
+
+    /**
+     * Reads the current row of a {@link #HISTORY_COLUMNS} query.
+     */
+    private static MCEnginePremiumRankHistoryEntry historyEntry(java.sql.ResultSet rs) throws SQLException {
+        int newRank = rs.getInt("new_rank");
+        Integer rank = rs.wasNull() ? null : newRank;
+        return new MCEnginePremiumRankHistoryEntry(rs.getLong("id"), rs.getString("uuid"),
+                rs.getString("rank_type"), rs.getString("action"), rs.getLong("amount"),
+                rank, rs.getLong("changed_at"));
+    }
+
+    /**
+     * SQL condition matching rows of {@code table} whose expiry has passed; binds the current epoch millis.
+     * Columns are qualified so the fragment is unambiguous inside {@code ON CONFLICT DO UPDATE}.
+     */
+    private String expired(String table) {
+        return table + ".expires_at IS NOT NULL AND " + table + ".expires_at <= ?";
+    }
+
+    /**
+     * Upsert setting a rank to {@code ?}; binds uuid, rank, now.
+     */
+    private String setUpsert(String table) {
+        return "INSERT INTO " + table + " (uuid, rank) VALUES (?, ?) " +
+               "ON CONFLICT (uuid) DO UPDATE SET rank = EXCLUDED.rank, " +
+               "expires_at = CASE WHEN " + expired(table) + " THEN NULL ELSE " + table + ".expires_at END";
+    }
+
+    /**
+     * Upsert adding {@code ?} to a rank, clamped at 0; binds uuid, delta, now, delta, now.
+     */
+    private String addUpsert(String table) {
+        return "INSERT INTO " + table + " (uuid, rank) VALUES (?, GREATEST(?, 0)) " +
+               "ON CONFLICT (uuid) DO UPDATE SET " +
+               "rank = CASE WHEN " + expired(table) + " THEN EXCLUDED.rank " +
+               "ELSE GREATEST(" + table + ".rank + ?, 0) END, " +
+               "expires_at = CASE WHEN " + expired(table) + " THEN NULL ELSE " + table + ".expires_at END";
+    }
+
+    /**
+     * Upsert raising a rank by 1, restarting expired rows at 1; binds uuid, now, now.
+     */
+    private String upgradeUpsert(String table) {
+        return "INSERT INTO " + table + " (uuid, rank) VALUES (?, 1) " +
+               "ON CONFLICT (uuid) DO UPDATE SET " +
+               "rank = CASE WHEN " + expired(table) + " THEN 1 ELSE " + table + ".rank + 1 END, " +
+               "expires_at = CASE WHEN " + expired(table) + " THEN NULL ELSE " + table + ".expires_at END";
+    }
+
+    /**
+     * Returns the statement applying a queued row write.
+     */
+    private String batchSql(MCEnginePremiumBatchOperation operation) {
+        String table = tableName(operation.rankType());
+        return switch (operation.type()) {
+            case UPGRADE -> upgradeUpsert(table);
+            case SET -> setUpsert(table);
+            case ADD -> addUpsert(table);
+            case EXPIRY -> "UPDATE " + table + " SET expires_at = ? WHERE uuid = ?"
+                    + " AND (expires_at IS NULL OR expires_at > ?)";
+            case CREATE -> throw new IllegalArgumentException("CREATE is not a row write");
+        };
+    }
+
+    /**
+     * Binds a queued row write to the statement returned by {@link #batchSql}.
+     */
+    private static void bindBatch(PreparedStatement pstmt, MCEnginePremiumBatchOperation operation, long now) throws SQLException {
+        switch (operation.type()) {
+            case UPGRADE -> {
+                pstmt.setObject(1, UUID.fromString(operation.uuid()));
+                pstmt.setLong(2, now);
+                pstmt.setLong(3, now);
+            }
+            case SET -> {
+                pstmt.setObject(1, UUID.fromString(operation.uuid()));
+                pstmt.setInt(2, (int) operation.value());
+                pstmt.setLong(3, now);
+            }
+            case ADD -> {
+                pstmt.setObject(1, UUID.fromString(operation.uuid()));
+                pstmt.setInt(2, (int) operation.value());
+                pstmt.setLong(3, now);
+                pstmt.setInt(4, (int) operation.value());
+                pstmt.setLong(5, now);
+            }
+            case EXPIRY -> {
+                if (operation.value() > 0) pstmt.setLong(1, operation.value());
+                else pstmt.setNull(1, Types.BIGINT);
+                pstmt.setObject(2, UUID.fromString(operation.uuid()));
+                pstmt.setLong(3, now);
+            }
+            case CREATE -> throw new IllegalArgumentException("CREATE is not a row write");
         }
     }
 
@@ -0,0 +1,264 @@
+package io.github.mcengine.common.premium.database.replica;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes read-only queries of a SQL backend to healthy read replicas.
+ *
+ * <p>Replicas are connected and probed by an asynchronous health check, so an unreachable
+ * replica never delays startup or a query. Reads go to a healthy replica chosen round-robin or
+ * by lowest measured latency; they stay on the primary when no replica is healthy, or when the
+ * same key was written within the read-after-write window (replication lag would otherwise
+ * return stale data). A replica that fails a query is marked unhealthy and the query is
+ * retried on the primary.</p>
+ */
+public class MCEnginePremiumReplicaRouter {
+
+    /** Key covering the table catalog (table creation). */
+    public static final String CATALOG_KEY = "#catalog";
+
+    /** Key covering the rank history table. */
+    public static final String HISTORY_KEY = "#history";
+
+    /** Key covering the player name table. */
+    public static final String PLAYER_NAME_KEY = "#player-name";
+
+    /**
+     * JDBC operation that may throw {@link SQLException}.
+     *
+     * @param <R> result type
+     */
+    @FunctionalInterface
+    public interface SqlFunction<R> {
+        R apply(Connection connection) throws SQLException;
+    }
+
+    /** Replica selection strategy. */
+    public enum Strategy { ROUND_ROBIN, LEAST_LATENCY }
+
+    /** A single read replica and its health state. */
+    private static final class Replica {
+        /** JDBC URL of the replica. */
+        final String url;
+        /** Current connection, or {@code null} until the first successful health check. */
+        volatile Connection connection;
+        /** Whether the replica passed its last health check. */
+        volatile boolean healthy;
+        /** Exponentially weighted moving average of probe latency in milliseconds. */
+        volatile double latencyMillis = Double.MAX_VALUE;
+
+        Replica(String url) { this.url = url; }
+    }
+
+    /** Owning plugin, used for scheduling and logging. */
+    private final Plugin plugin;
+
+    /** Backend name used in log messages (e.g., "MySQL"). */
+    private final String backendName;
+
+    /** Configured replicas. */
+    private final List<Replica> replicas = new ArrayList<>();
+
+    /** Database user for replica connections. */
+    private final String user;
+
+    /** Database password for replica connections. */
+    private final String password;
+
+    /** Replica selection strategy. */
+    private final Strategy strategy;
+
+    /** Window after a write during which reads of the same key stay on the primary. */
+    private final long readAfterWriteMillis;
+
+    /** Last write time per key. */
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    /** Round-robin cursor. */
+    private final AtomicInteger next = new AtomicInteger();
+
+    /** Periodic health check task, or {@code null} when no replicas are configured. */
+    private BukkitTask healthTask;
+
+    /**
+     * Creates a router from the replica settings of a backend configuration.
+     *
+     * <p>Each entry of {@code replicaEntries} is either a full JDBC URL or {@code host[:port]};
+     * the latter is expanded with {@code urlTemplate}, in which {@code %s} stands for
+     * {@code host:port}.</p>
+     *
+     * @param plugin               owning plugin
+     * @param backendName          backend name for log messages
+     * @param replicaEntries       configured replicas, possibly empty
+     * @param urlTemplate          JDBC URL template for {@code host[:port]} entries
+     * @param defaultPort          port used when an entry omits it
+     * @param user                 database user
+     * @param password             database password
+     * @param strategy             {@code round-robin} or {@code least-latency}
+     * @param readAfterWriteMillis read-after-write window in milliseconds
+     * @param healthCheckSeconds   interval between health checks in seconds
+     */
+    public MCEnginePremiumReplicaRouter(Plugin plugin, String backendName, List<String> replicaEntries,
+                                        String urlTemplate, String defaultPort, String user, String password,
+                                        String strategy, long readAfterWriteMillis, long healthCheckSeconds) {
+        this.plugin = plugin;
+        this.backendName = backendName;
+        this.user = user;
+        this.password = password;
+        this.strategy = "least-latency".equalsIgnoreCase(strategy) ? Strategy.LEAST_LATENCY : Strategy.ROUND_ROBIN;
+        this.readAfterWriteMillis = Math.max(0L, readAfterWriteMillis);
+
+        for (String entry : replicaEntries) {
+            if (entry == null || entry.isBlank()) continue;
+            String trimmed = entry.trim();
+            String url = trimmed.startsWith("jdbc:")
+                    ? trimmed
+                    : String.format(urlTemplate, trimmed.contains(":") ? trimmed : trimmed + ":" + defaultPort);
+            replicas.add(new Replica(url));
+        }
+
+        if (!replicas.isEmpty()) {
+            long period = Math.max(1L, healthCheckSeconds) * 20L;
+            healthTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::checkHealth, 1L, period);
+        }
+    }
+
+    /**
+     * Runs a read-only query on a replica when allowed, otherwise on the primary.
+     *
+     * @param primary primary connection
+     * @param query   query to execute
+     * @param keys    keys read by the query; a recent write to any of them pins the read to the primary
+     * @param <R>     result type
+     * @return the query result
+     * @throws SQLException if the query fails on the primary
+     */
+    public <R> R read(Connection primary, SqlFunction<R> query, String... keys) throws SQLException {
+        Replica replica = pick(keys);
+        Connection connection = replica == null ? null : replica.connection;
+        if (connection == null) return query.apply(primary);
+        try {
+            return query.apply(connection);
+        } catch (SQLException e) {
+            replica.healthy = false;
+            plugin.getLogger().warning(backendName + " replica " + replica.url + " failed, using primary: " + e.getMessage());
+            return query.apply(primary);
+        }
+    }
+
+    /**
+     * Records a write so that reads of the same keys stay on the primary for the configured window.
+     *
+     * @param keys written keys
+     */
+    public void markWrite(String... keys) {
+        if (replicas.isEmpty() || readAfterWriteMillis == 0L) return;
+        long now = System.currentTimeMillis();
+        for (String key : keys) lastWrites.put(key, now);
+    }
+
+    /** Returns the key of a single rank row. */
+    public static String rowKey(String uuid, String rankType) { return rankType.toLowerCase() + ":" + uuid; }
+
+    /** Returns the key covering every row of a rank type (bulk writes). */
+    public static String tableKey(String rankType) { return rankType.toLowerCase() + ":*"; }
+
+    /** Returns the table key of a rank type followed by the row key of every given player. */
+    public static String[] rowKeys(String rankType, Collection<String> uuids) {
+        String[] keys = new String[uuids.size() + 1];
+        keys[0] = tableKey(rankType);
+        int i = 1;
+        for (String uuid : uuids) keys[i++] = rowKey(uuid, rankType);
+        return keys;
+    }
+
+    /**
+     * Stops health checks and closes every replica connection.
+     */
+    public void close() {
+        if (healthTask != null) healthTask.cancel();
+        for (Replica replica : replicas) {
+            replica.healthy = false;
+            closeQuietly(replica.connection);
+            replica.connection = null;
+        }
+    }
+
+    private Replica pick(String... keys) {
+        if (replicas.isEmpty()) return null;
+        if (readAfterWriteMillis > 0L && !lastWrites.isEmpty()) {
+            long cutoff = System.currentTimeMillis() - readAfterWriteMillis;
+            for (String key : keys) {
+                Long written = lastWrites.get(key);
+                if (written != null && written > cutoff) return null;
+            }
+        }
+
+        if (strategy == Strategy.LEAST_LATENCY) {
+            Replica best = null;
+            for (Replica replica : replicas) {
+                if (replica.healthy && (best == null || replica.latencyMillis < best.latencyMillis)) best = replica;
+            }
+            return best;
+        }
+
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) return replica;
+        }
+        return null;
+    }
+
+    /**
+     * Connects missing replicas, probes connected ones and drops expired write marks.
+     */
+    private void checkHealth() {
+        for (Replica replica : replicas) {
+            try {
+                if (replica.connection == null || replica.connection.isClosed()) {
+                    replica.connection = DriverManager.getConnection(replica.url, user, password);
+                }
+                long start = System.nanoTime();
+                boolean valid = replica.connection.isValid(2);
+                double millis = (System.nanoTime() - start) / 1_000_000.0;
+                replica.latencyMillis = replica.latencyMillis == Double.MAX_VALUE
+                        ? millis
+                        : replica.latencyMillis * 0.7 + millis * 0.3;
+                if (valid && !replica.healthy) {
+                    plugin.getLogger().info(backendName + " replica " + replica.url + " is healthy.");
+                }
+                replica.healthy = valid;
+            } catch (SQLException e) {
+                if (replica.healthy) {
+                    plugin.getLogger().warning(backendName + " replica " + replica.url + " is unhealthy: " + e.getMessage());
+                }
+                replica.healthy = false;
+                closeQuietly(replica.connection);
+                replica.connection = null;
+            }
+        }
+
+        long cutoff = System.currentTimeMillis() - readAfterWriteMillis;
+        lastWrites.values().removeIf(written -> written <= cutoff);
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            if (connection != null) connection.close();
+        } catch (SQLException ignored) {}
+    }
+}
@@ -0,0 +1,118 @@
+package io.github.mcengine.common.premium.database.sharding;
+
+import io.github.mcengine.common.premium.database.IMCEnginePremiumDB;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankHistoryEntry;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankRow;
+import io.github.mcengine.common.premium.jfr.MCEnginePremiumJfrDB;
+import org.bukkit.plugin.Plugin;
+
+import java.util.List;
+
+/**
+ * Copies all premium data from one backend to another, re-routing every row through the
+ * target's sharding (e.g., from a single MySQL instance to shards, or from 4 to 6 shards).
+ *
+ * <p>Rows are read per source shard with keyset pagination on the UUID and written to the target
+ * in JDBC batches, so memory use is bounded by {@code batchSize} regardless of table size. The
+ * source is never modified. The target must be empty; once the copy finishes, point
+ * {@code database.sharded.shards} at the target layout and restart. Writes made to the source
+ * after a rank type has been copied are not carried over, so run the copy during maintenance.</p>
+ */
+public class MCEnginePremiumReshardTool {
+
+    /**
+     * Outcome of a copy.
+     *
+     * @param rankTypes      number of rank types copied
+     * @param rows           number of rank rows copied
+     * @param historyEntries number of history entries copied
+     */
+    public record Result(int rankTypes, long rows, long historyEntries) {}
+
+    /** Owning plugin, used for logging. */
+    private final Plugin plugin;
+
+    /** Backend to read from. */
+    private final IMCEnginePremiumDB source;
+
+    /** Backend to write to. */
+    private final IMCEnginePremiumDB target;
+
+    /** Rows per page and per insert batch. */
+    private final int batchSize;
+
+    /**
+     * @param plugin    owning plugin
+     * @param source    backend to read from (sharded or not)
+     * @param target    empty backend to write to (sharded or not)
+     * @param batchSize rows per page and per insert batch
+     */
+    public MCEnginePremiumReshardTool(Plugin plugin, IMCEnginePremiumDB source, IMCEnginePremiumDB target, int batchSize) {
+        this.plugin = plugin;
+        this.source = source;
+        this.target = target;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Copies every rank type and, if requested, the rank history.
+     *
+     * @param copyHistory whether to copy {@code premium_rank_history}; entries receive new ids, which keep
+     *                    the order of each player's entries but not their order relative to other players
+     * @return copy statistics
+     * @throws IllegalStateException if the target already holds rank rows
+     */
+    public Result run(boolean copyHistory) {
+        List<String> rankTypes = source.listAvailableRankTypes();
+        for (String rankType : target.listAvailableRankTypes()) {
+            if (!target.exportPremiumRanks(rankType, null, 1).isEmpty()) {
+                throw new IllegalStateException("Reshard target is not empty (rank type " + rankType + ")");
+            }
+        }
+
+        long rows = 0L;
+        for (String rankType : rankTypes) {
+            target.createPremiumRank(rankType);
+            long copied = 0L;
+            for (IMCEnginePremiumDB shard : shardsOf(source)) {
+                String after = null;
+                List<MCEnginePremiumRankRow> page;
+                do {
+                    page = shard.exportPremiumRanks(rankType, after, batchSize);
+                    if (page.isEmpty()) break;
+                    target.importPremiumRanks(rankType, page);
+                    copied += page.size();
+                    after = page.get(page.size() - 1).uuid();
+                } while (page.size() == batchSize);
+            }
+            plugin.getLogger().info("Reshard: copied " + copied + " rows of rank type " + rankType + ".");
+            rows += copied;
+        }
+
+        long history = 0L;
+        if (copyHistory) {
+            target.createRankHistory();
+            // A sharded source exports all shards through one cursor and each type-wide entry once.
+            long afterId = 0L;
+            List<MCEnginePremiumRankHistoryEntry> page;
+            do {
+                page = source.exportRankHistory(afterId, batchSize);
+                if (page.isEmpty()) break;
+                if (!target.insertRankHistory(page)) {
+                    throw new IllegalStateException("Reshard failed to write history entries after id " + afterId);
+                }
+                history += page.size();
+                afterId = page.get(page.size() - 1).id();
+            } while (page.size() == batchSize);
+            plugin.getLogger().info("Reshard: copied " + history + " history entries.");
+        }
+        return new Result(rankTypes.size(), rows, history);
+    }
+
+    /**
+     * Returns the individual shards of a sharded backend, or the backend itself.
+     */
+    private static List<IMCEnginePremiumDB> shardsOf(IMCEnginePremiumDB db) {
+        return MCEnginePremiumJfrDB.unwrap(db) instanceof MCEnginePremiumShardedDB sharded ? sharded.getShards() : List.of(db);
+    }
+}
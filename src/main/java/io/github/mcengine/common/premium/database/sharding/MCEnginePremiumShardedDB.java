@@ -0,0 +1,619 @@
+package io.github.mcengine.common.premium.database.sharding;
+
+import io.github.mcengine.common.premium.database.IMCEnginePremiumDB;
+import io.github.mcengine.common.premium.database.MCEnginePremiumBatchOperation;
+import io.github.mcengine.common.premium.database.MCEnginePremiumHolderOrder;
+import io.github.mcengine.common.premium.database.MCEnginePremiumPartialBatchException;
+import io.github.mcengine.common.premium.database.MCEnginePremiumPlayerName;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankHistoryEntry;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankPredicate;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankRow;
+import io.github.mcengine.common.premium.database.mysql.MCEnginePremiumMySQL;
+import io.github.mcengine.common.premium.database.postgresql.MCEnginePremiumPostgreSQL;
+import io.github.mcengine.common.premium.database.sqlite.MCEnginePremiumSQLite;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.plugin.Plugin;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Spreads premium rank rows across several backends by player UUID.
+ *
+ * <p>Each UUID is mapped to a shard with jump consistent hashing, so appending a shard moves only
+ * about {@code 1/N} of the rows. Point lookups and single-player writes touch exactly one shard;
+ * DDL and bulk operations are broadcast, and cross-player reads ({@link #listAvailableRankTypes()},
+ * {@link #getPremiumRanks(String, Collection)}, {@link #getTopPremiumRanks(String, int)}) are
+ * scattered to all shards in parallel and merged. Units of work ({@link #executeBatch(List)}) are
+ * atomic per shard only; a partial commit is reported with
+ * {@link MCEnginePremiumPartialBatchException}. A player's history and name live on the player's shard;
+ * history entries without a player (operations on a whole rank type) are stored on every shard.</p>
+ *
+ * <p>Config ({@code database.type: sharded}):</p>
+ * <pre>
+ * database:
+ *   sharded:
+ *     shards:
+ *       shard-0: { type: sqlite, path: premium-0.db }
+ *       shard-1: { type: mysql, host: db1, port: 3306, database: mcengine, user: root, password: "" }
+ * </pre>
+ *
+ * <p>Every shard section accepts the same keys as {@code database.sqlite}, {@code database.mysql} or
+ * {@code database.postgresql}. Shard order is significant: changing it re-maps players, so use
+ * {@link MCEnginePremiumReshardTool} to move data to a new layout.</p>
+ */
+public class MCEnginePremiumShardedDB implements IMCEnginePremiumDB {
+
+    /** Bits of an exported history id that hold the shard-local id; the shard index sits above them. */
+    private static final int HISTORY_CURSOR_BITS = 48;
+
+    /** Mask selecting the shard-local part of an exported history id. */
+    private static final long HISTORY_LOCAL_MASK = (1L << HISTORY_CURSOR_BITS) - 1;
+
+    /** Shard backends in configuration order. */
+    private final List<IMCEnginePremiumDB> shards = new ArrayList<>();
+
+    /** Shard names in configuration order, for log messages. */
+    private final List<String> shardNames = new ArrayList<>();
+
+    /** Worker threads for scatter-gather queries. */
+    private final ExecutorService executor;
+
+    /**
+     * Initializes every shard listed under {@code database.sharded.shards}.
+     *
+     * @param plugin Bukkit plugin instance
+     */
+    public MCEnginePremiumShardedDB(Plugin plugin) {
+        this(plugin, "database.sharded.shards");
+    }
+
+    /**
+     * Initializes every shard listed under the configuration section at {@code path}.
+     *
+     * @param plugin Bukkit plugin instance
+     * @param path   section whose children are shard definitions with a {@code type} key
+     * @throws IllegalArgumentException if no shard is configured or a shard type is unsupported
+     */
+    public MCEnginePremiumShardedDB(Plugin plugin, String path) {
+        ConfigurationSection section = plugin.getConfig().getConfigurationSection(path);
+        if (section == null || section.getKeys(false).isEmpty()) {
+            throw new IllegalArgumentException("No shards configured at " + path);
+        }
+        for (String name : section.getKeys(false)) {
+            String shardPath = path + "." + name;
+            String type = plugin.getConfig().getString(shardPath + ".type", "sqlite").toLowerCase(Locale.ROOT);
+            switch (type) {
+                case "sqlite" -> shards.add(new MCEnginePremiumSQLite(plugin, shardPath));
+                case "mysql" -> shards.add(new MCEnginePremiumMySQL(plugin, shardPath));
+                case "postgresql" -> shards.add(new MCEnginePremiumPostgreSQL(plugin, shardPath));
+                default -> throw new IllegalArgumentException("Unsupported shard type for " + name + ": " + type);
+            }
+            shardNames.add(name);
+        }
+
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(shards.size(), runnable -> {
+            Thread thread = new Thread(runnable, "MCEnginePremium-Shard-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        plugin.getLogger().info("Premium sharding across " + shards.size() + " shards: " + String.join(", ", shardNames));
+    }
+
+    /**
+     * Returns the shard backends in configuration order.
+     *
+     * @return unmodifiable list of shards
+     */
+    public List<IMCEnginePremiumDB> getShards() {
+        return Collections.unmodifiableList(shards);
+    }
+
+    /**
+     * Returns the index of the shard owning a player.
+     *
+     * @param uuid Player UUID, or {@code null} for data not tied to a player
+     * @return shard index in {@code [0, shardCount)}
+     */
+    public int shardIndex(String uuid) {
+        if (uuid == null || shards.size() == 1) return 0;
+        long key;
+        try {
+            UUID id = UUID.fromString(uuid);
+            key = id.getMostSignificantBits() ^ id.getLeastSignificantBits();
+        } catch (IllegalArgumentException e) {
+            key = uuid.toLowerCase(Locale.ROOT).hashCode();
+        }
+        return jumpHash(key, shards.size());
+    }
+
+    /**
+     * Returns the first shard's connection. Callers of a sharded backend should use the
+     * interface methods, which route to the right shard.
+     */
+    @Override
+    public Connection getConnection() {
+        return shards.get(0).getConnection();
+    }
+
+    @Override
+    public void createPremiumRank(String rankType) {
+        broadcast(shard -> {
+            shard.createPremiumRank(rankType);
+            return null;
+        });
+    }
+
+    @Override
+    public int getPremiumRank(String uuid, String rankType) {
+        return shard(uuid).getPremiumRank(uuid, rankType);
+    }
+
+    /**
+     * Groups the players by shard and queries the shards in parallel.
+     */
+    @Override
+    public Map<String, Integer> getPremiumRanks(String rankType, Collection<String> uuids) {
+        Map<Integer, List<String>> byShard = new HashMap<>();
+        for (String uuid : uuids) {
+            byShard.computeIfAbsent(shardIndex(uuid), i -> new ArrayList<>()).add(uuid);
+        }
+        List<Callable<Map<String, Integer>>> tasks = new ArrayList<>();
+        byShard.forEach((index, part) -> tasks.add(() -> shards.get(index).getPremiumRanks(rankType, part)));
+
+        Map<String, Integer> out = new HashMap<>();
+        for (Map<String, Integer> part : scatter(tasks)) out.putAll(part);
+        return out;
+    }
+
+    /**
+     * A player's ranks all live on the player's shard, so the profile is a single-shard query.
+     */
+    @Override
+    public Map<String, Integer> getAllPremiumRanks(String uuid) {
+        return shard(uuid).getAllPremiumRanks(uuid);
+    }
+
+    @Override
+    public Map<String, Long> getAllPremiumRankExpiries(String uuid) {
+        return shard(uuid).getAllPremiumRankExpiries(uuid);
+    }
+
+    /**
+     * Takes the top {@code limit} rows of every shard in parallel and merges them.
+     */
+    @Override
+    public List<MCEnginePremiumRankRow> getTopPremiumRanks(String rankType, int limit) {
+        List<MCEnginePremiumRankRow> merged = new ArrayList<>();
+        for (List<MCEnginePremiumRankRow> part : broadcast(shard -> shard.getTopPremiumRanks(rankType, limit))) {
+            merged.addAll(part);
+        }
+        merged.sort(Comparator.comparingInt(MCEnginePremiumRankRow::rank).reversed()
+                .thenComparing(MCEnginePremiumRankRow::uuid));
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    /**
+     * Fetches the next {@code limit} holders of every shard in parallel and merges them: the
+     * keyset condition is global, so the first {@code limit} merged rows are exactly the page.
+     */
+    @Override
+    public List<MCEnginePremiumRankRow> listHolders(String rankType, MCEnginePremiumRankRow after, int limit,
+                                                    MCEnginePremiumHolderOrder order) {
+        List<MCEnginePremiumRankRow> merged = new ArrayList<>();
+        for (List<MCEnginePremiumRankRow> part : broadcast(shard -> shard.listHolders(rankType, after, limit, order))) {
+            merged.addAll(part);
+        }
+        merged.sort((a, b) -> order.precedes(a, b) ? -1 : order.precedes(b, a) ? 1 : 0);
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    /**
+     * Sums the per-rank holder counts of every shard, queried in parallel.
+     */
+    @Override
+    public Map<Integer, Long> getRankDistribution(String rankType) {
+        Map<Integer, Long> merged = new TreeMap<>();
+        for (Map<Integer, Long> part : broadcast(shard -> shard.getRankDistribution(rankType))) {
+            part.forEach((rank, holders) -> merged.merge(rank, holders, Long::sum));
+        }
+        return merged;
+    }
+
+    @Override
+    public void upgradePremiumRank(String uuid, String rankType) {
+        shard(uuid).upgradePremiumRank(uuid, rankType);
+    }
+
+    @Override
+    public int upgradeAndGetPremiumRank(String uuid, String rankType) {
+        return shard(uuid).upgradeAndGetPremiumRank(uuid, rankType);
+    }
+
+    @Override
+    public int setPremiumRank(String uuid, String rankType, int rank) {
+        return shard(uuid).setPremiumRank(uuid, rankType, rank);
+    }
+
+    @Override
+    public int addPremiumRank(String uuid, String rankType, int delta) {
+        return shard(uuid).addPremiumRank(uuid, rankType, delta);
+    }
+
+    /**
+     * Splits the unit of work by shard and applies the parts in parallel, each in its own
+     * transaction. {@code CREATE} operations go to every shard. There is no distributed commit:
+     * the writes of one player are atomic, but a failing shard does not undo the others. If some
+     * shards committed and others rolled back, a {@link MCEnginePremiumPartialBatchException} marks
+     * the rolled-back writes; if no write was committed, the first shard's failure is rethrown.
+     */
+    @Override
+    public int[] executeBatch(List<MCEnginePremiumBatchOperation> operations) throws SQLException {
+        Map<Integer, List<Integer>> byShard = new TreeMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            MCEnginePremiumBatchOperation operation = operations.get(i);
+            if (operation.type() == MCEnginePremiumBatchOperation.Type.CREATE) {
+                for (int shard = 0; shard < shards.size(); shard++) byShard.computeIfAbsent(shard, k -> new ArrayList<>()).add(i);
+            } else {
+                byShard.computeIfAbsent(shardIndex(operation.uuid()), k -> new ArrayList<>()).add(i);
+            }
+        }
+        List<Integer> indexes = new ArrayList<>(byShard.keySet());
+        List<List<Integer>> parts = new ArrayList<>(byShard.values());
+        List<Future<int[]>> futures = new ArrayList<>(parts.size());
+        for (int p = 0; p < parts.size(); p++) {
+            List<MCEnginePremiumBatchOperation> subset = new ArrayList<>(parts.get(p).size());
+            for (int i : parts.get(p)) subset.add(operations.get(i));
+            IMCEnginePremiumDB shard = shards.get(indexes.get(p));
+            // Every write on one shard is a single transaction: a failure is a plain rollback.
+            if (parts.size() == 1) return shard.executeBatch(subset);
+            futures.add(executor.submit(() -> shard.executeBatch(subset)));
+        }
+
+        int[] counts = new int[operations.size()];
+        Throwable failure = null;
+        List<Integer> failedShards = new ArrayList<>();
+        boolean committed = false;
+        for (int p = 0; p < parts.size(); p++) {
+            List<Integer> part = parts.get(p);
+            try {
+                int[] result = futures.get(p).get();
+                for (int j = 0; j < part.size(); j++) {
+                    counts[part.get(j)] += result[j];
+                    if (operations.get(part.get(j)).type() != MCEnginePremiumBatchOperation.Type.CREATE) committed = true;
+                }
+            } catch (ExecutionException e) {
+                if (failure == null) failure = e.getCause();
+                else failure.addSuppressed(e.getCause());
+                failedShards.add(indexes.get(p));
+                for (int i : part) {
+                    if (operations.get(i).type() != MCEnginePremiumBatchOperation.Type.CREATE) counts[i] = Statement.EXECUTE_FAILED;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for shards", e);
+            }
+        }
+        if (failure == null) return counts;
+        if (committed) {
+            throw new MCEnginePremiumPartialBatchException("Premium batch partially committed: shard(s) " + failedShards
+                    + " rolled back, the other shards committed: " + failure.getMessage(), counts, failure);
+        }
+        if (failure instanceof SQLException sql) throw sql;
+        if (failure instanceof RuntimeException runtime) throw runtime;
+        throw new IllegalStateException(failure);
+    }
+
+    @Override
+    public int resetRankType(String rankType) {
+        return sum(broadcast(shard -> shard.resetRankType(rankType)));
+    }
+
+    @Override
+    public int adjustAll(String rankType, int delta, MCEnginePremiumRankPredicate predicate) {
+        return sum(broadcast(shard -> shard.adjustAll(rankType, delta, predicate)));
+    }
+
+    @Override
+    public boolean setPremiumRankExpiry(String uuid, String rankType, long expiresAt) {
+        return shard(uuid).setPremiumRankExpiry(uuid, rankType, expiresAt);
+    }
+
+    @Override
+    public long getPremiumRankExpiry(String uuid, String rankType) {
+        return shard(uuid).getPremiumRankExpiry(uuid, rankType);
+    }
+
+    @Override
+    public boolean deleteExpiredPremiumRank(String uuid, String rankType, long now) {
+        return shard(uuid).deleteExpiredPremiumRank(uuid, rankType, now);
+    }
+
+    /**
+     * Deletes up to {@code limit} expired rows on every shard, so a single call may remove
+     * up to {@code limit * shardCount} rows.
+     */
+    @Override
+    public List<String> deleteExpiredPremiumRanks(String rankType, long now, int limit) {
+        List<String> removed = new ArrayList<>();
+        for (List<String> part : broadcast(shard -> shard.deleteExpiredPremiumRanks(rankType, now, limit))) {
+            removed.addAll(part);
+        }
+        return removed;
+    }
+
+    /**
+     * Exports a page from every shard in parallel and merges them in UUID order.
+     * To copy a whole sharded backend, export each of {@link #getShards()} instead.
+     */
+    @Override
+    public List<MCEnginePremiumRankRow> exportPremiumRanks(String rankType, String afterUuid, int limit) {
+        List<MCEnginePremiumRankRow> merged = new ArrayList<>();
+        for (List<MCEnginePremiumRankRow> part : broadcast(shard -> shard.exportPremiumRanks(rankType, afterUuid, limit))) {
+            merged.addAll(part);
+        }
+        merged.sort(Comparator.comparing(MCEnginePremiumRankRow::uuid));
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    /**
+     * Routes every row to its owning shard and writes the shards in parallel.
+     */
+    @Override
+    public void importPremiumRanks(String rankType, List<MCEnginePremiumRankRow> rows) {
+        Map<Integer, List<MCEnginePremiumRankRow>> byShard = new HashMap<>();
+        for (MCEnginePremiumRankRow row : rows) {
+            byShard.computeIfAbsent(shardIndex(row.uuid()), i -> new ArrayList<>()).add(row);
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        byShard.forEach((index, part) -> tasks.add(() -> {
+            shards.get(index).importPremiumRanks(rankType, part);
+            return null;
+        }));
+        scatter(tasks);
+    }
+
+    @Override
+    public void createRankHistory() {
+        broadcast(shard -> {
+            shard.createRankHistory();
+            return null;
+        });
+    }
+
+    /**
+     * Routes every entry to its player's shard. Entries without a player (operations on a whole
+     * rank type) are copied to every shard, so each player's shard can list them.
+     *
+     * @return {@code true} only if every shard wrote its part
+     */
+    @Override
+    public boolean insertRankHistory(List<MCEnginePremiumRankHistoryEntry> entries) {
+        Map<Integer, List<MCEnginePremiumRankHistoryEntry>> byShard = new HashMap<>();
+        for (MCEnginePremiumRankHistoryEntry entry : entries) {
+            if (entry.uuid() == null) {
+                for (int shard = 0; shard < shards.size(); shard++) byShard.computeIfAbsent(shard, i -> new ArrayList<>()).add(entry);
+            } else {
+                byShard.computeIfAbsent(shardIndex(entry.uuid()), i -> new ArrayList<>()).add(entry);
+            }
+        }
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        byShard.forEach((index, part) -> tasks.add(() -> shards.get(index).insertRankHistory(part)));
+        return !scatter(tasks).contains(Boolean.FALSE);
+    }
+
+    /**
+     * Reads from the player's shard, which also holds a copy of every rank-type-wide entry;
+     * history ids are therefore only ordered per player.
+     */
+    @Override
+    public List<MCEnginePremiumRankHistoryEntry> getRankHistory(String uuid, String rankType, long beforeId, int limit) {
+        return shard(uuid).getRankHistory(uuid, rankType, beforeId, limit);
+    }
+
+    /**
+     * Exports the shards one after another. History ids are assigned per shard, so the returned
+     * entries carry a composite cursor as their id: the shard index in the upper bits and the
+     * shard-local id in the lower {@value #HISTORY_CURSOR_BITS} bits. Pass the id of the last
+     * entry back as {@code afterId} to continue. Entries without a player are copied to every
+     * shard on insert and are exported from the first shard only.
+     */
+    @Override
+    public List<MCEnginePremiumRankHistoryEntry> exportRankHistory(long afterId, int limit) {
+        int shard = (int) (afterId >>> HISTORY_CURSOR_BITS);
+        long localId = afterId & HISTORY_LOCAL_MASK;
+        List<MCEnginePremiumRankHistoryEntry> out = new ArrayList<>(limit);
+        while (out.size() < limit && shard < shards.size()) {
+            int wanted = limit - out.size();
+            List<MCEnginePremiumRankHistoryEntry> page = shards.get(shard).exportRankHistory(localId, wanted);
+            for (MCEnginePremiumRankHistoryEntry entry : page) {
+                localId = entry.id();
+                if (shard > 0 && entry.uuid() == null) continue;
+                out.add(new MCEnginePremiumRankHistoryEntry(((long) shard << HISTORY_CURSOR_BITS) | entry.id(),
+                        entry.uuid(), entry.rankType(), entry.action(), entry.amount(), entry.rank(), entry.changedAt()));
+            }
+            if (page.size() < wanted) {
+                shard++;
+                localId = 0L;
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public int pruneRankHistory(long olderThan, int limit) {
+        return sum(broadcast(shard -> shard.pruneRankHistory(olderThan, limit)));
+    }
+
+    @Override
+    public void createPlayerNames() {
+        broadcast(shard -> {
+            shard.createPlayerNames();
+            return null;
+        });
+    }
+
+    @Override
+    public void upsertPlayerName(String uuid, String name, long lastSeen) {
+        shard(uuid).upsertPlayerName(uuid, name, lastSeen);
+    }
+
+    /**
+     * Asks every shard in parallel; the most recent login wins if a name moved between players
+     * stored on different shards.
+     */
+    @Override
+    public MCEnginePremiumPlayerName findPlayerName(String name) {
+        MCEnginePremiumPlayerName latest = null;
+        for (MCEnginePremiumPlayerName player : broadcast(shard -> shard.findPlayerName(name))) {
+            if (player != null && (latest == null || player.lastSeen() > latest.lastSeen())) latest = player;
+        }
+        return latest;
+    }
+
+    /**
+     * Fetches the first {@code limit} matches of every shard in parallel and merges them in name order.
+     */
+    @Override
+    public List<MCEnginePremiumPlayerName> findPlayerNames(String prefix, int limit) {
+        List<MCEnginePremiumPlayerName> merged = new ArrayList<>();
+        for (List<MCEnginePremiumPlayerName> part : broadcast(shard -> shard.findPlayerNames(prefix, limit))) {
+            merged.addAll(part);
+        }
+        merged.sort(Comparator.comparing((MCEnginePremiumPlayerName player) -> MCEnginePremiumPlayerName.lowerName(player.name()))
+                .thenComparing(Comparator.comparingLong(MCEnginePremiumPlayerName::lastSeen).reversed()));
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    /**
+     * Groups the players by shard, where their names live, and queries the shards in parallel.
+     */
+    @Override
+    public Map<String, String> getPlayerNames(Collection<String> uuids) {
+        Map<Integer, List<String>> byShard = new HashMap<>();
+        for (String uuid : uuids) {
+            byShard.computeIfAbsent(shardIndex(uuid), i -> new ArrayList<>()).add(uuid);
+        }
+        List<Callable<Map<String, String>>> tasks = new ArrayList<>();
+        byShard.forEach((index, part) -> tasks.add(() -> shards.get(index).getPlayerNames(part)));
+
+        Map<String, String> out = new HashMap<>();
+        for (Map<String, String> part : scatter(tasks)) out.putAll(part);
+        return out;
+    }
+
+    /**
+     * Returns {@code true} if any shard has the table (a shard added later may still lack it).
+     */
+    @Override
+    public boolean rankTableExists(String rankType) {
+        return broadcast(shard -> shard.rankTableExists(rankType)).contains(Boolean.TRUE);
+    }
+
+    /**
+     * Returns the union of the rank types found on all shards.
+     */
+    @Override
+    public List<String> listAvailableRankTypes() {
+        LinkedHashSet<String> out = new LinkedHashSet<>();
+        for (List<String> part : broadcast(IMCEnginePremiumDB::listAvailableRankTypes)) out.addAll(part);
+        return new ArrayList<>(out);
+    }
+
+    /**
+     * Closes every shard and stops the worker threads.
+     */
+    @Override
+    public void disConnection() {
+        for (IMCEnginePremiumDB shard : shards) shard.disConnection();
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the shard owning a player.
+     */
+    private IMCEnginePremiumDB shard(String uuid) {
+        return shards.get(shardIndex(uuid));
+    }
+
+    /**
+     * Runs {@code operation} on every shard in parallel and returns the results in shard order.
+     */
+    private <R> List<R> broadcast(Function<IMCEnginePremiumDB, R> operation) {
+        List<Callable<R>> tasks = new ArrayList<>(shards.size());
+        for (IMCEnginePremiumDB shard : shards) tasks.add(() -> operation.apply(shard));
+        return scatter(tasks);
+    }
+
+    /**
+     * Runs tasks on the worker threads and waits for all of them. A single task runs inline.
+     * Runtime exceptions thrown by a shard (e.g., a reserved rank type) are rethrown to the caller.
+     */
+    private <R> List<R> scatter(List<Callable<R>> tasks) {
+        List<R> results = new ArrayList<>(tasks.size());
+        try {
+            if (tasks.size() == 1) {
+                results.add(tasks.get(0).call());
+                return results;
+            }
+            List<Future<R>> futures = new ArrayList<>(tasks.size());
+            for (Callable<R> task : tasks) futures.add(executor.submit(task));
+            for (Future<R> future : futures) results.add(future.get());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shards", e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return results;
+    }
+
+    /**
+     * Sums per-shard row counts.
+     */
+    private static int sum(List<Integer> counts) {
+        int total = 0;
+        for (int count : counts) total += count;
+        return total;
+    }
+
+    /**
+     * Jump consistent hash (Lamping and Veach): maps {@code key} to a bucket in {@code [0, buckets)}
+     * such that growing from {@code n} to {@code n + 1} buckets moves only {@code 1/(n + 1)} of the keys.
+     */
+    static int jumpHash(long key, int buckets) {
+        long bucket = -1;
+        long next = 0;
+        while (next < buckets) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+}
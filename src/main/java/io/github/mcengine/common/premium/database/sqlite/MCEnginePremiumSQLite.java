@@ -1,24 +1,74 @@
 package io.github.mcengine.common.premium.database.sqlite;
 
 import io.github.mcengine.common.premium.database.IMCEnginePremiumDB;
+import io.github.mcengine.common.premium.database.MCEnginePremiumBatchExecutor;
+import io.github.mcengine.common.premium.database.MCEnginePremiumBatchOperation;
+import io.github.mcengine.common.premium.database.MCEnginePremiumHolderOrder;
+import io.github.mcengine.common.premium.database.MCEnginePremiumPlayerName;
+import io.github.mcengine.common.premium.database.MCEnginePremiumProfileQuery;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankHistoryEntry;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankPredicate;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankRow;
 import org.bukkit.plugin.Plugin;
 
 import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
+import java.util.Locale;
+import java.util.logging.Level;
 
 /**
  * SQLite implementation of the Premium Common database using plugin configuration.
  */
 public class MCEnginePremiumSQLite implements IMCEnginePremiumDB {
 
+    /**
+     * SQL condition matching rows whose expiry has passed; binds the current epoch millis.
+     */
+    private static final String EXPIRED = "expires_at IS NOT NULL AND expires_at <= ?";
+
+    /**
+     * Maximum number of UUIDs bound into a single {@code IN (...)} list.
+     */
+    private static final int IN_CHUNK = 500;
+
+    /**
+     * Suffix making a single-row upsert report the resulting rank (SQLite 3.35+).
+     */
+    private static final String RETURNING_RANK = " RETURNING rank";
+
+    /**
+     * Columns of {@code premium_rank_history} read into {@link MCEnginePremiumRankHistoryEntry}.
+     */
+    private static final String HISTORY_COLUMNS = "id, uuid, rank_type, action, amount, new_rank, changed_at";
+
+    /**
+     * Owning plugin, whose logger reports failed statements.
+     */
+    private final Plugin plugin;
+
     /**
      * Active SQL database connection instance.
      */
     private Connection connection;
 
+    /**
+     * The database file, for tools that open their own connection (e.g., online backups).
+     */
+    private final File databaseFile;
+
+    /**
+     * Cached single-statement lookup of a player's rank and expiry in every rank type.
+     */
+    private final MCEnginePremiumProfileQuery profileQuery = new MCEnginePremiumProfileQuery(
+            this::listAvailableRankTypes,
+            rankType -> "SELECT '" + rankType + "' AS rank_type, rank, expires_at FROM " + tableName(rankType)
+                    + " WHERE uuid = ? AND (expires_at IS NULL OR expires_at > ?)");
+
     /**
      * Initializes SQLite connection using plugin configuration.
      *
@@ -28,11 +78,30 @@ public class MCEnginePremiumSQLite implements IMCEnginePremiumDB {
      * @param plugin Bukkit plugin instance
      */
     public MCEnginePremiumSQLite(Plugin plugin) {
-        String dbPath = plugin.getConfig().getString("database.sqlite.path", "premium.db");
-        File dbFile = new File(plugin.getDataFolder(), dbPath);
+        this(plugin, "database.sqlite");
+    }
+
+    /**
+     * Initializes SQLite connection from the configuration section at {@code path}
+     * (e.g., {@code database.sqlite} or a shard under {@code database.sharded.shards}).
+     *
+     * Config path below {@code path}:
+     * - path (default: "premium.db"), relative to the plugin data folder
+     *
+     * @param plugin Bukkit plugin instance
+     * @param path   configuration section holding the connection settings
+     */
+    public MCEnginePremiumSQLite(Plugin plugin, String path) {
+        this.plugin = plugin;
+        String dbPath = plugin.getConfig().getString(path + ".path", "premium.db");
+        this.databaseFile = new File(plugin.getDataFolder(), dbPath);
 
         try {
-            connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath());
+            connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+            // WAL lets readers on other connections (online backups) run without blocking writes.
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("PRAGMA journal_mode=WAL");
+            }
         } catch (SQLException e) {
             plugin.getLogger().severe("Failed to connect to SQLite: " + e.getMessage());
         }
@@ -48,11 +117,21 @@ public class MCEnginePremiumSQLite implements IMCEnginePremiumDB {
         return connection;
     }
 
+    /**
+     * Returns the SQLite database file.
+     *
+     * @return database file inside the plugin data folder
+     */
+    public File getDatabaseFile() {
+        return databaseFile;
+    }
+
     @Override
     public boolean rankTableExists(String rankType) {
         if (connection == null) return false;
         String safe = (rankType == null ? "default" : rankType).toLowerCase().replaceAll("[^a-z0-9_]", "_");
         String table = "premium_rank_" + safe;
+        if (MCEnginePremiumRankHistoryEntry.TABLE.equals(table)) return false;
         String sql = "SELECT 1 FROM sqlite_master WHERE type='table' AND lower(name)=?";
         try (var ps = connection.prepareStatement(sql)) {
             ps.setString(1, table.toLowerCase());
@@ -74,7 +153,8 @@ public class MCEnginePremiumSQLite implements IMCEnginePremiumDB {
             var rs = ps.executeQuery()) {
             while (rs.next()) {
                 String name = rs.getString(1);
-                if (name != null && name.toLowerCase().startsWith(prefix)) {
+                if (name != null && name.toLowerCase().startsWith(prefix)
+                        && !MCEnginePremiumRankHistoryEntry.TABLE.equalsIgnoreCase(name)) {
                     out.add(name.substring(prefix.length()));
                 }
             }
@@ -89,16 +169,32 @@ public class MCEnginePremiumSQLite implements IMCEnginePremiumDB {
      */
     @Override
     public void createPremiumRank(String rankType) {
+        String table = tableName(rankType);
+        if (MCEnginePremiumRankHistoryEntry.TABLE.equals(table)) {
+            throw new IllegalArgumentException("Reserved rank type: " + rankType);
+        }
         try (Statement stmt = connection.createStatement()) {
             stmt.executeUpdate(String.format("""
-                CREATE TABLE IF NOT EXISTS premium_rank_%s (
+                CREATE TABLE IF NOT EXISTS %s (
                     uuid TEXT NOT NULL PRIMARY KEY,
-                    rank INTEGER NOT NULL
+                    rank INTEGER NOT NULL,
+                    expires_at INTEGER NULL
                 );
-            """, rankType.toLowerCase()));
+            """, table));
+
+            // Tables created before expiry support lack the column; add it in place.
+            if (!columnExists(table, "expires_at")) {
+                stmt.executeUpdate("ALTER TABLE " + table + " ADD COLUMN expires_at INTEGER NULL");
+            }
+            // Partial index: only time-limited rows are indexed, keeping the sweeper cheap.
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_" + table + "_expires_at ON " + table
+                    + " (expires_at) WHERE expires_at IS NOT NULL");
+            // Serves keyset-paginated holder listings in both directions.
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_" + table + "_rank_uuid ON " + table + " (rank, uuid)");
         } catch (SQLException e) {
-            e.printStackTrace();
+            plugin.getLogger().log(Level.WARNING, "Failed to create the premium rank table for " + rankType, e);
         }
+        profileQuery.invalidate();
     }
 
     /**
@@ -106,23 +202,194 @@ public class MCEnginePremiumSQLite implements IMCEnginePremiumDB {
      *
      * @param uuid     Player UUID
      * @param rankType Rank type (e.g., vip, vvip)
-     * @return Integer rank value, or -1 if not found
+     * @return Integer rank value, or -1 if not found or expired
      */
     @Override
     public int getPremiumRank(String uuid, String rankType) {
-        String query = String.format("SELECT rank FROM premium_rank_%s WHERE uuid = ?", rankType.toLowerCase());
+        String query = "SELECT rank FROM " + tableName(rankType)
+                + " WHERE uuid = ? AND (expires_at IS NULL OR expires_at > ?)";
         try (var pstmt = connection.prepareStatement(query)) {
             pstmt.setString(1, uuid);
+            pstmt.setLong(2, System.currentTimeMillis());
             var rs = pstmt.executeQuery();
             if (rs.next()) {
                 return rs.getInt("rank");
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            plugin.getLogger().log(Level.WARNING, "Failed to read the premium rank of " + uuid + " (" + rankType + ")", e);
         }
         return -1; // not found
     }
 
+    /**
+     * Retrieves the ranks of many players using chunked {@code IN (...)} lookups on the primary key.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param uuids    Player UUIDs
+     * @return rank per UUID for players holding a non-expired rank
+     */
+    @Override
+    public java.util.Map<String, Integer> getPremiumRanks(String rankType, java.util.Collection<String> uuids) {
+        java.util.Map<String, Integer> out = new java.util.HashMap<>();
+        java.util.List<String> all = new java.util.ArrayList<>(uuids);
+        for (int from = 0; from < all.size(); from += IN_CHUNK) {
+            java.util.List<String> chunk = all.subList(from, Math.min(from + IN_CHUNK, all.size()));
+            String query = "SELECT uuid, rank FROM " + tableName(rankType)
+                    + " WHERE uuid IN (" + String.join(", ", java.util.Collections.nCopies(chunk.size(), "?")) + ")"
+                    + " AND (expires_at IS NULL OR expires_at > ?)";
+            try (var pstmt = connection.prepareStatement(query)) {
+                int i = 1;
+                for (String uuid : chunk) pstmt.setString(i++, uuid);
+                pstmt.setLong(i, System.currentTimeMillis());
+                try (var rs = pstmt.executeQuery()) {
+                    while (rs.next()) out.put(rs.getString("uuid"), rs.getInt("rank"));
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to read premium ranks in bulk (" + rankType + ")", e);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Retrieves a player's rank in every rank type with one cached {@code UNION ALL} statement.
+     *
+     * @param uuid Player UUID
+     * @return rank per rank type, sorted by rank type
+     */
+    @Override
+    public java.util.Map<String, Integer> getAllPremiumRanks(String uuid) {
+        return readProfile(uuid, MCEnginePremiumProfileQuery.RANK);
+    }
+
+    /**
+     * Retrieves the expiry of a player's rank in every rank type with the same cached statement
+     * as {@link #getAllPremiumRanks(String)}.
+     *
+     * @param uuid Player UUID
+     * @return expiry (0 if permanent) per rank type, sorted by rank type
+     */
+    @Override
+    public java.util.Map<String, Long> getAllPremiumRankExpiries(String uuid) {
+        return readProfile(uuid, MCEnginePremiumProfileQuery.EXPIRES_AT);
+    }
+
+    /**
+     * Runs the cached profile statement for a player and reads one column per held rank type.
+     */
+    private <V> java.util.Map<String, V> readProfile(String uuid, MCEnginePremiumProfileQuery.Column<V> column) {
+        java.util.Map<String, V> out = new java.util.TreeMap<>();
+        if (connection == null) return out;
+        MCEnginePremiumProfileQuery.Plan plan = profileQuery.get();
+        if (plan.sql() == null) return out;
+        try (var pstmt = connection.prepareStatement(plan.sql())) {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < plan.rankTypes().size(); i++) {
+                pstmt.setString(2 * i + 1, uuid);
+                pstmt.setLong(2 * i + 2, now);
+            }
+            try (var rs = pstmt.executeQuery()) {
+                while (rs.next()) out.put(rs.getString("rank_type"), column.read(rs));
+            }
+        } catch (SQLException e) {
+            // Most likely a rank table was dropped behind our back; rebuild on the next call.
+            profileQuery.invalidate();
+            plugin.getLogger().log(Level.WARNING, "Failed to read the premium ranks of " + uuid + " across rank types", e);
+        }
+        return out;
+    }
+
+    /**
+     * Returns the highest non-expired ranks of a rank type.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param limit    maximum number of rows
+     * @return rows ordered by rank descending, then UUID
+     */
+    @Override
+    public java.util.List<MCEnginePremiumRankRow> getTopPremiumRanks(String rankType, int limit) {
+        java.util.List<MCEnginePremiumRankRow> out = new java.util.ArrayList<>();
+        String query = "SELECT uuid, rank, expires_at FROM " + tableName(rankType)
+                + " WHERE expires_at IS NULL OR expires_at > ? ORDER BY rank DESC, uuid LIMIT ?";
+        try (var pstmt = connection.prepareStatement(query)) {
+            pstmt.setLong(1, System.currentTimeMillis());
+            pstmt.setInt(2, limit);
+            try (var rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    out.add(new MCEnginePremiumRankRow(rs.getString("uuid"), rs.getInt("rank"), rs.getLong("expires_at")));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to read the top premium ranks (" + rankType + ")", e);
+        }
+        return out;
+    }
+
+    /**
+     * Returns one page of holders with a keyset condition on {@code (rank, uuid)}, served by
+     * the {@code (rank, uuid)} index in either direction.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param after    last row of the previous page, or {@code null} for the first page
+     * @param limit    maximum number of rows
+     * @param order    sort order
+     * @return up to {@code limit} rows following {@code after}
+     */
+    @Override
+    public java.util.List<MCEnginePremiumRankRow> listHolders(String rankType, MCEnginePremiumRankRow after, int limit,
+                                                             MCEnginePremiumHolderOrder order) {
+        java.util.List<MCEnginePremiumRankRow> out = new java.util.ArrayList<>();
+        boolean desc = order == MCEnginePremiumHolderOrder.RANK_DESC;
+        String cmp = desc ? "<" : ">";
+        String dir = desc ? "DESC" : "ASC";
+        String query = "SELECT uuid, rank, expires_at FROM " + tableName(rankType)
+                + " WHERE (expires_at IS NULL OR expires_at > ?)"
+                + (after == null ? "" : " AND (rank " + cmp + " ? OR (rank = ? AND uuid " + cmp + " ?))")
+                + " ORDER BY rank " + dir + ", uuid " + dir + " LIMIT ?";
+        try (var pstmt = connection.prepareStatement(query)) {
+            int i = 1;
+            pstmt.setLong(i++, System.currentTimeMillis());
+            if (after != null) {
+                pstmt.setInt(i++, after.rank());
+                pstmt.setInt(i++, after.rank());
+                pstmt.setString(i++, after.uuid());
+            }
+            pstmt.setInt(i, limit);
+            try (var rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    out.add(new MCEnginePremiumRankRow(rs.getString("uuid"), rs.getInt("rank"), rs.getLong("expires_at")));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to read the top premium ranks (" + rankType + ")", e);
+        }
+        return out;
+    }
+
+    /**
+     * Counts the non-expired holders per rank value.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @return holder count per rank value, sorted by rank
+     */
+    @Override
+    public java.util.Map<Integer, Long> getRankDistribution(String rankType) {
+        java.util.Map<Integer, Long> out = new java.util.TreeMap<>();
+        String query = "SELECT rank, COUNT(*) AS holders FROM " + tableName(rankType)
+                + " WHERE expires_at IS NULL OR expires_at > ? GROUP BY rank";
+        try (var pstmt = connection.prepareStatement(query)) {
+            pstmt.setLong(1, System.currentTimeMillis());
+            try (var rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    out.put(rs.getInt("rank"), rs.getLong("holders"));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to count premium rank holders (" + rankType + ")", e);
+        }
+        return out;
+    }
+
     /**
      * Upgrades the rank of a user by 1. If user not exists, it inserts with rank = 1.
      *
@@ -131,31 +398,554 @@ public class MCEnginePremiumSQLite implements IMCEnginePremiumDB {
      */
     @Override
     public void upgradePremiumRank(String uuid, String rankType) {
-        String selectQuery = String.format("SELECT rank FROM premium_rank_%s WHERE uuid = ?", rankType.toLowerCase());
-        String insertQuery = String.format("INSERT INTO premium_rank_%s (uuid, rank) VALUES (?, ?)", rankType.toLowerCase());
-        String updateQuery = String.format("UPDATE premium_rank_%s SET rank = rank + 1 WHERE uuid = ?", rankType.toLowerCase());
+        upgradeAndGetPremiumRank(uuid, rankType);
+    }
 
-        try (var selectStmt = connection.prepareStatement(selectQuery)) {
-            selectStmt.setString(1, uuid);
-            var rs = selectStmt.executeQuery();
+    /**
+     * Upgrades the rank of a user by 1. If user not exists, it inserts with rank = 1.
+     * An expired row is treated as absent and restarts at rank 1 without expiry.
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @return the rank after the upgrade, or -1 if the write failed
+     */
+    @Override
+    public int upgradeAndGetPremiumRank(String uuid, String rankType) {
+        // One atomic upsert: a separate SELECT then INSERT/UPDATE loses increments when two
+        // writers race on the same player (both insert, or both read the same rank).
+        String upsert = upgradeUpsert(tableName(rankType)) + RETURNING_RANK;
+        try (var pstmt = connection.prepareStatement(upsert)) {
+            long now = System.currentTimeMillis();
+            pstmt.setString(1, uuid);
+            pstmt.setLong(2, now);
+            pstmt.setLong(3, now);
+            return returnedRank(pstmt);
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to upgrade the premium rank of " + uuid + " (" + rankType + ")", e);
+        }
+        return -1;
+    }
 
-            if (rs.next()) {
-                // Update rank
-                try (var updateStmt = connection.prepareStatement(updateQuery)) {
-                    updateStmt.setString(1, uuid);
-                    updateStmt.executeUpdate();
+    /**
+     * Sets the rank of a user to an exact value using a single upsert.
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param rank     new rank value
+     * @return the rank after the write, or -1 if the write failed
+     */
+    @Override
+    public int setPremiumRank(String uuid, String rankType, int rank) {
+        String upsert = setUpsert(tableName(rankType)) + RETURNING_RANK;
+        try (var pstmt = connection.prepareStatement(upsert)) {
+            pstmt.setString(1, uuid);
+            pstmt.setInt(2, rank);
+            pstmt.setLong(3, System.currentTimeMillis());
+            return returnedRank(pstmt);
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to set the premium rank of " + uuid + " (" + rankType + ")", e);
+        }
+        return -1;
+    }
+
+    /**
+     * Adds {@code delta} to the rank of a user using a single upsert, clamped at 0.
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param delta    amount to add (may be negative)
+     * @return the rank after the write, or -1 if the write failed
+     */
+    @Override
+    public int addPremiumRank(String uuid, String rankType, int delta) {
+        String upsert = addUpsert(tableName(rankType)) + RETURNING_RANK;
+        try (var pstmt = connection.prepareStatement(upsert)) {
+            long now = System.currentTimeMillis();
+            pstmt.setString(1, uuid);
+            pstmt.setInt(2, delta);
+            pstmt.setLong(3, now);
+            pstmt.setInt(4, delta);
+            pstmt.setLong(5, now);
+            return returnedRank(pstmt);
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to add to the premium rank of " + uuid + " (" + rankType + ")", e);
+        }
+        return -1;
+    }
+
+    /**
+     * Applies a unit of work on a second connection, so the transaction never captures writes
+     * made concurrently through the shared connection.
+     *
+     * @param operations writes in the order they were queued
+     * @return update count per operation
+     * @throws SQLException if the transaction failed and was rolled back
+     */
+    @Override
+    public int[] executeBatch(java.util.List<MCEnginePremiumBatchOperation> operations) throws SQLException {
+        for (String rankType : MCEnginePremiumBatchExecutor.createdRankTypes(operations)) createPremiumRank(rankType);
+        try (Connection batch = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath())) {
+            try (Statement stmt = batch.createStatement()) {
+                // Wait for the shared connection's in-progress write instead of failing with SQLITE_BUSY.
+                stmt.execute("PRAGMA busy_timeout = 5000");
+            }
+            return MCEnginePremiumBatchExecutor.execute(batch, operations, this::batchSql, MCEnginePremiumSQLite::bindBatch);
+        }
+    }
+
+    /**
+     * Removes every holder of a rank type.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @return number of rows removed
+     */
+    @Override
+    public int resetRankType(String rankType) {
+        try (Statement stmt = connection.createStatement()) {
+            return stmt.executeUpdate("DELETE FROM " + tableName(rankType));
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to reset premium rank type " + rankType, e);
+        }
+        return 0;
+    }
+
+    /**
+     * Adds {@code delta} to every matching, non-expired holder in one {@code UPDATE}, clamped at 0.
+     *
+     * @param rankType  Rank type (e.g., vip, vvip)
+     * @param delta     amount to add (may be negative)
+     * @param predicate rank-range condition selecting the affected holders
+     * @return number of rows updated
+     */
+    @Override
+    public int adjustAll(String rankType, int delta, MCEnginePremiumRankPredicate predicate) {
+        String where = predicate.toSql();
+        String update = "UPDATE " + tableName(rankType) + " SET rank = MAX(rank + ?, 0)"
+                + " WHERE (expires_at IS NULL OR expires_at > ?)"
+                + (where.isEmpty() ? "" : " AND " + where);
+        try (var pstmt = connection.prepareStatement(update)) {
+            pstmt.setInt(1, delta);
+            pstmt.setLong(2, System.currentTimeMillis());
+            predicate.bind(pstmt, 3);
+            return pstmt.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to adjust the holders of premium rank type " + rankType, e);
+        }
+        return 0;
+    }
+
+    /**
+     * Sets or clears the expiry of a rank the player currently holds. A row whose expiry has
+     * already passed is left to the sweeper rather than revived with its old rank.
+     *
+     * @param uuid      Player UUID
+     * @param rankType  Rank type (e.g., vip, vvip)
+     * @param expiresAt expiry as epoch millis, or {@code <= 0} to make the rank permanent
+     * @return {@code true} if a row was updated
+     */
+    @Override
+    public boolean setPremiumRankExpiry(String uuid, String rankType, long expiresAt) {
+        String update = "UPDATE " + tableName(rankType) + " SET expires_at = ? WHERE uuid = ?"
+                + " AND (expires_at IS NULL OR expires_at > ?)";
+        try (var pstmt = connection.prepareStatement(update)) {
+            if (expiresAt > 0) pstmt.setLong(1, expiresAt);
+            else pstmt.setNull(1, Types.BIGINT);
+            pstmt.setString(2, uuid);
+            pstmt.setLong(3, System.currentTimeMillis());
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to set the premium rank expiry of " + uuid + " (" + rankType + ")", e);
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves the expiry of a rank row.
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @return expiry as epoch millis, 0 if permanent, or -1 if not found
+     */
+    @Override
+    public long getPremiumRankExpiry(String uuid, String rankType) {
+        String query = "SELECT expires_at FROM " + tableName(rankType) + " WHERE uuid = ?";
+        try (var pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, uuid);
+            try (var rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    long expiresAt = rs.getLong(1);
+                    return rs.wasNull() ? 0L : expiresAt;
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to read the premium rank expiry of " + uuid + " (" + rankType + ")", e);
+        }
+        return -1L;
+    }
+
+    /**
+     * Deletes a single rank row if its expiry has passed.
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param now      current epoch millis
+     * @return {@code true} if the row was removed
+     */
+    @Override
+    public boolean deleteExpiredPremiumRank(String uuid, String rankType, long now) {
+        String delete = "DELETE FROM " + tableName(rankType) + " WHERE uuid = ? AND " + EXPIRED;
+        try (var pstmt = connection.prepareStatement(delete)) {
+            pstmt.setString(1, uuid);
+            pstmt.setLong(2, now);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to delete the expired premium rank of " + uuid + " (" + rankType + ")", e);
+        }
+        return false;
+    }
+
+    /**
+     * Deletes up to {@code limit} expired rows, selected through the {@code expires_at} index.
+     * SQLite lacks {@code DELETE ... LIMIT} by default, so the batch is chosen by a sub-select.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param now      current epoch millis
+     * @param limit    maximum rows to delete
+     * @return UUIDs of the removed rows
+     */
+    @Override
+    public java.util.List<String> deleteExpiredPremiumRanks(String rankType, long now, int limit) {
+        java.util.List<String> removed = new java.util.ArrayList<>();
+        String table = tableName(rankType);
+        String delete = "DELETE FROM " + table + " WHERE uuid IN ("
+                + "SELECT uuid FROM " + table + " WHERE " + EXPIRED + " LIMIT ?) RETURNING uuid";
+        try (var pstmt = connection.prepareStatement(delete)) {
+            pstmt.setLong(1, now);
+            pstmt.setInt(2, limit);
+            try (var rs = pstmt.executeQuery()) {
+                while (rs.next()) removed.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to delete expired premium ranks (" + rankType + ")", e);
+        }
+        return removed;
+    }
+
+    /**
+     * Returns a page of raw rows ordered by UUID, seeking on the primary key instead of using {@code OFFSET}.
+     *
+     * @param rankType  Rank type (e.g., vip, vvip)
+     * @param afterUuid only rows with a greater UUID are returned; {@code null} for the first page
+     * @param limit     maximum number of rows
+     * @return rows in UUID order, including expired ones
+     */
+    @Override
+    public java.util.List<MCEnginePremiumRankRow> exportPremiumRanks(String rankType, String afterUuid, int limit) {
+        java.util.List<MCEnginePremiumRankRow> out = new java.util.ArrayList<>();
+        String query = "SELECT uuid, rank, expires_at FROM " + tableName(rankType)
+                + " WHERE uuid > ? ORDER BY uuid LIMIT ?";
+        try (var pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, afterUuid == null ? "" : afterUuid);
+            pstmt.setInt(2, limit);
+            try (var rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    out.add(new MCEnginePremiumRankRow(rs.getString("uuid"), rs.getInt("rank"), rs.getLong("expires_at")));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to export premium ranks (" + rankType + ")", e);
+        }
+        return out;
+    }
+
+    /**
+     * Upserts rows in one JDBC batch, overwriting rank and expiry.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param rows     rows to write
+     */
+    @Override
+    public void importPremiumRanks(String rankType, java.util.List<MCEnginePremiumRankRow> rows) {
+        if (rows.isEmpty()) return;
+        String upsert = "INSERT INTO " + tableName(rankType) + " (uuid, rank, expires_at) VALUES (?, ?, ?) " +
+                        "ON CONFLICT(uuid) DO UPDATE SET rank = excluded.rank, expires_at = excluded.expires_at";
+        try (var pstmt = connection.prepareStatement(upsert)) {
+            for (MCEnginePremiumRankRow row : rows) {
+                pstmt.setString(1, row.uuid());
+                pstmt.setInt(2, row.rank());
+                if (row.expiresAt() > 0) pstmt.setLong(3, row.expiresAt());
+                else pstmt.setNull(3, Types.BIGINT);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to import premium ranks (" + rankType + ")", e);
+        }
+    }
+
+    /**
+     * Creates the {@code premium_rank_history} audit table with a time index for pruning
+     * and a {@code (uuid, rank_type, id)} index for keyset-paginated player queries.
+     */
+    @Override
+    public void createRankHistory() {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS premium_rank_history (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    uuid TEXT NULL,
+                    rank_type TEXT NOT NULL,
+                    action TEXT NOT NULL,
+                    amount INTEGER NOT NULL,
+                    new_rank INTEGER NULL,
+                    changed_at INTEGER NOT NULL
+                );
+            """);
+            // Tables created before the resulting rank was recorded lack the column; add it in place.
+            if (!columnExists(MCEnginePremiumRankHistoryEntry.TABLE, "new_rank")) {
+                stmt.executeUpdate("ALTER TABLE premium_rank_history ADD COLUMN new_rank INTEGER NULL");
+            }
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_premium_rank_history_changed_at "
+                    + "ON premium_rank_history (changed_at)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_premium_rank_history_player "
+                    + "ON premium_rank_history (uuid, rank_type, id)");
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to create the premium rank history table", e);
+        }
+    }
+
+    /**
+     * Appends history entries in one JDBC batch.
+     *
+     * @param entries entries to insert
+     */
+    @Override
+    public boolean insertRankHistory(java.util.List<MCEnginePremiumRankHistoryEntry> entries) {
+        if (entries.isEmpty()) return true;
+        String insert = "INSERT INTO premium_rank_history (uuid, rank_type, action, amount, new_rank, changed_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
+        try (var ps = connection.prepareStatement(insert)) {
+            for (MCEnginePremiumRankHistoryEntry entry : entries) {
+                if (entry.uuid() != null) ps.setString(1, entry.uuid());
+                else ps.setNull(1, Types.VARCHAR);
+                ps.setString(2, entry.rankType());
+                ps.setString(3, entry.action());
+                ps.setLong(4, entry.amount());
+                if (entry.rank() != null) ps.setInt(5, entry.rank());
+                else ps.setNull(5, Types.INTEGER);
+                ps.setLong(6, entry.changedAt());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            return true;
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to write " + entries.size() + " premium rank history entries", e);
+        }
+        return false;
+    }
+
+    /**
+     * Returns a page of a player's history, newest first, seeking by id instead of using {@code OFFSET}.
+     * The player's entries and the rank-type-wide entries ({@code uuid IS NULL}) are each read
+     * through the {@code (uuid, rank_type, id)} index and merged.
+     *
+     * @param uuid     Player UUID
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param beforeId only entries with a lower id are returned; {@code <= 0} for the newest page
+     * @param limit    maximum number of entries
+     * @return history entries, never null
+     */
+    @Override
+    public java.util.List<MCEnginePremiumRankHistoryEntry> getRankHistory(String uuid, String rankType, long beforeId, int limit) {
+        java.util.List<MCEnginePremiumRankHistoryEntry> out = new java.util.ArrayList<>();
+        String query = "SELECT * FROM (SELECT " + HISTORY_COLUMNS + " FROM premium_rank_history " +
+                       "WHERE uuid = ? AND rank_type = ? AND id < ? ORDER BY id DESC LIMIT ?) " +
+                       "UNION ALL SELECT * FROM (SELECT " + HISTORY_COLUMNS + " FROM premium_rank_history " +
+                       "WHERE uuid IS NULL AND rank_type = ? AND id < ? ORDER BY id DESC LIMIT ?) " +
+                       "ORDER BY id DESC LIMIT ?";
+        try (var ps = connection.prepareStatement(query)) {
+            long before = beforeId > 0 ? beforeId : Long.MAX_VALUE;
+            ps.setString(1, uuid);
+            ps.setString(2, rankType.toLowerCase(Locale.ROOT));
+            ps.setLong(3, before);
+            ps.setInt(4, limit);
+            ps.setString(5, rankType.toLowerCase(Locale.ROOT));
+            ps.setLong(6, before);
+            ps.setInt(7, limit);
+            ps.setInt(8, limit);
+            try (var rs = ps.executeQuery()) {
+                while (rs.next()) out.add(historyEntry(rs));
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to read the premium rank history of " + uuid + " (" + rankType + ")", e);
+        }
+        return out;
+    }
+
+    /**
+     * Returns a page of the whole audit log in id order.
+     *
+     * @param afterId only entries with a greater id are returned; {@code 0} for the first page
+     * @param limit   maximum number of entries
+     * @return history entries in id order
+     */
+    @Override
+    public java.util.List<MCEnginePremiumRankHistoryEntry> exportRankHistory(long afterId, int limit) {
+        java.util.List<MCEnginePremiumRankHistoryEntry> out = new java.util.ArrayList<>();
+        String query = "SELECT " + HISTORY_COLUMNS + " FROM premium_rank_history WHERE id > ? ORDER BY id LIMIT ?";
+        try (var ps = connection.prepareStatement(query)) {
+            ps.setLong(1, afterId);
+            ps.setInt(2, limit);
+            try (var rs = ps.executeQuery()) {
+                while (rs.next()) out.add(historyEntry(rs));
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to export premium rank history", e);
+        }
+        return out;
+    }
+
+    /**
+     * Deletes up to {@code limit} history entries older than {@code olderThan} through the time index.
+     *
+     * @param olderThan cutoff as epoch millis
+     * @param limit     maximum rows to delete
+     * @return number of rows removed
+     */
+    @Override
+    public int pruneRankHistory(long olderThan, int limit) {
+        String delete = "DELETE FROM premium_rank_history WHERE id IN ("
+                + "SELECT id FROM premium_rank_history WHERE changed_at < ? LIMIT ?)";
+        try (var ps = connection.prepareStatement(delete)) {
+            ps.setLong(1, olderThan);
+            ps.setInt(2, limit);
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to prune premium rank history", e);
+        }
+        return 0;
+    }
+
+    /**
+     * Creates the player name table and its {@code (name_lower, last_seen)} index if missing.
+     */
+    @Override
+    public void createPlayerNames() {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS premium_player_name (
+                    uuid TEXT PRIMARY KEY,
+                    name TEXT NOT NULL,
+                    name_lower TEXT NOT NULL,
+                    last_seen INTEGER NOT NULL
+                );
+            """);
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_premium_player_name_lower "
+                    + "ON premium_player_name (name_lower, last_seen)");
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to create the premium player name table", e);
+        }
+    }
+
+    /**
+     * Records a player's current name with a single upsert.
+     *
+     * @param uuid     Player UUID
+     * @param name     current name
+     * @param lastSeen login time as epoch millis
+     */
+    @Override
+    public void upsertPlayerName(String uuid, String name, long lastSeen) {
+        String upsert = "INSERT INTO premium_player_name (uuid, name, name_lower, last_seen) VALUES (?, ?, ?, ?) "
+                + "ON CONFLICT(uuid) DO UPDATE SET name = excluded.name, name_lower = excluded.name_lower, "
+                + "last_seen = excluded.last_seen";
+        try (var ps = connection.prepareStatement(upsert)) {
+            ps.setString(1, uuid);
+            ps.setString(2, name);
+            ps.setString(3, MCEnginePremiumPlayerName.lowerName(name));
+            ps.setLong(4, lastSeen);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to record the name of " + uuid, e);
+        }
+    }
+
+    /**
+     * Finds the player who most recently logged in as {@code name}, ignoring case.
+     *
+     * @param name player name
+     * @return the player, or {@code null} if the name was never seen
+     */
+    @Override
+    public MCEnginePremiumPlayerName findPlayerName(String name) {
+        String query = "SELECT uuid, name, last_seen FROM premium_player_name WHERE name_lower = ? "
+                + "ORDER BY last_seen DESC LIMIT 1";
+        try (var ps = connection.prepareStatement(query)) {
+            ps.setString(1, MCEnginePremiumPlayerName.lowerName(name));
+            try (var rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new MCEnginePremiumPlayerName(rs.getString("uuid"), rs.getString("name"), rs.getLong("last_seen"));
                 }
-            } else {
-                // Insert new
-                try (var insertStmt = connection.prepareStatement(insertQuery)) {
-                    insertStmt.setString(1, uuid);
-                    insertStmt.setInt(2, 1);
-                    insertStmt.executeUpdate();
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to look up player " + name, e);
+        }
+        return null;
+    }
+
+    /**
+     * Lists known players whose name starts with {@code prefix} with a range scan on the name index.
+     *
+     * @param prefix name prefix, matched ignoring case
+     * @param limit  maximum number of players
+     * @return matching players in name order
+     */
+    @Override
+    public java.util.List<MCEnginePremiumPlayerName> findPlayerNames(String prefix, int limit) {
+        java.util.List<MCEnginePremiumPlayerName> out = new java.util.ArrayList<>();
+        String query = "SELECT uuid, name, last_seen FROM premium_player_name WHERE name_lower >= ? AND name_lower < ? "
+                + "ORDER BY name_lower, last_seen DESC LIMIT ?";
+        String lower = MCEnginePremiumPlayerName.lowerName(prefix);
+        try (var ps = connection.prepareStatement(query)) {
+            ps.setString(1, lower);
+            ps.setString(2, MCEnginePremiumPlayerName.prefixEnd(lower));
+            ps.setInt(3, limit);
+            try (var rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.add(new MCEnginePremiumPlayerName(rs.getString("uuid"), rs.getString("name"), rs.getLong("last_seen")));
                 }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            plugin.getLogger().log(Level.WARNING, "Failed to look up players named " + prefix + "*", e);
+        }
+        return out;
+    }
+
+    /**
+     * Looks up the names of many players with chunked {@code IN} lists on the primary key.
+     *
+     * @param uuids Player UUIDs
+     * @return name per UUID of players in the index
+     */
+    @Override
+    public java.util.Map<String, String> getPlayerNames(java.util.Collection<String> uuids) {
+        java.util.Map<String, String> out = new java.util.HashMap<>();
+        java.util.List<String> all = new java.util.ArrayList<>(uuids);
+        for (int from = 0; from < all.size(); from += IN_CHUNK) {
+            java.util.List<String> chunk = all.subList(from, Math.min(from + IN_CHUNK, all.size()));
+            String query = "SELECT uuid, name FROM premium_player_name WHERE uuid IN ("
+                    + String.join(", ", java.util.Collections.nCopies(chunk.size(), "?")) + ")";
+            try (var ps = connection.prepareStatement(query)) {
+                int i = 1;
+                for (String uuid : chunk) ps.setString(i++, uuid);
+                try (var rs = ps.executeQuery()) {
+                    while (rs.next()) out.put(rs.getString("uuid"), rs.getString("name"));
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to read player names", e);
+            }
         }
+        return out;
     }
 
     /**
@@ -167,7 +957,128 @@ public class MCEnginePremiumSQLite implements IMCEnginePremiumDB {
             if (connection != null && !connection.isClosed())
                 connection.close();
         } catch (SQLException e) {
-            e.printStackTrace();
+            plugin.getLogger().log(Level.WARNING, "Failed to close the premium database connection", e);
+        }
+    }
+
+    /**
+     * Runs a single-row upsert ending in {@link #RETURNING_RANK} and returns the resulting rank.
+     */
+    private static int returnedRank(PreparedStatement pstmt) throws SQLException {
+        try (var rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : -1;
+        }
+    }
+
+    /**
+     * Reads the current row of a {@link #HISTORY_COLUMNS} query.
+     */
+    private static MCEnginePremiumRankHistoryEntry historyEntry(java.sql.ResultSet rs) throws SQLException {
+        int newRank = rs.getInt("new_rank");
+        Integer rank = rs.wasNull() ? null : newRank;
+        return new MCEnginePremiumRankHistoryEntry(rs.getLong("id"), rs.getString("uuid"),
+                rs.getString("rank_type"), rs.getString("action"), rs.getLong("amount"),
+                rank, rs.getLong("changed_at"));
+    }
+
+    /**
+     * Checks whether {@code table} has a column named {@code column}.
+     */
+    private boolean columnExists(String table, String column) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             var rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("name"))) return true;
+            }
         }
+        return false;
+    }
+
+    /**
+     * Upsert setting a rank to {@code ?}; binds uuid, rank, now.
+     */
+    private static String setUpsert(String table) {
+        return "INSERT INTO " + table + " (uuid, rank) VALUES (?, ?) " +
+               "ON CONFLICT(uuid) DO UPDATE SET rank = excluded.rank, " +
+               "expires_at = CASE WHEN " + EXPIRED + " THEN NULL ELSE expires_at END";
+    }
+
+    /**
+     * Upsert adding {@code ?} to a rank, clamped at 0; binds uuid, delta, now, delta, now.
+     */
+    private static String addUpsert(String table) {
+        return "INSERT INTO " + table + " (uuid, rank) VALUES (?, MAX(?, 0)) " +
+               "ON CONFLICT(uuid) DO UPDATE SET " +
+               "rank = CASE WHEN " + EXPIRED + " THEN excluded.rank ELSE MAX(rank + ?, 0) END, " +
+               "expires_at = CASE WHEN " + EXPIRED + " THEN NULL ELSE expires_at END";
+    }
+
+    /**
+     * Upsert raising a rank by 1, restarting expired rows at 1; binds uuid, now, now.
+     */
+    private static String upgradeUpsert(String table) {
+        return "INSERT INTO " + table + " (uuid, rank) VALUES (?, 1) " +
+               "ON CONFLICT(uuid) DO UPDATE SET " +
+               "rank = CASE WHEN " + EXPIRED + " THEN 1 ELSE rank + 1 END, " +
+               "expires_at = CASE WHEN " + EXPIRED + " THEN NULL ELSE expires_at END";
+    }
+
+    /**
+     * Returns the statement applying a queued row write.
+     */
+    private String batchSql(MCEnginePremiumBatchOperation operation) {
+        String table = tableName(operation.rankType());
+        return switch (operation.type()) {
+            case UPGRADE -> upgradeUpsert(table);
+            case SET -> setUpsert(table);
+            case ADD -> addUpsert(table);
+            case EXPIRY -> "UPDATE " + table + " SET expires_at = ? WHERE uuid = ?"
+                    + " AND (expires_at IS NULL OR expires_at > ?)";
+            case CREATE -> throw new IllegalArgumentException("CREATE is not a row write");
+        };
+    }
+
+    /**
+     * Binds a queued row write to the statement returned by {@link #batchSql}.
+     */
+    private static void bindBatch(PreparedStatement pstmt, MCEnginePremiumBatchOperation operation, long now) throws SQLException {
+        switch (operation.type()) {
+            case UPGRADE -> {
+                pstmt.setString(1, operation.uuid());
+                pstmt.setLong(2, now);
+                pstmt.setLong(3, now);
+            }
+            case SET -> {
+                pstmt.setString(1, operation.uuid());
+                pstmt.setInt(2, (int) operation.value());
+                pstmt.setLong(3, now);
+            }
+            case ADD -> {
+                pstmt.setString(1, operation.uuid());
+                pstmt.setInt(2, (int) operation.value());
+                pstmt.setLong(3, now);
+                pstmt.setInt(4, (int) operation.value());
+                pstmt.setLong(5, now);
+            }
+            case EXPIRY -> {
+                if (operation.value() > 0) pstmt.setLong(1, operation.value());
+                else pstmt.setNull(1, Types.BIGINT);
+                pstmt.setString(2, operation.uuid());
+                pstmt.setLong(3, now);
+            }
+            case CREATE -> throw new IllegalArgumentException("CREATE is not a row write");
+        }
+    }
+
+    /**
+     * Builds a safe, lowercased table name for a rank type.
+     * Prevents SQL injection through identifiers by restricting to [a-z0-9_].
+     * Final form: premium_rank_{sanitizedRank}
+     */
+    private String tableName(String rankType) {
+        String safe = (rankType == null ? "default" : rankType)
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9_]", "_");
+        return "premium_rank_" + safe;
     }
 }
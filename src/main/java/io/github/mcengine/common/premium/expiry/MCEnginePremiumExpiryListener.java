@@ -0,0 +1,35 @@
+package io.github.mcengine.common.premium.expiry;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Keeps the expiry timing wheel in sync with the set of online players.
+ */
+public class MCEnginePremiumExpiryListener implements Listener {
+
+    /** Expiry manager owning the timing wheel. */
+    private final MCEnginePremiumExpiryManager manager;
+
+    /**
+     * @param manager expiry manager to notify
+     */
+    public MCEnginePremiumExpiryListener(MCEnginePremiumExpiryManager manager) {
+        this.manager = manager;
+    }
+
+    /** Loads the joining player's time-limited ranks off the main thread. */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        manager.loadPlayer(event.getPlayer().getUniqueId().toString());
+    }
+
+    /** Drops the leaving player's entries; the sweeper handles them from now on. */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        manager.unloadPlayer(event.getPlayer().getUniqueId().toString());
+    }
+}
@@ -0,0 +1,193 @@
+package io.github.mcengine.common.premium.expiry;
+
+import io.github.mcengine.common.premium.MCEnginePremiumCommon;
+import io.github.mcengine.common.premium.database.IMCEnginePremiumDB;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Removes expired premium rank rows without full table scans or main-thread work.
+ *
+ * <p>Two mechanisms cooperate:</p>
+ * <ul>
+ *   <li>An in-memory {@link MCEnginePremiumTimingWheel} tracks time-limited ranks of
+ *       <em>online</em> players and deletes each row as soon as it expires.</li>
+ *   <li>A periodic asynchronous sweeper deletes the remaining expired rows (offline players,
+ *       other servers) in small batches through the {@code expires_at} index.</li>
+ * </ul>
+ *
+ * <p>Config paths:</p>
+ * <ul>
+ *   <li>{@code expiry.enabled} (default: true)</li>
+ *   <li>{@code expiry.sweep-interval-seconds} (default: 60)</li>
+ *   <li>{@code expiry.batch-size} (default: 500)</li>
+ *   <li>{@code expiry.max-batches-per-sweep} (default: 20)</li>
+ *   <li>{@code expiry.wheel-tick-millis} (default: 1000)</li>
+ *   <li>{@code expiry.wheel-size} (default: 512)</li>
+ * </ul>
+ */
+public class MCEnginePremiumExpiryManager {
+
+    /** Key of a tracked rank row. */
+    private record Entry(String uuid, String rankType) {}
+
+    /** The Premium common API providing the active database. */
+    private final MCEnginePremiumCommon api;
+
+    /** Owning plugin, used for scheduling. */
+    private final Plugin plugin;
+
+    /** Deadlines of time-limited ranks held by online players. */
+    private final MCEnginePremiumTimingWheel<Entry> wheel;
+
+    /** Session number per online player; a load that finishes after a quit or rejoin sees it changed. */
+    private final Map<String, Long> sessions = new ConcurrentHashMap<>();
+
+    /** Source of session numbers. */
+    private final AtomicLong nextSession = new AtomicLong();
+
+    /** Wheel tick length in milliseconds. */
+    private final long tickMillis;
+
+    /** Interval between sweeps in seconds. */
+    private final long sweepIntervalSeconds;
+
+    /** Maximum rows deleted per statement. */
+    private final int batchSize;
+
+    /** Maximum batches per rank type per sweep, bounding the work of one run. */
+    private final int maxBatchesPerSweep;
+
+    /**
+     * Creates the expiry manager from the plugin configuration.
+     *
+     * @param api the Premium common API
+     */
+    public MCEnginePremiumExpiryManager(MCEnginePremiumCommon api) {
+        this.api = api;
+        this.plugin = api.getPlugin();
+        this.tickMillis = Math.max(50L, plugin.getConfig().getLong("expiry.wheel-tick-millis", 1000L));
+        this.wheel = new MCEnginePremiumTimingWheel<>(tickMillis,
+                Math.max(1, plugin.getConfig().getInt("expiry.wheel-size", 512)));
+        this.sweepIntervalSeconds = Math.max(1L, plugin.getConfig().getLong("expiry.sweep-interval-seconds", 60L));
+        this.batchSize = Math.max(1, plugin.getConfig().getInt("expiry.batch-size", 500));
+        this.maxBatchesPerSweep = Math.max(1, plugin.getConfig().getInt("expiry.max-batches-per-sweep", 20));
+    }
+
+    /**
+     * Registers the join/quit listener and starts the wheel and sweeper tasks. Players who
+     * joined while the database was still starting are loaded asynchronously.
+     */
+    public void start() {
+        Bukkit.getPluginManager().registerEvents(new MCEnginePremiumExpiryListener(this), plugin);
+        for (Player player : Bukkit.getOnlinePlayers()) loadPlayer(player.getUniqueId().toString());
+
+        long wheelTicks = Math.max(1L, tickMillis / 50L);
+        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::advanceWheel, wheelTicks, wheelTicks);
+
+        long sweepTicks = sweepIntervalSeconds * 20L;
+        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::sweep, sweepTicks, sweepTicks);
+    }
+
+    /**
+     * Tracks a time-limited rank for an online player. Non-positive expiries untrack it.
+     *
+     * @param uuid      Player UUID
+     * @param rankType  Rank type (e.g., vip, vvip)
+     * @param expiresAt expiry as epoch millis, or {@code <= 0} if permanent
+     */
+    public void track(String uuid, String rankType, long expiresAt) {
+        Entry entry = new Entry(uuid, rankType.toLowerCase());
+        if (expiresAt > 0) wheel.schedule(entry, expiresAt);
+        else wheel.cancel(entry);
+    }
+
+    /**
+     * Starts a session for a player who came online and loads their time-limited ranks
+     * asynchronously with a single query.
+     *
+     * @param uuid Player UUID
+     */
+    public void loadPlayer(String uuid) {
+        long session = nextSession.incrementAndGet();
+        sessions.put(uuid, session);
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> load(uuid, session));
+    }
+
+    /**
+     * Tracks the time-limited ranks of a player unless the session ended meanwhile.
+     *
+     * @param uuid    Player UUID
+     * @param session session the load was started for
+     */
+    private void load(String uuid, long session) {
+        if (!Long.valueOf(session).equals(sessions.get(uuid))) return;
+        Map<String, Long> expiries = api.getDB().getAllPremiumRankExpiries(uuid);
+        if (!Long.valueOf(session).equals(sessions.get(uuid))) return;
+        expiries.forEach((rankType, expiresAt) -> {
+            if (expiresAt > 0) track(uuid, rankType, expiresAt);
+        });
+        // A quit racing with the loop may have cancelled before the entries were added.
+        if (!sessions.containsKey(uuid)) unloadPlayer(uuid);
+    }
+
+    /**
+     * Ends the player's session and stops tracking every rank of the player (e.g., on quit).
+     *
+     * @param uuid Player UUID
+     */
+    public void unloadPlayer(String uuid) {
+        sessions.remove(uuid);
+        wheel.cancelIf(entry -> entry.uuid().equals(uuid));
+    }
+
+    /**
+     * Deletes the rows of online players whose deadline has passed.
+     */
+    private void advanceWheel() {
+        long now = System.currentTimeMillis();
+        List<Entry> due = wheel.advance(now);
+        if (due.isEmpty()) return;
+        IMCEnginePremiumDB db = api.getDB();
+        for (Entry entry : due) {
+            if (db.deleteExpiredPremiumRank(entry.uuid(), entry.rankType(), now)) {
+                api.recordHistory(entry.uuid(), entry.rankType(), "expired", 1, -1);
+                markStatisticsStale(entry.rankType());
+            }
+        }
+    }
+
+    /**
+     * Deletes expired rows of every rank type in bounded batches.
+     */
+    private void sweep() {
+        IMCEnginePremiumDB db = api.getDB();
+        long now = System.currentTimeMillis();
+        for (String rankType : db.listAvailableRankTypes()) {
+            int removed = 0;
+            for (int batch = 0; batch < maxBatchesPerSweep; batch++) {
+                List<String> expired = db.deleteExpiredPremiumRanks(rankType, now, batchSize);
+                for (String uuid : expired) api.recordHistory(uuid, rankType, "expired", 1, -1);
+                removed += expired.size();
+                if (expired.size() < batchSize) break;
+            }
+            if (removed > 0) {
+                markStatisticsStale(rankType);
+                plugin.getLogger().fine("Removed " + removed + " expired premium rank(s) of type " + rankType);
+            }
+        }
+    }
+
+    /**
+     * Asks the statistics manager to recount a rank type whose expired holders were removed.
+     */
+    private void markStatisticsStale(String rankType) {
+        if (api.getStatisticsManager() != null) api.getStatisticsManager().markStale(rankType);
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.mcengine.common.premium.expiry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Hashed timing wheel holding deadlines for a bounded set of keys.
+ *
+ * <p>Each key lives in the slot of its deadline tick. Advancing the wheel only visits the
+ * slots of the ticks reached since the previous call, so the cost is proportional to
+ * the number of due keys instead of the total number of scheduled keys. Keys whose deadline
+ * lies more than one revolution ahead simply stay in their slot until a later pass.</p>
+ *
+ * <p>All methods are synchronized; the wheel is intended to be advanced from a single
+ * asynchronous task while join/quit handlers schedule and cancel keys.</p>
+ *
+ * @param <K> key type
+ */
+public final class MCEnginePremiumTimingWheel<K> {
+
+    /** Duration of one tick in milliseconds. */
+    private final long tickMillis;
+
+    /** Slots indexed by {@code tick % slots.length}; each maps key to deadline. */
+    private final Map<K, Long>[] slots;
+
+    /** Deadline per scheduled key, used for O(1) cancellation and rescheduling. */
+    private final Map<K, Long> deadlines = new HashMap<>();
+
+    /** Last tick processed by {@link #advance(long)}; {@code -1} before the first call. */
+    private long lastTick = -1;
+
+    /**
+     * Creates a timing wheel.
+     *
+     * @param tickMillis duration of one tick in milliseconds (must be positive)
+     * @param wheelSize  number of slots (must be positive)
+     */
+    @SuppressWarnings("unchecked")
+    public MCEnginePremiumTimingWheel(long tickMillis, int wheelSize) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMillis and wheelSize must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.slots = new Map[wheelSize];
+        for (int i = 0; i < wheelSize; i++) slots[i] = new HashMap<>();
+    }
+
+    /**
+     * Schedules (or reschedules) {@code key} to become due at {@code deadlineMillis}.
+     *
+     * @param key            key to schedule
+     * @param deadlineMillis deadline as epoch millis
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        // A deadline in an already processed tick goes into the last tick, which is revisited.
+        long effective = lastTick < 0 ? deadlineMillis : Math.max(deadlineMillis, lastTick * tickMillis);
+        deadlines.put(key, effective);
+        slotFor(effective).put(key, effective);
+    }
+
+    /**
+     * Removes {@code key} from the wheel if scheduled.
+     *
+     * @param key key to remove
+     */
+    public synchronized void cancel(K key) {
+        Long deadline = deadlines.remove(key);
+        if (deadline != null) slotFor(deadline).remove(key);
+    }
+
+    /**
+     * Removes every scheduled key matching {@code filter}.
+     *
+     * @param filter keys to remove
+     */
+    public synchronized void cancelIf(Predicate<K> filter) {
+        Iterator<Map.Entry<K, Long>> it = deadlines.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Long> e = it.next();
+            if (filter.test(e.getKey())) {
+                slotFor(e.getValue()).remove(e.getKey());
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Advances the wheel to {@code nowMillis} and removes every key that became due.
+     *
+     * @param nowMillis current epoch millis
+     * @return keys whose deadline is {@code <= nowMillis}
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        List<K> due = new ArrayList<>();
+        long currentTick = nowMillis / tickMillis;
+
+        // Revisit the last tick (it may hold entries that were not yet due) and every tick since,
+        // visiting each slot at most once even after a long pause; the first call visits all.
+        long from = lastTick < 0 ? currentTick - slots.length + 1 : Math.max(lastTick, currentTick - slots.length + 1);
+        for (long tick = from; tick <= currentTick; tick++) {
+            Iterator<Map.Entry<K, Long>> it = slots[(int) Math.floorMod(tick, (long) slots.length)].entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<K, Long> e = it.next();
+                if (e.getValue() <= nowMillis) {
+                    due.add(e.getKey());
+                    deadlines.remove(e.getKey());
+                    it.remove();
+                }
+            }
+        }
+        lastTick = currentTick;
+        return due;
+    }
+
+    /** Returns the number of scheduled keys. */
+    public synchronized int size() { return deadlines.size(); }
+
+    private Map<K, Long> slotFor(long deadlineMillis) {
+        return slots[(int) Math.floorMod(deadlineMillis / tickMillis, (long) slots.length)];
+    }
+}
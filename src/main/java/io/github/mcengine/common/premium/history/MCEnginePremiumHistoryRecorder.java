@@ -0,0 +1,157 @@
+package io.github.mcengine.common.premium.history;
+
+import io.github.mcengine.common.premium.MCEnginePremiumCommon;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankHistoryEntry;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Buffers rank changes and writes them to {@code premium_rank_history} in batched inserts.
+ *
+ * <p>{@link #record(String, String, String, long, Integer)} only enqueues, so write paths such as
+ * {@code upgradePremiumRank} pay no extra database round trip. An asynchronous task drains the
+ * queue periodically; a second task prunes entries older than the retention period in
+ * index-driven batches.</p>
+ *
+ * <p>Recording never blocks and entries are never dropped. Entries queued while more than
+ * {@code history.max-queue-size} are pending are counted and reported by the next flush, so a
+ * history table that falls behind shows up in the log instead of stalling rank writes. A batch
+ * the database rejects is put back at the head of the queue and retried on the next flush.</p>
+ *
+ * <p>Config paths:</p>
+ * <ul>
+ *   <li>{@code history.enabled} (default: false)</li>
+ *   <li>{@code history.flush-interval-ticks} (default: 40)</li>
+ *   <li>{@code history.batch-size} (default: 200)</li>
+ *   <li>{@code history.max-queue-size} (default: 10000) — pending entries beyond this are reported</li>
+ *   <li>{@code history.retention-days} (default: 365, {@code 0} keeps everything)</li>
+ *   <li>{@code history.prune-interval-minutes} (default: 60)</li>
+ * </ul>
+ */
+public class MCEnginePremiumHistoryRecorder {
+
+    /** The Premium common API providing the active database. */
+    private final MCEnginePremiumCommon api;
+
+    /** Owning plugin, used for scheduling and logging. */
+    private final Plugin plugin;
+
+    /** Pending entries, in insertion order. Unbounded so that failed batches can always be put back. */
+    private final LinkedBlockingDeque<MCEnginePremiumRankHistoryEntry> queue = new LinkedBlockingDeque<>();
+
+    /** Number of entries enqueued past {@link #maxQueueSize} since the last warning. */
+    private final AtomicInteger overflowed = new AtomicInteger();
+
+    /** Interval between flushes in server ticks. */
+    private final long flushIntervalTicks;
+
+    /** Maximum rows per insert batch and per prune statement. */
+    private final int batchSize;
+
+    /** Queue length above which newly recorded entries are counted as overflow. */
+    private final int maxQueueSize;
+
+    /** Retention in days; {@code 0} disables pruning. */
+    private final long retentionDays;
+
+    /** Interval between prune runs in minutes. */
+    private final long pruneIntervalMinutes;
+
+    /**
+     * Creates the recorder from the plugin configuration.
+     *
+     * @param api the Premium common API
+     */
+    public MCEnginePremiumHistoryRecorder(MCEnginePremiumCommon api) {
+        this.api = api;
+        this.plugin = api.getPlugin();
+        this.flushIntervalTicks = Math.max(1L, plugin.getConfig().getLong("history.flush-interval-ticks", 40L));
+        this.batchSize = Math.max(1, plugin.getConfig().getInt("history.batch-size", 200));
+        this.maxQueueSize = Math.max(batchSize, plugin.getConfig().getInt("history.max-queue-size", 10000));
+        this.retentionDays = Math.max(0L, plugin.getConfig().getLong("history.retention-days", 365L));
+        this.pruneIntervalMinutes = Math.max(1L, plugin.getConfig().getLong("history.prune-interval-minutes", 60L));
+    }
+
+    /**
+     * Starts the flush and prune tasks. The history table itself is created during the
+     * startup warmup of {@link MCEnginePremiumCommon}, before this is called.
+     */
+    public void start() {
+        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::flush, flushIntervalTicks, flushIntervalTicks);
+        if (retentionDays > 0) {
+            long pruneTicks = pruneIntervalMinutes * 60L * 20L;
+            Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::prune, pruneTicks, pruneTicks);
+        }
+    }
+
+    /**
+     * Enqueues a history entry without touching the database or waiting. An entry queued while
+     * the queue is full is kept and counted as overflow.
+     *
+     * @param uuid     affected player UUID, or {@code null} for operations on the whole rank type
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param action   operation name
+     * @param amount   operation argument
+     * @param rank     rank after the change, -1 if the rank was removed, or {@code null} if unknown or unchanged
+     */
+    public void record(String uuid, String rankType, String action, long amount, Integer rank) {
+        MCEnginePremiumRankHistoryEntry entry = new MCEnginePremiumRankHistoryEntry(0L, uuid,
+                rankType.toLowerCase(Locale.ROOT), action, amount, rank, System.currentTimeMillis());
+        if (queue.size() >= maxQueueSize) overflowed.incrementAndGet();
+        queue.offerLast(entry);
+    }
+
+    /**
+     * Writes all pending entries in batches of {@code history.batch-size}. A batch the database
+     * rejects is put back at the head of the queue and the flush stops until the next run.
+     * Safe to call from any thread.
+     *
+     * @return {@code true} if the queue was drained, {@code false} if a batch failed
+     */
+    public synchronized boolean flush() {
+        int over = overflowed.getAndSet(0);
+        if (over > 0) {
+            plugin.getLogger().warning("Premium rank history is falling behind; " + over
+                    + " entries were queued beyond history.max-queue-size (" + queue.size() + " pending).");
+        }
+        List<MCEnginePremiumRankHistoryEntry> batch = new ArrayList<>(batchSize);
+        while (true) {
+            batch.clear();
+            queue.drainTo(batch, batchSize);
+            if (batch.isEmpty()) return true;
+            if (!api.getDB().insertRankHistory(batch)) {
+                for (int i = batch.size() - 1; i >= 0; i--) queue.addFirst(batch.get(i));
+                plugin.getLogger().warning("Failed to write premium rank history; " + queue.size()
+                        + " entries kept for the next flush.");
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Writes the remaining entries once more and reports any that could not be written.
+     * Called when the plugin is disabled.
+     */
+    public void shutdown() {
+        if (!flush()) {
+            plugin.getLogger().severe("Premium rank history: " + queue.size() + " entries could not be written before shutdown.");
+        }
+    }
+
+    /**
+     * Deletes entries older than the retention period in bounded batches.
+     */
+    private void prune() {
+        long cutoff = System.currentTimeMillis() - retentionDays * 86_400_000L;
+        int removed;
+        do {
+            removed = api.getDB().pruneRankHistory(cutoff, batchSize);
+        } while (removed >= batchSize);
+    }
+}
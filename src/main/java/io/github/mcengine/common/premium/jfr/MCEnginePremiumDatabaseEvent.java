@@ -0,0 +1,45 @@
+package io.github.mcengine.common.premium.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder event emitted for each premium database operation.
+ *
+ * <p>Duration and thread are recorded by JFR itself. Stack traces are off by default (the
+ * operation name already identifies the call site) and can be enabled in the settings file.
+ * When the event is disabled, {@link #shouldCommit()} is false and the object is eliminated by
+ * escape analysis, so instrumented calls cost nothing outside a recording.</p>
+ */
+@Name(MCEnginePremiumDatabaseEvent.NAME)
+@Label("Premium Database Operation")
+@Description("A call into the MCEngine premium database backend")
+@Category({"MCEngine", "Premium"})
+@StackTrace(false)
+@Threshold("1 ms")
+public class MCEnginePremiumDatabaseEvent extends jdk.jfr.Event {
+
+    /** Event type name, as referenced by {@code jfr/mcengine-premium.jfc}. */
+    public static final String NAME = "io.github.mcengine.premium.DatabaseOperation";
+
+    /** {@code IMCEnginePremiumDB} method name. */
+    @Label("Operation")
+    String operation;
+
+    /** Rank type the operation touched, or {@code null} if none. */
+    @Label("Rank Type")
+    String rankType;
+
+    /** Backend type (sqlite, mysql, postgresql or sharded). */
+    @Label("Backend")
+    String backend;
+
+    /** Whether the call blocked the server's main thread. */
+    @Label("Main Thread")
+    @Description("True if the operation ran on the server main thread and therefore delayed the tick")
+    boolean mainThread;
+}
@@ -0,0 +1,442 @@
+package io.github.mcengine.common.premium.jfr;
+
+import io.github.mcengine.common.premium.database.IMCEnginePremiumDB;
+import io.github.mcengine.common.premium.database.MCEnginePremiumBatchOperation;
+import io.github.mcengine.common.premium.database.MCEnginePremiumHolderOrder;
+import io.github.mcengine.common.premium.database.MCEnginePremiumPlayerName;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankHistoryEntry;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankPredicate;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankRow;
+import org.bukkit.Bukkit;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decorator that emits a {@link MCEnginePremiumDatabaseEvent} around every call to the wrapped
+ * backend, so JFR recordings attribute database time to a named operation instead of anonymous
+ * socket reads. Event fields are only filled in when the event will actually be committed.
+ */
+public class MCEnginePremiumJfrDB implements IMCEnginePremiumDB {
+
+    /** The instrumented backend. */
+    private final IMCEnginePremiumDB delegate;
+
+    /** Backend type recorded in every event. */
+    private final String backend;
+
+    /**
+     * @param delegate the backend to instrument
+     * @param backend  backend type recorded in events (e.g., sqlite, mysql)
+     */
+    public MCEnginePremiumJfrDB(IMCEnginePremiumDB delegate, String backend) {
+        this.delegate = delegate;
+        this.backend = backend;
+    }
+
+    /**
+     * Returns the backend behind any JFR decorator, for callers that need the concrete type.
+     *
+     * @param db a backend, possibly decorated
+     * @return the undecorated backend
+     */
+    public static IMCEnginePremiumDB unwrap(IMCEnginePremiumDB db) {
+        return db instanceof MCEnginePremiumJfrDB jfr ? jfr.delegate : db;
+    }
+
+    @Override
+    public Connection getConnection() {
+        return delegate.getConnection();
+    }
+
+    @Override
+    public void createPremiumRank(String rankType) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            delegate.createPremiumRank(rankType);
+        } finally {
+            commit(event, "createPremiumRank", rankType);
+        }
+    }
+
+    @Override
+    public int getPremiumRank(String uuid, String rankType) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.getPremiumRank(uuid, rankType);
+        } finally {
+            commit(event, "getPremiumRank", rankType);
+        }
+    }
+
+    @Override
+    public Map<String, Integer> getPremiumRanks(String rankType, Collection<String> uuids) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.getPremiumRanks(rankType, uuids);
+        } finally {
+            commit(event, "getPremiumRanks", rankType);
+        }
+    }
+
+    @Override
+    public int[] executeBatch(List<MCEnginePremiumBatchOperation> operations) throws SQLException {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.executeBatch(operations);
+        } finally {
+            commit(event, "executeBatch", null);
+        }
+    }
+
+    @Override
+    public Map<String, Integer> getAllPremiumRanks(String uuid) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.getAllPremiumRanks(uuid);
+        } finally {
+            commit(event, "getAllPremiumRanks", null);
+        }
+    }
+
+    @Override
+    public Map<String, Long> getAllPremiumRankExpiries(String uuid) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.getAllPremiumRankExpiries(uuid);
+        } finally {
+            commit(event, "getAllPremiumRankExpiries", null);
+        }
+    }
+
+    @Override
+    public List<MCEnginePremiumRankRow> getTopPremiumRanks(String rankType, int limit) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.getTopPremiumRanks(rankType, limit);
+        } finally {
+            commit(event, "getTopPremiumRanks", rankType);
+        }
+    }
+
+    @Override
+    public List<MCEnginePremiumRankRow> listHolders(String rankType, MCEnginePremiumRankRow after, int limit,
+                                                    MCEnginePremiumHolderOrder order) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.listHolders(rankType, after, limit, order);
+        } finally {
+            commit(event, "listHolders", rankType);
+        }
+    }
+
+    @Override
+    public Map<Integer, Long> getRankDistribution(String rankType) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.getRankDistribution(rankType);
+        } finally {
+            commit(event, "getRankDistribution", rankType);
+        }
+    }
+
+    @Override
+    public void upgradePremiumRank(String uuid, String rankType) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            delegate.upgradePremiumRank(uuid, rankType);
+        } finally {
+            commit(event, "upgradePremiumRank", rankType);
+        }
+    }
+
+    @Override
+    public int upgradeAndGetPremiumRank(String uuid, String rankType) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.upgradeAndGetPremiumRank(uuid, rankType);
+        } finally {
+            commit(event, "upgradeAndGetPremiumRank", rankType);
+        }
+    }
+
+    @Override
+    public int setPremiumRank(String uuid, String rankType, int rank) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.setPremiumRank(uuid, rankType, rank);
+        } finally {
+            commit(event, "setPremiumRank", rankType);
+        }
+    }
+
+    @Override
+    public int addPremiumRank(String uuid, String rankType, int delta) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.addPremiumRank(uuid, rankType, delta);
+        } finally {
+            commit(event, "addPremiumRank", rankType);
+        }
+    }
+
+    @Override
+    public int resetRankType(String rankType) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.resetRankType(rankType);
+        } finally {
+            commit(event, "resetRankType", rankType);
+        }
+    }
+
+    @Override
+    public int adjustAll(String rankType, int delta, MCEnginePremiumRankPredicate predicate) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.adjustAll(rankType, delta, predicate);
+        } finally {
+            commit(event, "adjustAll", rankType);
+        }
+    }
+
+    @Override
+    public boolean setPremiumRankExpiry(String uuid, String rankType, long expiresAt) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.setPremiumRankExpiry(uuid, rankType, expiresAt);
+        } finally {
+            commit(event, "setPremiumRankExpiry", rankType);
+        }
+    }
+
+    @Override
+    public long getPremiumRankExpiry(String uuid, String rankType) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.getPremiumRankExpiry(uuid, rankType);
+        } finally {
+            commit(event, "getPremiumRankExpiry", rankType);
+        }
+    }
+
+    @Override
+    public boolean deleteExpiredPremiumRank(String uuid, String rankType, long now) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.deleteExpiredPremiumRank(uuid, rankType, now);
+        } finally {
+            commit(event, "deleteExpiredPremiumRank", rankType);
+        }
+    }
+
+    @Override
+    public List<String> deleteExpiredPremiumRanks(String rankType, long now, int limit) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.deleteExpiredPremiumRanks(rankType, now, limit);
+        } finally {
+            commit(event, "deleteExpiredPremiumRanks", rankType);
+        }
+    }
+
+    @Override
+    public List<MCEnginePremiumRankRow> exportPremiumRanks(String rankType, String afterUuid, int limit) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.exportPremiumRanks(rankType, afterUuid, limit);
+        } finally {
+            commit(event, "exportPremiumRanks", rankType);
+        }
+    }
+
+    @Override
+    public void importPremiumRanks(String rankType, List<MCEnginePremiumRankRow> rows) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            delegate.importPremiumRanks(rankType, rows);
+        } finally {
+            commit(event, "importPremiumRanks", rankType);
+        }
+    }
+
+    @Override
+    public void createRankHistory() {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            delegate.createRankHistory();
+        } finally {
+            commit(event, "createRankHistory", null);
+        }
+    }
+
+    @Override
+    public boolean insertRankHistory(List<MCEnginePremiumRankHistoryEntry> entries) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.insertRankHistory(entries);
+        } finally {
+            commit(event, "insertRankHistory", null);
+        }
+    }
+
+    @Override
+    public List<MCEnginePremiumRankHistoryEntry> getRankHistory(String uuid, String rankType, long beforeId, int limit) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.getRankHistory(uuid, rankType, beforeId, limit);
+        } finally {
+            commit(event, "getRankHistory", rankType);
+        }
+    }
+
+    @Override
+    public List<MCEnginePremiumRankHistoryEntry> exportRankHistory(long afterId, int limit) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.exportRankHistory(afterId, limit);
+        } finally {
+            commit(event, "exportRankHistory", null);
+        }
+    }
+
+    @Override
+    public int pruneRankHistory(long olderThan, int limit) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.pruneRankHistory(olderThan, limit);
+        } finally {
+            commit(event, "pruneRankHistory", null);
+        }
+    }
+
+    @Override
+    public void createPlayerNames() {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            delegate.createPlayerNames();
+        } finally {
+            commit(event, "createPlayerNames", null);
+        }
+    }
+
+    @Override
+    public void upsertPlayerName(String uuid, String name, long lastSeen) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            delegate.upsertPlayerName(uuid, name, lastSeen);
+        } finally {
+            commit(event, "upsertPlayerName", null);
+        }
+    }
+
+    @Override
+    public MCEnginePremiumPlayerName findPlayerName(String name) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.findPlayerName(name);
+        } finally {
+            commit(event, "findPlayerName", null);
+        }
+    }
+
+    @Override
+    public List<MCEnginePremiumPlayerName> findPlayerNames(String prefix, int limit) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.findPlayerNames(prefix, limit);
+        } finally {
+            commit(event, "findPlayerNames", null);
+        }
+    }
+
+    @Override
+    public Map<String, String> getPlayerNames(Collection<String> uuids) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.getPlayerNames(uuids);
+        } finally {
+            commit(event, "getPlayerNames", null);
+        }
+    }
+
+    @Override
+    public boolean rankTableExists(String rankType) {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.rankTableExists(rankType);
+        } finally {
+            commit(event, "rankTableExists", rankType);
+        }
+    }
+
+    @Override
+    public List<String> listAvailableRankTypes() {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            return delegate.listAvailableRankTypes();
+        } finally {
+            commit(event, "listAvailableRankTypes", null);
+        }
+    }
+
+    @Override
+    public void disConnection() {
+        MCEnginePremiumDatabaseEvent event = new MCEnginePremiumDatabaseEvent();
+        event.begin();
+        try {
+            delegate.disConnection();
+        } finally {
+            commit(event, "disConnection", null);
+        }
+    }
+
+    /**
+     * Ends the event and, if it passes the recording's settings, fills in its fields and commits it.
+     */
+    private void commit(MCEnginePremiumDatabaseEvent event, String operation, String rankType) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.operation = operation;
+        event.rankType = rankType;
+        event.backend = backend;
+        event.mainThread = Bukkit.isPrimaryThread();
+        event.commit();
+    }
+}
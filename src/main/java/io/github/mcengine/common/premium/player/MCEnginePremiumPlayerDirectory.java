@@ -0,0 +1,196 @@
+package io.github.mcengine.common.premium.player;
+
+import io.github.mcengine.common.premium.MCEnginePremiumCommon;
+import io.github.mcengine.common.premium.database.MCEnginePremiumPlayerName;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves player names, including offline players, without Mojang web lookups.
+ *
+ * <p>Every login upserts the player's name into the indexed {@code premium_player_name} table.
+ * {@link #resolve(String)} checks online players first and otherwise queries that table off the
+ * main thread. {@link #suggest(String)} serves offline-name tab completion from an in-memory
+ * cache of prefix queries and never blocks: a prefix that is not cached yet is loaded in the
+ * background and suggested from the next keystroke on.</p>
+ *
+ * <p>Names are learned as players log in, so players who have not joined since this index was
+ * introduced are unknown until they do.</p>
+ */
+public class MCEnginePremiumPlayerDirectory {
+
+    /** Names fetched per prefix query. */
+    private static final int SUGGESTION_LIMIT = 100;
+
+    /** Shortest prefix for which offline names are suggested; shorter prefixes match too many. */
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    /** Cached prefix queries kept, least recently used evicted first. */
+    private static final int MAX_CACHED_PREFIXES = 256;
+
+    /** Time after which a cached prefix query is reloaded, in milliseconds. */
+    private static final long SUGGESTION_TTL_MILLIS = 60_000L;
+
+    /**
+     * Result of one prefix query.
+     *
+     * @param names    matching names in name order
+     * @param complete {@code true} if every match fit in {@link #SUGGESTION_LIMIT}, so the result
+     *                 can also answer longer prefixes by filtering
+     * @param loadedAt epoch millis of the query
+     */
+    private record Suggestions(List<String> names, boolean complete, long loadedAt) {}
+
+    /** The Premium common API providing the active database. */
+    private final MCEnginePremiumCommon api;
+
+    /** Owning plugin, used for scheduling. */
+    private final Plugin plugin;
+
+    /** Prefix queries by lower-case prefix; access-ordered for LRU eviction. */
+    private final Map<String, Suggestions> suggestions = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Suggestions> eldest) {
+                    return size() > MAX_CACHED_PREFIXES;
+                }
+            });
+
+    /** Prefixes whose query is running, so each is loaded once. */
+    private final Set<String> loading = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param api the Premium common API
+     */
+    public MCEnginePremiumPlayerDirectory(MCEnginePremiumCommon api) {
+        this.api = api;
+        this.plugin = api.getPlugin();
+    }
+
+    /**
+     * Registers the login listener and records the players already online.
+     */
+    public void start() {
+        Bukkit.getPluginManager().registerEvents(new MCEnginePremiumPlayerListener(this), plugin);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            recordLogin(player.getUniqueId().toString(), player.getName());
+        }
+    }
+
+    /**
+     * Stores a player's current name off the main thread and drops cached prefix queries it
+     * would now appear in.
+     *
+     * @param uuid Player UUID
+     * @param name current name
+     */
+    public void recordLogin(String uuid, String name) {
+        long now = System.currentTimeMillis();
+        String lower = MCEnginePremiumPlayerName.lowerName(name);
+        synchronized (suggestions) {
+            suggestions.keySet().removeIf(lower::startsWith);
+        }
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> api.getDB().upsertPlayerName(uuid, name, now));
+    }
+
+    /**
+     * Resolves a player by name. Online players resolve immediately; anyone else is looked up in
+     * the name index off the main thread. Call from the main thread.
+     *
+     * @param name player name, ignoring case
+     * @return future of the player, completing with {@code null} if the name is unknown
+     */
+    public CompletableFuture<MCEnginePremiumPlayerName> resolve(String name) {
+        Player online = Bukkit.getPlayerExact(name);
+        if (online != null) {
+            return CompletableFuture.completedFuture(new MCEnginePremiumPlayerName(
+                    online.getUniqueId().toString(), online.getName(), System.currentTimeMillis()));
+        }
+        CompletableFuture<MCEnginePremiumPlayerName> result = new CompletableFuture<>();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                result.complete(api.getDB().findPlayerName(name));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Returns the last known names of players from the name index. Blocks on the database, so
+     * call it off the main thread; unlike {@code Bukkit.getOfflinePlayer} it is safe there.
+     *
+     * @param uuids Player UUIDs
+     * @return name per UUID; unknown players are absent
+     */
+    public Map<String, String> names(Collection<String> uuids) {
+        return api.getDB().getPlayerNames(uuids);
+    }
+
+    /**
+     * Returns known names starting with {@code prefix} from the cache, without blocking. If no
+     * cached query covers the prefix, one is started and an empty list is returned.
+     *
+     * @param prefix typed name prefix
+     * @return matching names in name order; empty for prefixes shorter than {@value #MIN_PREFIX_LENGTH}
+     */
+    public List<String> suggest(String prefix) {
+        String lower = MCEnginePremiumPlayerName.lowerName(prefix);
+        if (lower.length() < MIN_PREFIX_LENGTH) return List.of();
+        Suggestions cached = cached(lower);
+        if (cached == null) {
+            load(lower);
+            return List.of();
+        }
+        List<String> out = new ArrayList<>();
+        for (String name : cached.names()) {
+            if (MCEnginePremiumPlayerName.lowerName(name).startsWith(lower)) out.add(name);
+        }
+        return out;
+    }
+
+    /**
+     * Returns the fresh cached query for {@code lower}, or for a shorter prefix whose result was
+     * complete; {@code null} if there is none.
+     */
+    private Suggestions cached(String lower) {
+        long now = System.currentTimeMillis();
+        for (int length = lower.length(); length >= MIN_PREFIX_LENGTH; length--) {
+            Suggestions entry = suggestions.get(lower.substring(0, length));
+            if (entry == null || now - entry.loadedAt() >= SUGGESTION_TTL_MILLIS) continue;
+            if (length == lower.length() || entry.complete()) return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Queries the names starting with {@code lower} in the background and caches the result.
+     */
+    private void load(String lower) {
+        if (!api.isReady() || !loading.add(lower)) return;
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                List<MCEnginePremiumPlayerName> players = api.getDB().findPlayerNames(lower, SUGGESTION_LIMIT + 1);
+                Set<String> names = new LinkedHashSet<>();
+                for (int i = 0; i < Math.min(players.size(), SUGGESTION_LIMIT); i++) names.add(players.get(i).name());
+                suggestions.put(lower, new Suggestions(List.copyOf(names), players.size() <= SUGGESTION_LIMIT,
+                        System.currentTimeMillis()));
+            } finally {
+                loading.remove(lower);
+            }
+        });
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.mcengine.common.premium.player;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+
+/**
+ * Records the name of every joining player in the player directory.
+ */
+public class MCEnginePremiumPlayerListener implements Listener {
+
+    /** Directory to update. */
+    private final MCEnginePremiumPlayerDirectory directory;
+
+    /**
+     * @param directory player directory to notify
+     */
+    public MCEnginePremiumPlayerListener(MCEnginePremiumPlayerDirectory directory) {
+        this.directory = directory;
+    }
+
+    /** Stores the joining player's name off the main thread. */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        directory.recordLogin(player.getUniqueId().toString(), player.getName());
+    }
+}
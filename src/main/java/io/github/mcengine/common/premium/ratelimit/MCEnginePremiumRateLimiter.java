@@ -0,0 +1,145 @@
+package io.github.mcengine.common.premium.ratelimit;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token-bucket rate limiter for {@code /premium} subcommands, keyed by player and subcommand.
+ *
+ * <p>Each bucket holds up to {@code capacity} tokens and regains {@code refill-per-second} tokens
+ * per second; a command consumes one token. Only players are limited; the console and holders of
+ * {@value #PERM_BYPASS} are never throttled. Buckets that have refilled completely carry no state
+ * and are dropped by a periodic cleanup.</p>
+ *
+ * <p>Config paths:</p>
+ * <ul>
+ *   <li>{@code ratelimit.enabled} (default: true)</li>
+ *   <li>{@code ratelimit.default.capacity} (default: 5)</li>
+ *   <li>{@code ratelimit.default.refill-per-second} (default: 1.0)</li>
+ *   <li>{@code ratelimit.commands.<subcommand>.capacity} / {@code .refill-per-second} — per-subcommand
+ *       overrides; a capacity of {@code 0} disables limiting for that subcommand</li>
+ * </ul>
+ */
+public class MCEnginePremiumRateLimiter {
+
+    /** Permission node: exempts the sender from rate limiting. */
+    public static final String PERM_BYPASS = "mcengine.premium.ratelimit.bypass";
+
+    /** Interval between cleanups of idle buckets, in server ticks (one minute). */
+    private static final long CLEANUP_PERIOD_TICKS = 60L * 20L;
+
+    /** Capacity and refill rate of a bucket. */
+    private record Limit(double capacity, double refillPerSecond) {}
+
+    /** Tokens available to one player for one subcommand. */
+    private static final class Bucket {
+        /** Limit this bucket follows. */
+        final Limit limit;
+        /** Current tokens. */
+        double tokens;
+        /** Last refill time in nanoseconds. */
+        long refilledAt;
+
+        Bucket(Limit limit, long now) {
+            this.limit = limit;
+            this.tokens = limit.capacity();
+            this.refilledAt = now;
+        }
+
+        /**
+         * Takes a token if one is available.
+         *
+         * @return 0 if a token was taken, otherwise milliseconds until the next token
+         */
+        synchronized long tryAcquire(long now) {
+            refill(now);
+            if (tokens >= 1D) {
+                tokens -= 1D;
+                return 0L;
+            }
+            if (limit.refillPerSecond() <= 0D) return Long.MAX_VALUE;
+            return Math.max(1L, (long) Math.ceil((1D - tokens) / limit.refillPerSecond() * 1000D));
+        }
+
+        /** Returns {@code true} once the bucket is full again, i.e. indistinguishable from a new one. */
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= limit.capacity();
+        }
+
+        private void refill(long now) {
+            double elapsedSeconds = (now - refilledAt) / 1_000_000_000D;
+            tokens = Math.min(limit.capacity(), tokens + elapsedSeconds * limit.refillPerSecond());
+            refilledAt = now;
+        }
+    }
+
+    /** Whether limiting is enabled at all. */
+    private final boolean enabled;
+
+    /** Limit used for subcommands without an override. */
+    private final Limit defaultLimit;
+
+    /** Per-subcommand overrides. */
+    private final Map<String, Limit> limits = new HashMap<>();
+
+    /** Buckets keyed by {@code uuid:subcommand}. */
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the limiter from the plugin configuration and starts the idle-bucket cleanup.
+     *
+     * @param plugin owning plugin
+     */
+    public MCEnginePremiumRateLimiter(Plugin plugin) {
+        this.enabled = plugin.getConfig().getBoolean("ratelimit.enabled", true);
+        this.defaultLimit = readLimit(plugin, "ratelimit.default", new Limit(5D, 1D));
+        ConfigurationSection commands = plugin.getConfig().getConfigurationSection("ratelimit.commands");
+        if (commands != null) {
+            for (String sub : commands.getKeys(false)) {
+                limits.put(sub.toLowerCase(Locale.ROOT), readLimit(plugin, "ratelimit.commands." + sub, defaultLimit));
+            }
+        }
+        if (enabled) {
+            Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::cleanup, CLEANUP_PERIOD_TICKS, CLEANUP_PERIOD_TICKS);
+        }
+    }
+
+    /**
+     * Consumes a token for {@code subcommand} on behalf of {@code sender}.
+     *
+     * @param sender     command sender
+     * @param subcommand lowercased subcommand
+     * @return 0 if the command may run, otherwise milliseconds until it may be retried
+     */
+    public long tryAcquire(CommandSender sender, String subcommand) {
+        if (!enabled || !(sender instanceof Player player) || sender.hasPermission(PERM_BYPASS)) return 0L;
+        Limit limit = limits.getOrDefault(subcommand, defaultLimit);
+        if (limit.capacity() <= 0D) return 0L;
+        long now = System.nanoTime();
+        Bucket bucket = buckets.computeIfAbsent(player.getUniqueId() + ":" + subcommand, key -> new Bucket(limit, now));
+        return bucket.tryAcquire(now);
+    }
+
+    /**
+     * Drops buckets that have refilled completely.
+     */
+    private void cleanup() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    private static Limit readLimit(Plugin plugin, String path, Limit fallback) {
+        double capacity = plugin.getConfig().getDouble(path + ".capacity", fallback.capacity());
+        double refill = plugin.getConfig().getDouble(path + ".refill-per-second", fallback.refillPerSecond());
+        return new Limit(Math.max(0D, capacity), Math.max(0D, refill));
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.mcengine.common.premium.statistics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Aggregate statistics of the non-expired holders of a rank type, as returned by
+ * {@code MCEnginePremiumCommon.getRankStatistics(String)}.
+ *
+ * @param rankType     Rank type (e.g., vip, vvip)
+ * @param holders      number of holders
+ * @param total        sum of all holders' ranks
+ * @param distribution holder count per rank value, sorted by rank; unmodifiable
+ * @param reconciledAt epoch millis at which the aggregates last matched the database, or {@code 0}
+ *                     while they are still being loaded (see {@link #pending()})
+ */
+public record MCEnginePremiumRankStatistics(String rankType, long holders, long total,
+                                            SortedMap<Integer, Long> distribution, long reconciledAt) {
+
+    /**
+     * Builds statistics from a per-rank holder count.
+     *
+     * @param rankType     Rank type (e.g., vip, vvip)
+     * @param distribution holder count per rank value; copied
+     * @param reconciledAt epoch millis at which {@code distribution} matched the database
+     * @return the statistics
+     */
+    public static MCEnginePremiumRankStatistics of(String rankType, Map<Integer, Long> distribution, long reconciledAt) {
+        long holders = 0L;
+        long total = 0L;
+        for (Map.Entry<Integer, Long> entry : distribution.entrySet()) {
+            holders += entry.getValue();
+            total += (long) entry.getKey() * entry.getValue();
+        }
+        return new MCEnginePremiumRankStatistics(rankType, holders, total,
+                Collections.unmodifiableSortedMap(new TreeMap<>(distribution)), reconciledAt);
+    }
+
+    /** Returns {@code true} if the aggregates are still being loaded and report no holders yet. */
+    public boolean pending() {
+        return reconciledAt == 0L;
+    }
+
+    /** Returns the average rank of the holders, or {@code 0} if there are none. */
+    public double average() {
+        return holders == 0L ? 0.0 : (double) total / holders;
+    }
+}
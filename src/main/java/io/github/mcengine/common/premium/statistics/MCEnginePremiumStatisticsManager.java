@@ -0,0 +1,305 @@
+package io.github.mcengine.common.premium.statistics;
+
+import io.github.mcengine.common.premium.MCEnginePremiumCommon;
+import io.github.mcengine.common.premium.database.IMCEnginePremiumDB;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankPredicate;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps per-rank-type aggregates (holder count, total, distribution by rank) in memory so that
+ * {@code MCEnginePremiumCommon.getRankStatistics(String)} never scans a rank table.
+ *
+ * <p>Rank types that exist at startup are loaded with one {@code GROUP BY} each during the
+ * asynchronous startup; a rank type created later is loaded in the background on its first
+ * request, which until then reports it as pending. From then on every write made through
+ * {@link MCEnginePremiumCommon} moves holders between rank values in memory. Upgrades and adds
+ * derive the player's previous rank from the rank the write returned, so writes never pay an
+ * extra lookup.</p>
+ *
+ * <p>The aggregates are reconciled against the database periodically, and shortly after
+ * anything this server cannot account for exactly: sets, expiry deletions, batches, expiries set
+ * in the past, or adds whose result leaves the previous rank ambiguous. Reconciliation also
+ * picks up writes made by other servers sharing the database and corrects drift from
+ * concurrent writes to the same player. A reconcile that overlaps a
+ * local write is retried on the next pass, so it never discards a change it did not see.</p>
+ *
+ * <p>Config paths:</p>
+ * <ul>
+ *   <li>{@code statistics.enabled} (default: true)</li>
+ *   <li>{@code statistics.reconcile-interval-minutes} (default: 10) — full reconcile of every tracked rank type</li>
+ *   <li>{@code statistics.stale-delay-seconds} (default: 30) — delay before a rank type marked stale is reconciled</li>
+ * </ul>
+ */
+public class MCEnginePremiumStatisticsManager {
+
+    /** Reconciles of a rank type deferred because of concurrent writes before one is forced. */
+    private static final int MAX_DEFERRED = 3;
+
+    /** In-memory aggregates of one rank type; guarded by its own monitor. */
+    private static final class Tally {
+
+        /** Holder count per rank value. */
+        private final TreeMap<Integer, Long> distribution = new TreeMap<>();
+
+        /** Local writes applied since the tally was created; detects writes racing a reconcile. */
+        private long changes;
+
+        /** Consecutive reconciles skipped because a local write raced them. */
+        private int deferred;
+
+        /** Set when the aggregates may no longer match the database. */
+        private boolean stale;
+
+        /** Epoch millis of the last successful reconcile; {@code 0} while the first load is pending. */
+        private long reconciledAt;
+
+        /** Moves one holder from {@code before} to {@code after}; negative values mean no rank. */
+        private void move(int before, int after) {
+            if (before >= 0) distribution.computeIfPresent(before, (rank, holders) -> holders > 1 ? holders - 1 : null);
+            if (after >= 0) distribution.merge(after, 1L, Long::sum);
+            changes++;
+        }
+    }
+
+    /** The Premium common API providing the active database. */
+    private final MCEnginePremiumCommon api;
+
+    /** Owning plugin, used for scheduling and logging. */
+    private final Plugin plugin;
+
+    /** Interval between full reconciles in milliseconds. */
+    private final long reconcileIntervalMillis;
+
+    /** Delay before a stale rank type is reconciled, in seconds. */
+    private final long staleDelaySeconds;
+
+    /** Tracked rank types by lower-case name. */
+    private final Map<String, Tally> tallies = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the statistics manager from the plugin configuration.
+     *
+     * @param api the Premium common API
+     */
+    public MCEnginePremiumStatisticsManager(MCEnginePremiumCommon api) {
+        this.api = api;
+        this.plugin = api.getPlugin();
+        this.reconcileIntervalMillis = Math.max(1L, plugin.getConfig().getLong("statistics.reconcile-interval-minutes", 10L)) * 60_000L;
+        this.staleDelaySeconds = Math.max(1L, plugin.getConfig().getLong("statistics.stale-delay-seconds", 30L));
+    }
+
+    /**
+     * Starts the asynchronous reconcile task. Each run reconciles the rank types that are stale
+     * or were last reconciled more than {@code statistics.reconcile-interval-minutes} ago.
+     */
+    public void start() {
+        long ticks = staleDelaySeconds * 20L;
+        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::reconcileDue, ticks, ticks);
+    }
+
+    /**
+     * Loads the aggregates of a rank type before anyone asks for them. Called during the
+     * asynchronous startup, before any write can reach the database through the API.
+     *
+     * @param backend  the backend being started
+     * @param rankType Rank type (e.g., vip, vvip)
+     */
+    public void warm(IMCEnginePremiumDB backend, String rankType) {
+        Tally tally = new Tally();
+        tally.distribution.putAll(backend.getRankDistribution(rankType));
+        tally.reconciledAt = System.currentTimeMillis();
+        tallies.putIfAbsent(key(rankType), tally);
+    }
+
+    /**
+     * Returns the statistics of a rank type from memory; never queries the database on the
+     * calling thread. A rank type that was not loaded yet is loaded in the background and
+     * reported as pending (no holders, {@code reconciledAt} of 0) until then.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @return the current statistics
+     */
+    public MCEnginePremiumRankStatistics get(String rankType) {
+        String key = key(rankType);
+        Tally tally = tallies.get(key);
+        if (tally == null) {
+            Tally pending = new Tally();
+            pending.stale = true;
+            tally = tallies.putIfAbsent(key, pending);
+            if (tally == null) {
+                Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> tryReconcile(key, pending));
+                tally = pending;
+            }
+        }
+        synchronized (tally) {
+            if (tally.reconciledAt == 0L) return MCEnginePremiumRankStatistics.of(key, Map.of(), 0L);
+            return MCEnginePremiumRankStatistics.of(key, tally.distribution, tally.reconciledAt);
+        }
+    }
+
+    /**
+     * Returns {@code true} if the aggregates of a rank type are kept in memory.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     */
+    public boolean isTracked(String rankType) {
+        return tallies.containsKey(key(rankType));
+    }
+
+    /**
+     * Applies a single-player upgrade or add to the aggregates. The write clamps at 0 and
+     * inserts missing players at {@code max(delta, 0)}, so a positive result {@code after} means
+     * the player was at {@code after - delta}, or had no rank if that is 0 and nobody holds
+     * rank 0. Any other result leaves the previous rank unknown and marks the rank type stale.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     * @param delta    amount the write added (1 for an upgrade)
+     * @param after    rank the write returned
+     */
+    public void applyAdd(String rankType, int delta, int after) {
+        Tally tally = tallies.get(key(rankType));
+        if (tally == null) return;
+        synchronized (tally) {
+            int before = after - delta;
+            if (after <= 0 || before < 0) {
+                tally.stale = true;
+                tally.changes++;
+                return;
+            }
+            if (before == 0) {
+                // Either a new holder or one at rank 0; assume new and let a reconcile settle it.
+                if (tally.distribution.containsKey(0)) tally.stale = true;
+                before = -1;
+            }
+            tally.move(before, after);
+        }
+    }
+
+    /**
+     * Applies a bulk {@code adjustAll} to the aggregates: every rank value matched by
+     * {@code predicate} moves by {@code delta}, clamped at 0, as the database does.
+     *
+     * @param rankType  Rank type (e.g., vip, vvip)
+     * @param delta     amount added
+     * @param predicate rank-range condition of the update
+     */
+    public void shift(String rankType, int delta, MCEnginePremiumRankPredicate predicate) {
+        Tally tally = tallies.get(key(rankType));
+        if (tally == null) return;
+        Integer min = predicate.getMinRank();
+        Integer max = predicate.getMaxRank();
+        synchronized (tally) {
+            TreeMap<Integer, Long> shifted = new TreeMap<>();
+            for (Map.Entry<Integer, Long> entry : tally.distribution.entrySet()) {
+                int rank = entry.getKey();
+                boolean matches = (min == null || rank >= min) && (max == null || rank <= max);
+                int target = matches ? (int) Math.max(0L, (long) rank + delta) : rank;
+                shifted.merge(target, entry.getValue(), Long::sum);
+            }
+            tally.distribution.clear();
+            tally.distribution.putAll(shifted);
+            tally.changes++;
+        }
+    }
+
+    /**
+     * Empties the aggregates of a rank type after every holder was removed.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     */
+    public void clear(String rankType) {
+        Tally tally = tallies.get(key(rankType));
+        if (tally == null) return;
+        synchronized (tally) {
+            tally.distribution.clear();
+            tally.changes++;
+        }
+    }
+
+    /**
+     * Schedules a rank type for reconciliation within {@code statistics.stale-delay-seconds},
+     * after a change whose effect on the aggregates is unknown.
+     *
+     * @param rankType Rank type (e.g., vip, vvip)
+     */
+    public void markStale(String rankType) {
+        Tally tally = tallies.get(key(rankType));
+        if (tally == null) return;
+        synchronized (tally) {
+            tally.stale = true;
+            // Counts as a local write, so a reconcile already running cannot clear the flag.
+            tally.changes++;
+        }
+    }
+
+    /**
+     * Reconciles every tracked rank type that is stale or due for its periodic check.
+     */
+    private void reconcileDue() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Tally> entry : tallies.entrySet()) {
+            Tally tally = entry.getValue();
+            boolean due;
+            synchronized (tally) {
+                due = tally.stale || now - tally.reconciledAt >= reconcileIntervalMillis;
+            }
+            if (due) tryReconcile(entry.getKey(), tally);
+        }
+    }
+
+    /**
+     * Reconciles a rank type, logging instead of throwing if the database fails.
+     */
+    private void tryReconcile(String key, Tally tally) {
+        try {
+            reconcile(key, tally);
+        } catch (RuntimeException e) {
+            plugin.getLogger().warning("Failed to reconcile premium statistics of " + key + ": " + e);
+        }
+    }
+
+    /**
+     * Replaces the aggregates of a rank type with a fresh {@code GROUP BY}. If a local write was
+     * applied while the query ran, the result may predate it, so the tally is kept and retried
+     * on the next pass; after {@value #MAX_DEFERRED} deferrals, or on the first load, the fresh
+     * result is taken anyway.
+     */
+    private void reconcile(String key, Tally tally) {
+        long changesBefore;
+        synchronized (tally) {
+            changesBefore = tally.changes;
+        }
+        Map<Integer, Long> fresh = api.getDB().getRankDistribution(key);
+        synchronized (tally) {
+            boolean pending = tally.reconciledAt == 0L;
+            if (tally.changes != changesBefore && tally.deferred < MAX_DEFERRED && !pending) {
+                tally.deferred++;
+                tally.stale = true;
+                return;
+            }
+            if (!pending && !tally.distribution.equals(fresh)) {
+                long drift = MCEnginePremiumRankStatistics.of(key, fresh, 0L).holders()
+                        - MCEnginePremiumRankStatistics.of(key, tally.distribution, 0L).holders();
+                plugin.getLogger().fine("Reconciled premium statistics of " + key + " (holders "
+                        + (drift >= 0 ? "+" : "") + drift + ").");
+            }
+            tally.distribution.clear();
+            tally.distribution.putAll(fresh);
+            tally.deferred = 0;
+            // A forced reconcile may have missed a racing write; check again on the next pass.
+            tally.stale = tally.changes != changesBefore;
+            tally.reconciledAt = System.currentTimeMillis();
+        }
+    }
+
+    /** Returns the tally key of a rank type. */
+    private static String key(String rankType) {
+        return rankType.toLowerCase(Locale.ROOT);
+    }
+}
@@ -4,11 +4,14 @@ import io.github.mcengine.common.premium.MCEnginePremiumCommon;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
+import org.bukkit.command.ConsoleCommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Tab completion for {@code /premium}.
@@ -27,6 +30,22 @@ public class MCEnginePremiumTabCompleter implements TabCompleter {
     private static final String PERM_GET_SELF = "mcengine.premium.rank.get";
     /** Permission node: allows checking other players' ranks (suggests player names for {@code get}). */
     private static final String PERM_GET_OTHERS = "mcengine.premium.rank.get.players";
+    /** Permission node: allows setting a player's rank (suggests {@code set}). */
+    private static final String PERM_SET = "mcengine.premium.rank.set";
+    /** Permission node: allows adding to a player's rank (suggests {@code add}). */
+    private static final String PERM_ADD = "mcengine.premium.rank.add";
+    /** Permission node: allows resetting a rank type (suggests {@code reset}). */
+    private static final String PERM_RESET = "mcengine.premium.rank.reset";
+    /** Permission node: allows adjusting all holders of a rank type (suggests {@code adjustall}). */
+    private static final String PERM_ADJUST_ALL = "mcengine.premium.rank.adjustall";
+    /** Permission node: allows changing a rank's expiry (suggests {@code expire}). */
+    private static final String PERM_EXPIRE = "mcengine.premium.rank.expire";
+    /** Permission node: allows viewing rank history (suggests {@code history}). */
+    private static final String PERM_HISTORY = "mcengine.premium.rank.history";
+    /** Permission node: allows listing every holder of a rank type (suggests {@code list}). */
+    private static final String PERM_LIST = "mcengine.premium.rank.list";
+    /** Permission node: allows taking database backups (suggests {@code backup}). */
+    private static final String PERM_BACKUP = "mcengine.premium.backup";
 
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
@@ -37,13 +56,61 @@ public class MCEnginePremiumTabCompleter implements TabCompleter {
             if (sender.hasPermission(PERM_CREATE)) out.add("create");
             if (sender.hasPermission(PERM_UPGRADE)) out.add("upgrade");
             if (sender.hasPermission(PERM_GET_SELF) || sender.hasPermission(PERM_GET_OTHERS)) out.add("get");
+            if (sender.hasPermission(PERM_SET)) out.add("set");
+            if (sender.hasPermission(PERM_ADD)) out.add("add");
+            if (sender.hasPermission(PERM_RESET)) out.add("reset");
+            if (sender.hasPermission(PERM_ADJUST_ALL)) out.add("adjustall");
+            if (sender.hasPermission(PERM_EXPIRE)) out.add("expire");
+            if (sender.hasPermission(PERM_HISTORY)) out.add("history");
+            if (sender.hasPermission(PERM_LIST)) out.add("list");
+            if (sender instanceof ConsoleCommandSender) out.add("reshard");
+            if (sender.hasPermission(PERM_BACKUP)) out.add("backup");
             return filter(out, args[0]);
         }
 
+        // /premium set|add|expire|history <player> <rankType> ...
+        String sub = args[0].toLowerCase();
+        if (sub.equals("set") || sub.equals("add") || sub.equals("expire") || sub.equals("history")) {
+            String perm = switch (sub) {
+                case "set" -> PERM_SET;
+                case "add" -> PERM_ADD;
+                case "expire" -> PERM_EXPIRE;
+                default -> PERM_HISTORY;
+            };
+            if (!sender.hasPermission(perm)) return out;
+            if (args.length == 2) {
+                // history also works for offline players
+                out.addAll(playerNames(args[1], sub.equals("history")));
+                return filter(out, args[1]);
+            }
+            if (args.length == 3) {
+                out.addAll(rankTypes());
+                return filter(out, args[2]);
+            }
+            if (args.length == 4 && "expire".equalsIgnoreCase(args[0])) {
+                out.add("clear");
+                return filter(out, args[3]);
+            }
+            return out;
+        }
+
+        // /premium reset|adjustall|list <rankType> ...
+        if (args.length == 2 && (sub.equals("reset") || sub.equals("adjustall") || sub.equals("list"))) {
+            String perm = switch (sub) {
+                case "reset" -> PERM_RESET;
+                case "adjustall" -> PERM_ADJUST_ALL;
+                default -> PERM_LIST;
+            };
+            if (sender.hasPermission(perm)) {
+                out.addAll(rankTypes());
+            }
+            return filter(out, args[1]);
+        }
+
         // /premium upgrade <rankType>
         if (args.length == 2 && "upgrade".equalsIgnoreCase(args[0])) {
             if (sender.hasPermission(PERM_UPGRADE)) {
-                out.addAll(MCEnginePremiumCommon.getApi().listAvailableRankTypes());
+                out.addAll(rankTypes());
             }
             return filter(out, args[1]);
         }
@@ -53,17 +120,17 @@ public class MCEnginePremiumTabCompleter implements TabCompleter {
             if (args.length == 2) {
                 // Suggest available rank types for self-get
                 if (sender.hasPermission(PERM_GET_SELF)) {
-                    out.addAll(MCEnginePremiumCommon.getApi().listAvailableRankTypes());
+                    out.addAll(rankTypes());
                 }
-                // Also suggest online player names if they can query others
+                // Also suggest online and known offline player names if they can query others
                 if (sender.hasPermission(PERM_GET_OTHERS)) {
-                    for (Player p : Bukkit.getOnlinePlayers()) out.add(p.getName());
+                    out.addAll(playerNames(args[1], true));
                 }
                 return filter(out, args[1]);
             }
             if (args.length == 3 && sender.hasPermission(PERM_GET_OTHERS)) {
                 // When querying others, suggest rank types as the 3rd arg
-                out.addAll(MCEnginePremiumCommon.getApi().listAvailableRankTypes());
+                out.addAll(rankTypes());
                 return filter(out, args[2]);
             }
             return out;
@@ -73,6 +140,25 @@ public class MCEnginePremiumTabCompleter implements TabCompleter {
         return out;
     }
 
+    /**
+     * Returns the available rank types, or none while the database is still starting.
+     */
+    private List<String> rankTypes() {
+        MCEnginePremiumCommon api = MCEnginePremiumCommon.getApi();
+        return api.isReady() ? api.listAvailableRankTypes() : new ArrayList<>();
+    }
+
+    /**
+     * Returns the online player names, followed by known offline names starting with
+     * {@code prefix} from the player directory's cache if {@code offline} is set.
+     */
+    private List<String> playerNames(String prefix, boolean offline) {
+        Set<String> names = new LinkedHashSet<>();
+        for (Player p : Bukkit.getOnlinePlayers()) names.add(p.getName());
+        if (offline) names.addAll(MCEnginePremiumCommon.getApi().getPlayerDirectory().suggest(prefix));
+        return new ArrayList<>(names);
+    }
+
     private List<String> filter(List<String> base, String token) {
         if (token == null || token.isEmpty()) return base;
         String lower = token.toLowerCase();
@@ -0,0 +1,40 @@
+package io.github.mcengine.common.premium;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.logging.Logger;
+
+/**
+ * Minimal {@link Plugin} for tests: a data folder, an in-memory configuration and a logger.
+ * Every other method returns {@code null} or {@code false}.
+ */
+public final class MCEnginePremiumTestPlugin {
+
+    private MCEnginePremiumTestPlugin() {}
+
+    /**
+     * Creates a plugin backed by {@code dataFolder} and {@code config}.
+     *
+     * @param dataFolder directory returned by {@link Plugin#getDataFolder()}, e.g. a JUnit temp dir
+     * @param config     configuration returned by {@link Plugin#getConfig()}
+     * @return the plugin
+     */
+    public static Plugin create(File dataFolder, YamlConfiguration config) {
+        Logger logger = Logger.getLogger("MCEnginePremiumTest");
+        return (Plugin) Proxy.newProxyInstance(Plugin.class.getClassLoader(), new Class<?>[] {Plugin.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getConfig" -> config;
+                    case "getDataFolder" -> dataFolder;
+                    case "getLogger" -> logger;
+                    case "getName" -> "MCEnginePremiumTest";
+                    case "isEnabled" -> true;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "MCEnginePremiumTestPlugin";
+                    default -> method.getReturnType() == boolean.class ? false : null;
+                });
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.mcengine.common.premium.database.sharding;
+
+import io.github.mcengine.common.premium.MCEnginePremiumTestPlugin;
+import io.github.mcengine.common.premium.database.IMCEnginePremiumDB;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankHistoryEntry;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankRow;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Copies data between sharded layouts of temporary SQLite files with {@link MCEnginePremiumReshardTool}.
+ */
+class MCEnginePremiumReshardToolTest {
+
+    @TempDir
+    File dataFolder;
+
+    /** Backends opened by a test, closed afterwards. */
+    private final List<IMCEnginePremiumDB> opened = new ArrayList<>();
+
+    @AfterEach
+    void close() {
+        opened.forEach(IMCEnginePremiumDB::disConnection);
+    }
+
+    @Test
+    void copiesFourShardsToSixAndReroutesEveryRow() {
+        MCEnginePremiumShardedDB source = MCEnginePremiumShardedDBTest.open(dataFolder, "source", 4, opened);
+        MCEnginePremiumShardedDB target = MCEnginePremiumShardedDBTest.open(dataFolder, "target", 6, opened);
+        source.createPremiumRank("vip");
+        source.createPremiumRank("mvp");
+        source.createRankHistory();
+        List<String> uuids = MCEnginePremiumShardedDBTest.players(300);
+        long expiry = System.currentTimeMillis() + 3_600_000L;
+        List<MCEnginePremiumRankHistoryEntry> history = new ArrayList<>();
+        for (int i = 0; i < uuids.size(); i++) {
+            String uuid = uuids.get(i);
+            source.setPremiumRank(uuid, "vip", i % 17);
+            if (i % 3 == 0) source.setPremiumRank(uuid, "mvp", i);
+            if (i % 10 == 0) source.setPremiumRankExpiry(uuid, "vip", expiry);
+            history.add(new MCEnginePremiumRankHistoryEntry(0L, uuid, "vip", "set", i % 17, i % 17, 1000L + i));
+        }
+        history.add(new MCEnginePremiumRankHistoryEntry(0L, null, "vip", "adjustall", 1, null, 5000L));
+        assertTrue(source.insertRankHistory(history));
+
+        MCEnginePremiumReshardTool.Result result = new MCEnginePremiumReshardTool(
+                MCEnginePremiumTestPlugin.create(dataFolder, new YamlConfiguration()), source, target, 32).run(true);
+
+        assertEquals(2, result.rankTypes());
+        assertEquals(300 + 100, result.rows());
+        assertEquals(301, result.historyEntries());
+
+        for (int i = 0; i < uuids.size(); i++) {
+            String uuid = uuids.get(i);
+            IMCEnginePremiumDB owner = target.getShards().get(target.shardIndex(uuid));
+            assertEquals(i % 17, owner.getPremiumRank(uuid, "vip"));
+            assertEquals(i % 3 == 0 ? i : -1, owner.getPremiumRank(uuid, "mvp"));
+            assertEquals(i % 10 == 0 ? expiry : 0L, owner.getPremiumRankExpiry(uuid, "vip"));
+
+            List<MCEnginePremiumRankHistoryEntry> entries = target.getRankHistory(uuid, "vip", 0L, 10);
+            assertEquals(2, entries.size(), "own entry plus the type-wide entry");
+            MCEnginePremiumRankHistoryEntry own = entries.get(0).uuid() != null ? entries.get(0) : entries.get(1);
+            assertEquals(uuid, own.uuid());
+            assertEquals(i % 17, own.rank());
+        }
+
+        // No shard holds rows it does not own.
+        long rows = 0L;
+        for (int s = 0; s < target.getShards().size(); s++) {
+            for (String rankType : List.of("vip", "mvp")) {
+                for (MCEnginePremiumRankRow row : target.getShards().get(s).exportPremiumRanks(rankType, null, 1000)) {
+                    assertEquals(s, target.shardIndex(row.uuid()));
+                    rows++;
+                }
+            }
+        }
+        assertEquals(400L, rows);
+
+        // The source is left untouched.
+        assertEquals(300, source.getTopPremiumRanks("vip", 1000).size());
+    }
+
+    @Test
+    void refusesATargetThatAlreadyHoldsRows() {
+        MCEnginePremiumShardedDB source = MCEnginePremiumShardedDBTest.open(dataFolder, "source", 4, opened);
+        MCEnginePremiumShardedDB target = MCEnginePremiumShardedDBTest.open(dataFolder, "target", 6, opened);
+        source.createPremiumRank("vip");
+        source.upgradePremiumRank(MCEnginePremiumShardedDBTest.players(1).get(0), "vip");
+        target.createPremiumRank("vip");
+        target.upgradePremiumRank(MCEnginePremiumShardedDBTest.players(2).get(1), "vip");
+
+        MCEnginePremiumReshardTool tool = new MCEnginePremiumReshardTool(
+                MCEnginePremiumTestPlugin.create(dataFolder, new YamlConfiguration()), source, target, 32);
+        assertThrows(IllegalStateException.class, () -> tool.run(false));
+        assertEquals(-1, target.getPremiumRank(MCEnginePremiumShardedDBTest.players(1).get(0), "vip"));
+    }
+}
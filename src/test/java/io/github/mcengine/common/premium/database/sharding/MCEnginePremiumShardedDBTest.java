@@ -0,0 +1,311 @@
+package io.github.mcengine.common.premium.database.sharding;
+
+import io.github.mcengine.common.premium.MCEnginePremiumTestPlugin;
+import io.github.mcengine.common.premium.database.IMCEnginePremiumDB;
+import io.github.mcengine.common.premium.database.MCEnginePremiumBatchOperation;
+import io.github.mcengine.common.premium.database.MCEnginePremiumBatchOperation.Type;
+import io.github.mcengine.common.premium.database.MCEnginePremiumPartialBatchException;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankHistoryEntry;
+import io.github.mcengine.common.premium.database.MCEnginePremiumRankRow;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@link MCEnginePremiumShardedDB} against one temporary SQLite file per shard.
+ */
+class MCEnginePremiumShardedDBTest {
+
+    @TempDir
+    File dataFolder;
+
+    /** Backends opened by a test, closed afterwards. */
+    private final List<IMCEnginePremiumDB> opened = new ArrayList<>();
+
+    @AfterEach
+    void close() {
+        opened.forEach(IMCEnginePremiumDB::disConnection);
+    }
+
+    /**
+     * Opens a sharded backend over {@code count} SQLite files named {@code <prefix>-<i>.db}.
+     */
+    static MCEnginePremiumShardedDB open(File dataFolder, String prefix, int count, List<IMCEnginePremiumDB> opened) {
+        YamlConfiguration config = new YamlConfiguration();
+        for (int i = 0; i < count; i++) {
+            config.set("database.sharded.shards.shard-" + i + ".type", "sqlite");
+            config.set("database.sharded.shards.shard-" + i + ".path", prefix + "-" + i + ".db");
+        }
+        MCEnginePremiumShardedDB db = new MCEnginePremiumShardedDB(MCEnginePremiumTestPlugin.create(dataFolder, config));
+        opened.add(db);
+        return db;
+    }
+
+    /** Returns {@code count} fixed, distinct player UUIDs. */
+    static List<String> players(int count) {
+        List<String> uuids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) uuids.add(UUID.nameUUIDFromBytes(("player-" + i).getBytes()).toString());
+        return uuids;
+    }
+
+    @Test
+    void routesEachPlayerToItsJumpHashShard() {
+        MCEnginePremiumShardedDB db = open(dataFolder, "route", 4, opened);
+        db.createPremiumRank("vip");
+        List<String> uuids = players(400);
+        int[] perShard = new int[4];
+        for (String uuid : uuids) {
+            int index = db.shardIndex(uuid);
+            assertEquals(index, db.shardIndex(uuid.toUpperCase()), "routing must not depend on UUID case");
+            perShard[index]++;
+            assertEquals(1, db.upgradeAndGetPremiumRank(uuid, "vip"));
+        }
+        for (int count : perShard) assertTrue(count > 50, "uneven spread: " + Arrays.toString(perShard));
+
+        // Every row is stored on exactly the shard the hash names, and only there.
+        List<IMCEnginePremiumDB> shards = db.getShards();
+        for (String uuid : uuids) {
+            int owner = db.shardIndex(uuid);
+            for (int i = 0; i < shards.size(); i++) {
+                assertEquals(i == owner ? 1 : -1, shards.get(i).getPremiumRank(uuid, "vip"));
+            }
+            assertEquals(1, db.getPremiumRank(uuid, "vip"));
+        }
+    }
+
+    @Test
+    void appendingAShardOnlyMovesPlayersToTheNewShard() {
+        MCEnginePremiumShardedDB four = open(dataFolder, "four", 4, opened);
+        MCEnginePremiumShardedDB five = open(dataFolder, "five", 5, opened);
+        int moved = 0;
+        List<String> uuids = players(2000);
+        for (String uuid : uuids) {
+            int before = four.shardIndex(uuid);
+            int after = five.shardIndex(uuid);
+            if (before != after) {
+                assertEquals(4, after, "a moved player must land on the appended shard");
+                moved++;
+            }
+        }
+        // Jump hashing moves about 1/5 of the keys.
+        assertTrue(moved > 300 && moved < 500, "moved " + moved + " of " + uuids.size());
+    }
+
+    @Test
+    void topRanksMergeEveryShardInRankOrder() {
+        MCEnginePremiumShardedDB db = open(dataFolder, "top", 3, opened);
+        db.createPremiumRank("vip");
+        List<String> uuids = players(60);
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < uuids.size(); i++) {
+            int rank = (i * 7) % 20;
+            assertEquals(rank, db.setPremiumRank(uuids.get(i), "vip", rank));
+            expected.put(uuids.get(i), rank);
+        }
+        Set<Integer> shardsUsed = new HashSet<>();
+        for (String uuid : uuids) shardsUsed.add(db.shardIndex(uuid));
+        assertEquals(3, shardsUsed.size());
+
+        List<MCEnginePremiumRankRow> top = db.getTopPremiumRanks("vip", 10);
+        List<MCEnginePremiumRankRow> all = new ArrayList<>();
+        expected.forEach((uuid, rank) -> all.add(new MCEnginePremiumRankRow(uuid, rank, 0L)));
+        all.sort(Comparator.comparingInt(MCEnginePremiumRankRow::rank).reversed().thenComparing(MCEnginePremiumRankRow::uuid));
+        assertEquals(10, top.size());
+        for (int i = 0; i < top.size(); i++) {
+            assertEquals(all.get(i).uuid(), top.get(i).uuid());
+            assertEquals(all.get(i).rank(), top.get(i).rank());
+        }
+        assertEquals(60, db.getTopPremiumRanks("vip", 100).size());
+    }
+
+    @Test
+    void bulkLookupGathersFromEveryShard() {
+        MCEnginePremiumShardedDB db = open(dataFolder, "bulk", 4, opened);
+        db.createPremiumRank("vip");
+        List<String> uuids = players(40);
+        for (int i = 0; i < uuids.size(); i++) db.setPremiumRank(uuids.get(i), "vip", i + 1);
+        List<String> query = new ArrayList<>(uuids);
+        String missing = UUID.nameUUIDFromBytes("nobody".getBytes()).toString();
+        query.add(missing);
+
+        Map<String, Integer> ranks = db.getPremiumRanks("vip", query);
+        assertEquals(40, ranks.size());
+        for (int i = 0; i < uuids.size(); i++) assertEquals(i + 1, ranks.get(uuids.get(i)));
+        assertNull(ranks.get(missing));
+    }
+
+    @Test
+    void playerNamesAreReadFromEachPlayersShard() {
+        MCEnginePremiumShardedDB db = open(dataFolder, "names", 3, opened);
+        db.createPlayerNames();
+        List<String> uuids = players(30);
+        for (int i = 0; i < uuids.size(); i++) db.upsertPlayerName(uuids.get(i), "Player" + i, 1000L + i);
+        List<String> query = new ArrayList<>(uuids);
+        String unknown = UUID.nameUUIDFromBytes("unknown".getBytes()).toString();
+        query.add(unknown);
+
+        Map<String, String> names = db.getPlayerNames(query);
+        assertEquals(30, names.size());
+        for (int i = 0; i < uuids.size(); i++) assertEquals("Player" + i, names.get(uuids.get(i)));
+        assertNull(names.get(unknown));
+    }
+
+    @Test
+    void batchIsSplitByShardAndCountsKeepTheirPositions() throws Exception {
+        MCEnginePremiumShardedDB db = open(dataFolder, "batch", 4, opened);
+        List<String> uuids = players(20);
+        List<MCEnginePremiumBatchOperation> operations = new ArrayList<>();
+        operations.add(new MCEnginePremiumBatchOperation(Type.CREATE, null, "vip", 0L));
+        for (int i = 0; i < uuids.size(); i++) {
+            operations.add(new MCEnginePremiumBatchOperation(Type.SET, uuids.get(i), "vip", i));
+            operations.add(new MCEnginePremiumBatchOperation(Type.UPGRADE, uuids.get(i), "vip", 0L));
+        }
+        String absent = UUID.nameUUIDFromBytes("absent".getBytes()).toString();
+        operations.add(new MCEnginePremiumBatchOperation(Type.EXPIRY, absent, "vip", System.currentTimeMillis() + 60_000L));
+
+        int[] counts = db.executeBatch(operations);
+        assertEquals(operations.size(), counts.length);
+        for (int i = 1; i < operations.size() - 1; i++) assertEquals(1, counts[i], "operation " + i);
+        assertEquals(0, counts[counts.length - 1], "expiry of a player without the rank");
+
+        // CREATE reached every shard; each player's writes stayed on its own shard.
+        for (IMCEnginePremiumDB shard : db.getShards()) assertTrue(shard.rankTableExists("vip"));
+        for (int i = 0; i < uuids.size(); i++) {
+            String uuid = uuids.get(i);
+            assertEquals(i + 1, db.getShards().get(db.shardIndex(uuid)).getPremiumRank(uuid, "vip"));
+        }
+        int rows = 0;
+        for (IMCEnginePremiumDB shard : db.getShards()) rows += shard.exportPremiumRanks("vip", null, 100).size();
+        assertEquals(20, rows);
+    }
+
+    @Test
+    void batchFailingOnOneShardReportsTheWritesOtherShardsCommitted() {
+        MCEnginePremiumShardedDB db = open(dataFolder, "partial", 2, opened);
+        // Only shard 0 has the table, so the part sent to shard 1 fails and rolls back.
+        db.getShards().get(0).createPremiumRank("vip");
+        List<String> uuids = players(20);
+        List<MCEnginePremiumBatchOperation> operations = new ArrayList<>();
+        for (String uuid : uuids) operations.add(new MCEnginePremiumBatchOperation(Type.SET, uuid, "vip", 5L));
+
+        MCEnginePremiumPartialBatchException e = assertThrows(MCEnginePremiumPartialBatchException.class,
+                () -> db.executeBatch(operations));
+        int[] counts = e.getUpdateCounts();
+        Set<Integer> shardsUsed = new HashSet<>();
+        for (int i = 0; i < uuids.size(); i++) {
+            String uuid = uuids.get(i);
+            int shard = db.shardIndex(uuid);
+            shardsUsed.add(shard);
+            assertEquals(shard == 0 ? 1 : Statement.EXECUTE_FAILED, counts[i], "operation " + i);
+            assertEquals(shard == 0, e.isCommitted(i));
+            if (shard == 0) assertEquals(5, db.getPremiumRank(uuid, "vip"));
+        }
+        assertEquals(2, shardsUsed.size());
+    }
+
+    @Test
+    void batchFailingOnEveryShardIsAPlainRollback() {
+        MCEnginePremiumShardedDB db = open(dataFolder, "rollback", 2, opened);
+        List<MCEnginePremiumBatchOperation> operations = new ArrayList<>();
+        for (String uuid : players(20)) operations.add(new MCEnginePremiumBatchOperation(Type.SET, uuid, "vip", 5L));
+
+        Exception e = assertThrows(Exception.class, () -> db.executeBatch(operations));
+        assertFalse(e instanceof MCEnginePremiumPartialBatchException, "nothing was committed: " + e);
+    }
+
+    @Test
+    void historyExportWalksEveryShardAndEmitsTypeWideEntriesOnce() {
+        MCEnginePremiumShardedDB db = open(dataFolder, "history", 3, opened);
+        db.createRankHistory();
+        List<String> uuids = players(30);
+        List<MCEnginePremiumRankHistoryEntry> entries = new ArrayList<>();
+        for (int i = 0; i < uuids.size(); i++) {
+            entries.add(new MCEnginePremiumRankHistoryEntry(0L, uuids.get(i), "vip", "set", i, i, 1000L + i));
+        }
+        entries.add(new MCEnginePremiumRankHistoryEntry(0L, null, "vip", "reset", 30, -1, 2000L));
+        assertTrue(db.insertRankHistory(entries));
+
+        // The type-wide entry shows up in every player's history.
+        for (String uuid : uuids) {
+            List<MCEnginePremiumRankHistoryEntry> history = db.getRankHistory(uuid, "vip", 0L, 10);
+            assertEquals(2, history.size());
+            assertEquals("reset", history.get(0).action());
+            assertNull(history.get(0).uuid());
+        }
+
+        // Page with a size that does not divide the shard sizes.
+        List<MCEnginePremiumRankHistoryEntry> exported = new ArrayList<>();
+        long cursor = 0L;
+        List<MCEnginePremiumRankHistoryEntry> page;
+        do {
+            page = db.exportRankHistory(cursor, 7);
+            exported.addAll(page);
+            if (!page.isEmpty()) cursor = page.get(page.size() - 1).id();
+        } while (page.size() == 7);
+
+        assertEquals(31, exported.size());
+        Set<Long> ids = new HashSet<>();
+        Set<String> players = new HashSet<>();
+        int typeWide = 0;
+        for (MCEnginePremiumRankHistoryEntry entry : exported) {
+            assertTrue(ids.add(entry.id()), "duplicate cursor " + entry.id());
+            if (entry.uuid() == null) typeWide++;
+            else players.add(entry.uuid());
+        }
+        assertEquals(1, typeWide);
+        assertEquals(new HashSet<>(uuids), players);
+        for (int i = 1; i < exported.size(); i++) assertTrue(exported.get(i - 1).id() < exported.get(i).id());
+        assertTrue(db.exportRankHistory(cursor, 7).isEmpty());
+    }
+
+    @Test
+    void profileExpiriesCoverEveryHeldRankType() {
+        MCEnginePremiumShardedDB db = open(dataFolder, "profile", 3, opened);
+        for (String rankType : List.of("vip", "mvp", "elite", "legend")) db.createPremiumRank(rankType);
+        String uuid = players(1).get(0);
+        long now = System.currentTimeMillis();
+        db.setPremiumRank(uuid, "vip", 1);
+        db.setPremiumRank(uuid, "mvp", 2);
+        db.setPremiumRank(uuid, "elite", 3);
+        assertTrue(db.setPremiumRankExpiry(uuid, "vip", now + 60_000L));
+        assertTrue(db.setPremiumRankExpiry(uuid, "elite", now - 1));
+
+        // Permanent ranks report 0; expired and missing rank types are absent.
+        assertEquals(Map.of("mvp", 0L, "vip", now + 60_000L), db.getAllPremiumRankExpiries(uuid));
+        assertEquals(Map.of("mvp", 2, "vip", 1), db.getAllPremiumRanks(uuid));
+    }
+
+    @Test
+    void expiredSweepMergesRemovedPlayersOfEveryShard() {
+        MCEnginePremiumShardedDB db = open(dataFolder, "expiry", 3, opened);
+        db.createPremiumRank("vip");
+        List<String> uuids = players(12);
+        long now = System.currentTimeMillis();
+        for (String uuid : uuids) {
+            db.setPremiumRank(uuid, "vip", 2);
+            assertTrue(db.setPremiumRankExpiry(uuid, "vip", now - 1));
+        }
+        List<String> removed = db.deleteExpiredPremiumRanks("vip", now, 100);
+        assertEquals(new HashSet<>(uuids), new HashSet<>(removed));
+        for (String uuid : uuids) assertEquals(-1, db.getPremiumRank(uuid, "vip"));
+    }
+}
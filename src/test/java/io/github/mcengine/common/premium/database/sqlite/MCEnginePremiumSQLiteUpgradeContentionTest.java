@@ -0,0 +1,125 @@
+package io.github.mcengine.common.premium.database.sqlite;
+
+import io.github.mcengine.common.premium.MCEnginePremiumTestPlugin;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrent {@code upgradePremiumRank} calls against one SQLite file through several backend
+ * instances, each with its own connection standing in for one server. Every increment must be
+ * applied exactly once. This is the automated counterpart of the {@code stressTest} harness.
+ */
+class MCEnginePremiumSQLiteUpgradeContentionTest {
+
+    /** Backend instances sharing the database file. */
+    private static final int SERVERS = 3;
+
+    /** Upgrading threads per instance. */
+    private static final int THREADS = 4;
+
+    @TempDir
+    File dataFolder;
+
+    /** One backend per simulated server. */
+    private final List<MCEnginePremiumSQLite> servers = new ArrayList<>();
+
+    @BeforeEach
+    void open() {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("database.sqlite.path", "contention.db");
+        Plugin plugin = MCEnginePremiumTestPlugin.create(dataFolder, config);
+        for (int i = 0; i < SERVERS; i++) servers.add(new MCEnginePremiumSQLite(plugin));
+        servers.get(0).createPremiumRank("stress");
+    }
+
+    @AfterEach
+    void close() {
+        servers.forEach(MCEnginePremiumSQLite::disConnection);
+    }
+
+    @Test
+    void hotPlayerReceivesEveryUpgradeExactlyOnce() throws Exception {
+        String hot = UUID.randomUUID().toString();
+        int upgrades = 150;
+        ConcurrentLinkedQueue<Integer> returned = new ConcurrentLinkedQueue<>();
+        run(upgrades, (server, thread, i) -> returned.add(server.upgradeAndGetPremiumRank(hot, "stress")));
+
+        int issued = SERVERS * THREADS * upgrades;
+        assertEquals(issued, servers.get(0).getPremiumRank(hot, "stress"));
+        // Each upgrade saw a distinct rank: no two writers read the same value.
+        Set<Integer> distinct = new HashSet<>(returned);
+        assertEquals(issued, distinct.size());
+        for (int rank = 1; rank <= issued; rank++) assertTrue(distinct.contains(rank), "missing rank " + rank);
+    }
+
+    @Test
+    void spreadPlayersEachReceiveTheirOwnUpgrades() throws Exception {
+        int playersPerThread = 25;
+        int upgradesPerPlayer = 4;
+        ConcurrentHashMap<String, Integer> issued = new ConcurrentHashMap<>();
+        List<String> players = new ArrayList<>();
+        for (int i = 0; i < SERVERS * THREADS * playersPerThread; i++) players.add(UUID.randomUUID().toString());
+        run(playersPerThread * upgradesPerPlayer, (server, thread, i) -> {
+            String uuid = players.get(thread * playersPerThread + i % playersPerThread);
+            issued.merge(uuid, 1, Integer::sum);
+            assertTrue(server.upgradeAndGetPremiumRank(uuid, "stress") > 0);
+        });
+
+        assertEquals(players.size(), issued.size());
+        var ranks = servers.get(SERVERS - 1).getPremiumRanks("stress", players);
+        for (String uuid : players) assertEquals(upgradesPerPlayer, ranks.get(uuid), uuid);
+    }
+
+    /** One upgrade issued by a thread. */
+    private interface Upgrade {
+        void apply(MCEnginePremiumSQLite server, int thread, int index) throws Exception;
+    }
+
+    /**
+     * Runs {@code perThread} upgrades on each of {@link #THREADS} threads per server, all
+     * released at once, and rethrows the first failure.
+     */
+    private void run(int perThread, Upgrade upgrade) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(SERVERS * THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int s = 0; s < SERVERS; s++) {
+                for (int t = 0; t < THREADS; t++) {
+                    MCEnginePremiumSQLite server = servers.get(s);
+                    int thread = s * THREADS + t;
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < perThread; i++) upgrade.apply(server, thread, i);
+                        return null;
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<?> future : futures) future.get(2, TimeUnit.MINUTES);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}